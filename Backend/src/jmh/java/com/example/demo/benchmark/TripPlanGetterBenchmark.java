@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.TripPlan;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old TripPlan getters (new ObjectMapper + readTree on every call)
+ * with the cached TripPlanDocument, for the five getters the weather/status scans read per trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripPlanGetterBenchmark {
+
+    private static final String TRIP_PLAN_JSON = """
+        {
+            "trip_summary": {
+                "origin": "Dhaka",
+                "destination": "Cox's Bazar",
+                "start_date": "2025-12-01",
+                "duration": 3,
+                "total_budget": 25000
+            },
+            "daily_itinerary": [
+                {"day": 1, "morning_activity": {"spot_name": "Inani Beach"},
+                 "afternoon_activities": [{"spot_name": "Himchari"}],
+                 "accommodation_options": [{"hotel_name": "Sea Pearl", "cost_per_night": 8000}]},
+                {"day": 2, "morning_activity": {"spot_name": "Laboni Beach"},
+                 "afternoon_activities": [{"spot_name": "Radar Station"}],
+                 "accommodation_options": [{"hotel_name": "Sea Pearl", "cost_per_night": 8000}]}
+            ]
+        }
+        """;
+
+    private TripPlan tripPlan;
+
+    @Setup
+    public void setUp() {
+        tripPlan = TripPlan.builder().id(1L).tripPlan(TRIP_PLAN_JSON).build();
+    }
+
+    @Benchmark
+    public void legacyGetters(Blackhole bh) {
+        bh.consume(legacyString("destination", "trip_summary.destination"));
+        bh.consume(legacyString("origin", "trip_summary.origin"));
+        bh.consume(legacyString("start_date", "trip_summary.start_date"));
+        bh.consume(legacyInt("duration_days", "trip_summary.duration"));
+        bh.consume(legacyDouble("budget", "trip_summary.total_budget"));
+    }
+
+    @Benchmark
+    public void documentGetters(Blackhole bh) {
+        bh.consume(tripPlan.getDestination());
+        bh.consume(tripPlan.getOrigin());
+        bh.consume(tripPlan.getStartDate());
+        bh.consume(tripPlan.getDurationDays());
+        bh.consume(tripPlan.getBudget());
+    }
+
+    // Cold path: a freshly loaded entity pays for exactly one parse
+    @Benchmark
+    public void documentGettersFreshEntity(Blackhole bh) {
+        TripPlan fresh = TripPlan.builder().id(1L).tripPlan(TRIP_PLAN_JSON).build();
+        bh.consume(fresh.getDestination());
+        bh.consume(fresh.getOrigin());
+        bh.consume(fresh.getStartDate());
+        bh.consume(fresh.getDurationDays());
+        bh.consume(fresh.getBudget());
+    }
+
+    // Copies of the pre-TripPlanDocument helpers, kept here as the baseline
+    private String legacyString(String... paths) {
+        JsonNode node = legacyLookup(paths);
+        return node != null ? node.asText() : null;
+    }
+
+    private Integer legacyInt(String... paths) {
+        JsonNode node = legacyLookup(paths);
+        return node != null ? node.asInt() : null;
+    }
+
+    private Double legacyDouble(String... paths) {
+        JsonNode node = legacyLookup(paths);
+        return node != null ? node.asDouble() : null;
+    }
+
+    private JsonNode legacyLookup(String... paths) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode root = mapper.readTree(TRIP_PLAN_JSON);
+            for (String path : paths) {
+                JsonNode current = root;
+                for (String part : path.split("\\.")) {
+                    if (current == null || current.isNull()) {
+                        break;
+                    }
+                    current = current.get(part);
+                }
+                if (current != null && !current.isNull()) {
+                    return current;
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.FixtureWeatherProvider;
+import com.example.demo.service.WeatherProvider;
+import com.example.demo.service.WeatherScanExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline weather scan throughput: one forecast per destination from the fixture provider with
+ * simulated provider latency, fetched one at a time (old scan) or through WeatherScanExecutor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class WeatherScanBenchmark {
+
+    @Param({"8", "32"})
+    private int destinations;
+
+    @Param({"50"})
+    private long latencyMs;
+
+    @Param({"4"})
+    private int maxInFlight;
+
+    private WeatherProvider provider;
+    private WeatherScanExecutor executor;
+    private List<String> locations;
+
+    @Setup
+    public void setUp() {
+        FixtureWeatherProvider fixture = new FixtureWeatherProvider();
+        ReflectionTestUtils.setField(fixture, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(fixture, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(fixture, "latencyMs", latencyMs);
+        provider = fixture;
+
+        executor = new WeatherScanExecutor(8, maxInFlight);
+
+        locations = new ArrayList<>();
+        for (int i = 0; i < destinations; i++) {
+            locations.add("Destination " + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void sequentialScan(Blackhole bh) {
+        for (String location : locations) {
+            bh.consume(provider.fetchForecast(location, WeatherProvider.MAX_FORECAST_DAYS));
+        }
+    }
+
+    @Benchmark
+    public void parallelScan(Blackhole bh) {
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new ArrayList<>();
+        for (String location : locations) {
+            futures.add(executor.submit(() -> executor.callProvider(
+                    () -> provider.fetchForecast(location, WeatherProvider.MAX_FORECAST_DAYS))));
+        }
+        for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+            bh.consume(future.join());
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.demo.Controller;
 
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entity.AcceptedTrip;
 import com.example.demo.service.AcceptedTripService;
+import com.example.demo.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/accepted-trips")
@@ -27,9 +31,9 @@ public class AcceptedTripController {
      * Accept a trip plan and save it to database
      */
     @PostMapping("/accept")
-    public ResponseEntity<?> acceptTrip(@RequestBody Map<String, Object> request, Authentication authentication) {
+    public ResponseEntity<?> acceptTrip(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
+            UUID userId = user.getId();
             
             // Extract trip plan from request
             Map<String, Object> tripPlan = (Map<String, Object>) request.get("tripPlan");
@@ -41,7 +45,7 @@ public class AcceptedTripController {
             }
 
             // Accept and save the trip
-            AcceptedTrip acceptedTrip = acceptedTripService.acceptTrip(userIdentifier, tripPlan);
+            AcceptedTrip acceptedTrip = acceptedTripService.acceptTrip(userId, tripPlan);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -60,13 +64,28 @@ public class AcceptedTripController {
     }
 
     /**
-     * Get all accepted trips for the authenticated user
+     * Get one page of accepted trips for the authenticated user.
+     * Pass the returned nextCursor back as ?cursor= to fetch the following page.
      */
     @GetMapping("/my-trips")
-    public ResponseEntity<?> getMyAcceptedTrips(Authentication authentication) {
+    public ResponseEntity<?> getMyAcceptedTrips(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            List<AcceptedTrip> trips = acceptedTripService.getUserAcceptedTrips(userIdentifier);
+            UUID userId = user.getId();
+
+            KeysetCursor<Long> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeLong(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid cursor"
+                ));
+            }
+
+            CursorPage<AcceptedTrip> page = acceptedTripService.getUserAcceptedTripsPage(userId, after, limit);
+            List<AcceptedTrip> trips = page.getItems();
             
             // Convert trip plans from JSON strings to objects
             List<Map<String, Object>> tripsWithParsedPlans = trips.stream()
@@ -88,12 +107,16 @@ public class AcceptedTripController {
                     }
                 })
                 .toList();
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "trips", tripsWithParsedPlans,
-                "totalCount", trips.size()
-            ));
+
+            // HashMap rather than Map.of: nextCursor is null on the last page
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("trips", tripsWithParsedPlans);
+            body.put("totalCount", trips.size());
+            body.put("nextCursor", page.getNextCursor());
+            body.put("hasMore", page.isHasMore());
+            body.put("limit", page.getLimit());
+            return ResponseEntity.ok(body);
             
         } catch (Exception e) {
             System.err.println("❌ Error fetching user trips: " + e.getMessage());
@@ -108,9 +131,8 @@ public class AcceptedTripController {
      * Get a specific accepted trip by ID
      */
     @GetMapping("/{tripId}")
-    public ResponseEntity<?> getAcceptedTripById(@PathVariable Long tripId, Authentication authentication) {
+    public ResponseEntity<?> getAcceptedTripById(@PathVariable Long tripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userEmail = authentication.getName();
             Optional<AcceptedTrip> tripOptional = acceptedTripService.getAcceptedTripById(tripId);
             
             if (!tripOptional.isPresent()) {
@@ -148,10 +170,10 @@ public class AcceptedTripController {
      * Get recent accepted trips (last 30 days)
      */
     @GetMapping("/recent")
-    public ResponseEntity<?> getRecentAcceptedTrips(Authentication authentication) {
+    public ResponseEntity<?> getRecentAcceptedTrips(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userEmail = authentication.getName();
-            List<AcceptedTrip> trips = acceptedTripService.getRecentAcceptedTrips(userEmail);
+            UUID userId = user.getId();
+            List<AcceptedTrip> trips = acceptedTripService.getRecentAcceptedTrips(userId);
             
             // Convert trip plans from JSON strings to objects
             List<Map<String, Object>> tripsWithParsedPlans = trips.stream()
@@ -193,11 +215,11 @@ public class AcceptedTripController {
      * Get trip statistics for the authenticated user
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getTripStats(Authentication authentication) {
+    public ResponseEntity<?> getTripStats(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userEmail = authentication.getName();
-            long totalTrips = acceptedTripService.countUserAcceptedTrips(userEmail);
-            List<AcceptedTrip> recentTrips = acceptedTripService.getRecentAcceptedTrips(userEmail);
+            UUID userId = user.getId();
+            long totalTrips = acceptedTripService.countUserAcceptedTrips(userId);
+            List<AcceptedTrip> recentTrips = acceptedTripService.getRecentAcceptedTrips(userId);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -221,12 +243,12 @@ public class AcceptedTripController {
      * Delete an accepted trip
      */
     @DeleteMapping("/{tripId}")
-    public ResponseEntity<?> deleteAcceptedTrip(@PathVariable Long tripId, Authentication authentication) {
+    public ResponseEntity<?> deleteAcceptedTrip(@PathVariable Long tripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            System.out.println("🔍 DEBUG: Delete request for trip " + tripId + " by user: " + userIdentifier);
+            UUID userId = user.getId();
+            System.out.println("🔍 DEBUG: Delete request for trip " + tripId + " by user: " + userId);
             
-            boolean deleted = acceptedTripService.deleteAcceptedTrip(tripId, userIdentifier);
+            boolean deleted = acceptedTripService.deleteAcceptedTrip(tripId, userId);
             
             if (deleted) {
                 return ResponseEntity.ok(Map.of(
@@ -250,10 +272,10 @@ public class AcceptedTripController {
      * Get categorized trips for the authenticated user (ongoing, past, upcoming)
      */
     @GetMapping("/categorized")
-    public ResponseEntity<?> getCategorizedTrips(Authentication authentication) {
+    public ResponseEntity<?> getCategorizedTrips(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            Map<String, List<Map<String, Object>>> categorizedTrips = acceptedTripService.getCategorizedTrips(userIdentifier);
+            UUID userId = user.getId();
+            Map<String, List<Map<String, Object>>> categorizedTrips = acceptedTripService.getCategorizedTrips(userId);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
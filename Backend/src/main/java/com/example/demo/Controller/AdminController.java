@@ -3,7 +3,7 @@ package com.example.demo.Controller;
 import com.example.demo.dto.CreateFeaturedDestinationRequest;
 import com.example.demo.dto.BlogPostDTO;
 import com.example.demo.entity.FeaturedDestination;
-import com.example.demo.entity.User;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.AdminService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,7 +36,7 @@ public class AdminController {
      */
     @PostMapping("/destinations")
     public ResponseEntity<?> createFeaturedDestination(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestPart("destination") CreateFeaturedDestinationRequest request,
             @RequestPart("image") MultipartFile image) {
         
@@ -65,7 +65,7 @@ public class AdminController {
      */
     @GetMapping("/destinations")
     public ResponseEntity<?> getAllFeaturedDestinations(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         // Validate that the user is an admin
         if (!"ADMIN".equals(user.getRole())) {
@@ -86,7 +86,7 @@ public class AdminController {
      */
     @DeleteMapping("/destinations/{id}")
     public ResponseEntity<?> deleteFeaturedDestination(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID id) {
         
         // Validate that the user is an admin
@@ -118,7 +118,7 @@ public class AdminController {
      */
     @PutMapping("/destinations/{id}/toggle-status")
     public ResponseEntity<?> toggleFeaturedDestinationStatus(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID id) {
         
         // Validate that the user is an admin
@@ -146,7 +146,7 @@ public class AdminController {
      */
     @GetMapping("/blogs")
     public ResponseEntity<?> getAllPublicBlogPosts(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         if (!"ADMIN".equals(user.getRole())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -166,7 +166,7 @@ public class AdminController {
      */
     @DeleteMapping("/blogs/{id}")
     public ResponseEntity<?> deleteBlogPost(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID id) {
         
         // Validate that the user is an admin
@@ -3,7 +3,7 @@ package com.example.demo.Controller;
 import com.example.demo.dto.CreateBlogPostRequest;
 import com.example.demo.dto.BlogPostDTO;
 import com.example.demo.entity.BlogPost;
-import com.example.demo.entity.User;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.BlogPostService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
@@ -32,7 +32,7 @@ public class BlogController {
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> createBlogPost(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestPart("blogPost") @Valid String blogPostJson,
             @RequestPart(value = "image", required = false) MultipartFile image) {
         
@@ -53,7 +53,7 @@ public class BlogController {
 
     @GetMapping
     public ResponseEntity<List<BlogPostDTO>> getAllPublicBlogPosts(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         UUID currentUserId = user != null ? user.getId() : null;
         List<BlogPostDTO> blogPosts = blogPostService.getAllPublicBlogPosts(currentUserId);
         return ResponseEntity.ok(blogPosts);
@@ -62,7 +62,7 @@ public class BlogController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getBlogPostById(
             @PathVariable UUID id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         UUID currentUserId = user != null ? user.getId() : null;
         return blogPostService.getBlogPostById(id, currentUserId)
                 .map(ResponseEntity::ok)
@@ -70,7 +70,7 @@ public class BlogController {
     }
     
     @GetMapping("/my-blogs")
-    public ResponseEntity<?> getMyBlogPosts(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getMyBlogPosts(@AuthenticationPrincipal AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Authentication required to view your blog posts."));
         }
@@ -81,7 +81,7 @@ public class BlogController {
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> updateBlogPost(
             @PathVariable UUID id,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestPart("blogPost") @Valid String blogPostJson,
             @RequestPart(value = "image", required = false) MultipartFile image) {
         
@@ -105,7 +105,7 @@ public class BlogController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteBlogPost(
             @PathVariable UUID id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Authentication required to delete a blog post."));
@@ -3,7 +3,7 @@ package com.example.demo.Controller;
 import com.example.demo.dto.BlogCommentDTO;
 import com.example.demo.dto.BlogLikeDTO;
 import com.example.demo.dto.CreateCommentRequest;
-import com.example.demo.entity.User;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.BlogInteractionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,7 +27,7 @@ public class BlogInteractionController {
     @PostMapping("/like")
     public ResponseEntity<?> toggleLike(
             @PathVariable UUID blogId,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -69,7 +69,7 @@ public class BlogInteractionController {
     @PostMapping("/comments")
     public ResponseEntity<?> addComment(
             @PathVariable UUID blogId,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateCommentRequest request) {
         
         if (user == null) {
@@ -106,7 +106,7 @@ public class BlogInteractionController {
     public ResponseEntity<?> updateComment(
             @PathVariable UUID blogId,
             @PathVariable UUID commentId,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody Map<String, String> request) {
         
         if (user == null) {
@@ -136,7 +136,7 @@ public class BlogInteractionController {
     public ResponseEntity<?> deleteComment(
             @PathVariable UUID blogId,
             @PathVariable UUID commentId,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -1,15 +1,11 @@
 package com.example.demo.Controller;
 
-import com.example.demo.Repository.TripActivityRepository;
-import com.example.demo.entity.TripActivity;
+import com.example.demo.dto.ChecklistBulkUpdateRequest;
 import com.example.demo.service.TripPlanService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,21 +13,9 @@ import java.util.Map;
 public class CheckListController {
     @Autowired
     TripPlanService tripPlanService;
-    @Autowired
-    TripActivityRepository tripActivityRepository;
     @GetMapping("/{id}")
     public ResponseEntity<?> getActivitiesByTripId(@PathVariable long id ){
-        Map<String,Boolean> ans = new HashMap<>();
-        if(!tripActivityRepository.existsByTripId(id)){
-            ans=tripPlanService.getActivityByTripId(id);
-        }
-        else{
-            List<TripActivity>activity=tripActivityRepository.findAllByTripId(id);
-
-            for(TripActivity s:activity){
-                ans.put(s.getActivity(),s.isCompleted());
-            }
-        }
+        Map<String,Boolean> ans = tripPlanService.getChecklist(id);
         return ResponseEntity.ok(ans);
     }
     @PostMapping("/{tripId}/update")
@@ -43,4 +27,33 @@ public class CheckListController {
         tripPlanService.updateCheckList(tripId,name,flag);
         return ResponseEntity.ok("Status updated");
     }
+
+    /**
+     * Apply a set of {activity, completed} changes in one batch and return per-day progress
+     */
+    @PostMapping("/{tripId}/bulk-update")
+    public ResponseEntity<?> bulkUpdateChecklist(@PathVariable Long tripId, @RequestBody ChecklistBulkUpdateRequest request){
+        if(request.getChanges()==null || request.getChanges().isEmpty()){
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "At least one change is required"
+            ));
+        }
+        try {
+            int updated = tripPlanService.bulkUpdateChecklist(tripId, request.getChanges());
+            Map<String, Object> progress = tripPlanService.getChecklistProgress(tripId);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "updated", updated,
+                "progress", progress
+            ));
+        } catch (Exception e) {
+            System.err.println("❌ Error updating checklist: " + e.getMessage());
+            return ResponseEntity.status(500).body(Map.of(
+                "success", false,
+                "error", "Failed to update checklist: " + e.getMessage()
+            ));
+        }
+    }
 }
@@ -1,13 +1,17 @@
 package com.example.demo.Controller;
 
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.dto.*;
 import com.example.demo.service.GroupTripService;
-import com.example.demo.service.UserService;
+import com.example.demo.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -18,7 +22,6 @@ import java.util.UUID;
 public class GroupTripController {
 
     private final GroupTripService groupTripService;
-    private final UserService userService;
 
     /**
      * Debug endpoint to check database tables
@@ -44,11 +47,9 @@ public class GroupTripController {
      * Create a new group trip
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createGroupTrip(@RequestBody CreateGroupTripRequest request, Authentication authentication) {
+    public ResponseEntity<?> createGroupTrip(@RequestBody CreateGroupTripRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            // Get user ID
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
             
             // Basic validation
             if (request.getGroupName() == null || request.getGroupName().trim().isEmpty()) {
@@ -102,21 +103,52 @@ public class GroupTripController {
     }
 
     /**
-     * Get all available group trips (excluding user's own trips)
+     * Discover open group trips the user can join (excluding their own and ones already requested/joined).
+     * Optional filters: destination prefix, start date range (yyyy-MM-dd), maximum budget and minimum free seats.
+     * Pass the returned nextCursor back as ?cursor= to fetch the following page.
      */
     @GetMapping("/available")
-    public ResponseEntity<?> getAvailableGroupTrips(Authentication authentication) {
+    public ResponseEntity<?> getAvailableGroupTrips(@RequestParam(required = false) String destination,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startFrom,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startTo,
+                                                    @RequestParam(required = false) Double maxBudget,
+                                                    @RequestParam(required = false) Integer minSeats,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
-            ApiResponse<List<GroupTripResponse>> response = groupTripService.getAllAvailableGroupTrips(userId);
+            KeysetCursor<UUID> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeUuid(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid cursor"
+                ));
+            }
+
+            GroupTripSearchFilter filter = GroupTripSearchFilter.builder()
+                    .destination(destination)
+                    .startFrom(startFrom)
+                    .startTo(startTo)
+                    .maxBudget(maxBudget)
+                    .minSeats(minSeats)
+                    .build();
+
+            ApiResponse<CursorPage<GroupTripResponse>> response = groupTripService.discoverGroupTrips(userId, filter, after, limit);
             
             if (response.isSuccess()) {
-                return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "data", response.getData()
-                ));
+                CursorPage<GroupTripResponse> page = response.getData();
+                // HashMap rather than Map.of: nextCursor is null on the last page
+                Map<String, Object> body = new HashMap<>();
+                body.put("success", true);
+                body.put("data", page.getItems());
+                body.put("nextCursor", page.getNextCursor());
+                body.put("hasMore", page.isHasMore());
+                body.put("limit", page.getLimit());
+                return ResponseEntity.ok(body);
             } else {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -133,21 +165,38 @@ public class GroupTripController {
     }
 
     /**
-     * Get user's own group trips
+     * Get one page of the user's own group trips (created or joined), newest first.
+     * Pass the returned nextCursor back as ?cursor= to fetch the following page.
      */
     @GetMapping("/my-trips")
-    public ResponseEntity<?> getMyGroupTrips(Authentication authentication) {
+    public ResponseEntity<?> getMyGroupTrips(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
-            ApiResponse<List<GroupTripResponse>> response = groupTripService.getMyGroupTrips(userId);
+            KeysetCursor<UUID> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeUuid(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid cursor"
+                ));
+            }
+
+            ApiResponse<CursorPage<GroupTripResponse>> response = groupTripService.getMyGroupTrips(userId, after, limit);
             
             if (response.isSuccess()) {
-                return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "data", response.getData()
-                ));
+                CursorPage<GroupTripResponse> page = response.getData();
+                // HashMap rather than Map.of: nextCursor is null on the last page
+                Map<String, Object> body = new HashMap<>();
+                body.put("success", true);
+                body.put("data", page.getItems());
+                body.put("nextCursor", page.getNextCursor());
+                body.put("hasMore", page.isHasMore());
+                body.put("limit", page.getLimit());
+                return ResponseEntity.ok(body);
             } else {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -169,10 +218,9 @@ public class GroupTripController {
     @PostMapping("/{groupTripId}/join")
     public ResponseEntity<?> joinGroupTrip(@PathVariable UUID groupTripId, 
                                          @RequestBody JoinGroupTripRequest request, 
-                                         Authentication authentication) {
+                                         @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
             ApiResponse<String> response = groupTripService.joinGroupTrip(groupTripId, request, userId);
             
@@ -203,10 +251,9 @@ public class GroupTripController {
     public ResponseEntity<?> respondToJoinRequest(@PathVariable UUID groupTripId,
                                                 @PathVariable UUID memberId,
                                                 @RequestParam boolean approve,
-                                                Authentication authentication) {
+                                                @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
             ApiResponse<String> response = groupTripService.respondToJoinRequest(groupTripId, memberId, approve, userId);
             
@@ -234,10 +281,9 @@ public class GroupTripController {
      * Get detailed information about a specific group trip
      */
     @GetMapping("/{groupTripId}")
-    public ResponseEntity<?> getGroupTripDetails(@PathVariable UUID groupTripId, Authentication authentication) {
+    public ResponseEntity<?> getGroupTripDetails(@PathVariable UUID groupTripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
             ApiResponse<GroupTripResponse> response = groupTripService.getGroupTripDetails(groupTripId, userId);
             
@@ -265,10 +311,9 @@ public class GroupTripController {
      * Get group chat messages for a specific group trip
      */
     @GetMapping("/{groupTripId}/chat")
-    public ResponseEntity<?> getGroupChatMessages(@PathVariable UUID groupTripId, Authentication authentication) {
+    public ResponseEntity<?> getGroupChatMessages(@PathVariable UUID groupTripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
             ApiResponse<List<GroupChatMessageResponse>> response = groupTripService.getGroupChatMessages(groupTripId, userId);
             
@@ -298,10 +343,9 @@ public class GroupTripController {
     @PostMapping("/{groupTripId}/chat")
     public ResponseEntity<?> sendGroupChatMessage(@PathVariable UUID groupTripId, 
                                                  @RequestBody Map<String, String> request,
-                                                 Authentication authentication) {
+                                                 @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
             String message = request.get("message");
 
             if (message == null || message.trim().isEmpty()) {
@@ -337,10 +381,9 @@ public class GroupTripController {
      * Get all members of a group trip (for trip creator to manage approval requests)
      */
     @GetMapping("/{groupTripId}/members")
-    public ResponseEntity<?> getGroupTripMembers(@PathVariable UUID groupTripId, Authentication authentication) {
+    public ResponseEntity<?> getGroupTripMembers(@PathVariable UUID groupTripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            UUID userId = userService.getUserIdByEmailOrUsername(userIdentifier);
+            UUID userId = user.getId();
 
             ApiResponse<List<GroupTripMemberResponse>> response = groupTripService.getGroupTripMembers(groupTripId, userId);
             
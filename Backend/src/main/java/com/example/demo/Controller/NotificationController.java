@@ -1,12 +1,17 @@
 package com.example.demo.Controller;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entity.Notification;
-import com.example.demo.entity.User;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
+import com.example.demo.service.NotificationOutboxDispatcher;
 import com.example.demo.service.NotificationService;
+import com.example.demo.service.PgNotifyFanout;
+import com.example.demo.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
 
 import java.util.HashMap;
 import java.util.List;
@@ -21,43 +26,66 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationOutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private WebSocketMessageBrokerStats webSocketStats;
+
+    @Autowired
+    private PgNotifyFanout fanout;
+
+    /**
+     * One page of the user's notifications, newest first.
+     * Pass the returned nextCursor back as ?cursor= to fetch the following page.
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getNotifications(@AuthenticationPrincipal User user) {
-        System.out.println("🔍 GET /api/notifications endpoint called");
-        
+    public ResponseEntity<Map<String, Object>> getNotifications(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @AuthenticationPrincipal AuthenticatedUser user) {
         try {
             if (user == null) {
                 System.err.println("❌ User is null in getNotifications - returning 401");
                 return ResponseEntity.status(401).body(Map.of("success", false, "error", "User not authenticated"));
             }
-            
-            System.out.println("✅ Getting notifications for user: " + user.getEmail() + " (ID: " + user.getId() + ")");
-            
-            // Test database connection first
-            System.out.println("🔍 Testing notification repository...");
-            List<Notification> notifications = notificationService.getUserNotifications(user.getId());
-            System.out.println("✅ Retrieved " + notifications.size() + " notifications from database");
-            
+
+            KeysetCursor<UUID> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeUuid(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("success", false, "error", "Invalid cursor"));
+            }
+
+            CursorPage<Notification> page = notificationService.getNotificationPage(user.getId(), after, limit);
             long unreadCount = notificationService.getUnreadCount(user.getId());
-            System.out.println("✅ Unread count: " + unreadCount);
 
+            // HashMap rather than Map.of: nextCursor is null on the last page
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("notifications", notifications);
+            response.put("notifications", page.getItems());
             response.put("unreadCount", unreadCount);
-
-            System.out.println("✅ Returning successful response with " + notifications.size() + " notifications");
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            response.put("limit", page.getLimit());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.err.println("❌ Error in getNotifications: " + e.getMessage());
-            System.err.println("❌ Error class: " + e.getClass().getSimpleName());
             e.printStackTrace();
             return ResponseEntity.status(500).body(Map.of("success", false, "error", e.getMessage()));
         }
     }
 
+    // Badge polling: answered from the in-memory counter, no query in the common case
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Object>> getUnreadCount(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "error", "User not authenticated"));
+        }
+        return ResponseEntity.ok(Map.of("success", true, "unreadCount", notificationService.getUnreadCount(user.getId())));
+    }
+
     @GetMapping("/unread")
-    public ResponseEntity<Map<String, Object>> getUnreadNotifications(@AuthenticationPrincipal User user) {
+    public ResponseEntity<Map<String, Object>> getUnreadNotifications(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
             if (user == null) {
                 System.err.println("❌ User is null in getUnreadNotifications");
@@ -89,15 +117,15 @@ public class NotificationController {
     }
 
     @PostMapping("/mark-all-read")
-    public ResponseEntity<Map<String, Object>> markAllAsRead(@AuthenticationPrincipal User user) {
+    public ResponseEntity<Map<String, Object>> markAllAsRead(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
             if (user == null) {
                 System.err.println("❌ User is null in markAllAsRead");
                 return ResponseEntity.badRequest().body(Map.of("success", false, "error", "User not authenticated"));
             }
             
-            notificationService.markAllAsRead(user.getId());
-            return ResponseEntity.ok(Map.of("success", true, "message", "All notifications marked as read"));
+            int updated = notificationService.markAllAsRead(user.getId());
+            return ResponseEntity.ok(Map.of("success", true, "message", "All notifications marked as read", "updated", updated));
         } catch (Exception e) {
             System.err.println("❌ Error in markAllAsRead: " + e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
@@ -117,13 +145,26 @@ public class NotificationController {
     @DeleteMapping("/user/{userId}/all")
     public ResponseEntity<Map<String, Object>> clearAllNotifications(@PathVariable UUID userId) {
         try {
-            notificationService.clearAllNotifications(userId);
-            return ResponseEntity.ok(Map.of("success", true, "message", "All notifications cleared successfully"));
+            int deleted = notificationService.clearAllNotifications(userId);
+            return ResponseEntity.ok(Map.of("success", true, "message", "All notifications cleared successfully", "deleted", deleted));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
         }
     }
 
+    // Outbox backlog, Postgres fan-out, and WebSocket session, broker relay and channel thread pool stats for this node
+    @GetMapping("/delivery-metrics")
+    public ResponseEntity<Map<String, Object>> getDeliveryMetrics() {
+        Map<String, Object> websocket = new HashMap<>();
+        websocket.put("sessions", webSocketStats.getWebSocketSessionStatsInfo());
+        websocket.put("stomp", webSocketStats.getStompSubProtocolStatsInfo());
+        websocket.put("brokerRelay", webSocketStats.getStompBrokerRelayStatsInfo());
+        websocket.put("inboundChannel", webSocketStats.getClientInboundExecutorStatsInfo());
+        websocket.put("outboundChannel", webSocketStats.getClientOutboundExecutorStatsInfo());
+        websocket.put("sockJsScheduler", webSocketStats.getSockJsTaskSchedulerStatsInfo());
+        return ResponseEntity.ok(Map.of("outbox", outboxDispatcher.getStats(), "pgFanout", fanout.getStats(), "websocket", websocket));
+    }
+
     // Simple test endpoint to verify API is working
     @GetMapping("/test")
     public ResponseEntity<Map<String, Object>> testEndpoint() {
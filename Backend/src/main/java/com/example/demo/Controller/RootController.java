@@ -1,5 +1,6 @@
 package com.example.demo.Controller;
 
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.AcceptedTripService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -21,7 +22,7 @@ public class RootController {
     @CrossOrigin(origins = "http://localhost:3000")
     public ResponseEntity<?> saveTrip(@RequestBody Map<String, Object> request, Authentication authentication) {
         try {
-            String userEmail = authentication.getName();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             
             // Extract trip plan from request
             Map<String, Object> tripPlan = (Map<String, Object>) request.get("tripPlan");
@@ -33,7 +34,7 @@ public class RootController {
             }
 
             // Accept and save the trip
-            var acceptedTrip = acceptedTripService.acceptTrip(userEmail, tripPlan);
+            var acceptedTrip = acceptedTripService.acceptTrip(user.getId(), tripPlan);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -4,6 +4,9 @@ import com.example.demo.Repository.GroupTripRepository;
 import com.example.demo.Repository.UserRepository;
 import com.example.demo.entity.GroupTrip;
 import com.example.demo.entity.User;
+import com.example.demo.service.GroupTripService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -18,6 +21,8 @@ public class SimpleGroupTripController {
 
     private final GroupTripRepository groupTripRepository;
     private final UserRepository userRepository;
+    private final GroupTripService groupTripService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/create")
     public ResponseEntity<?> createGroupTrip(@RequestBody Map<String, Object> request, Authentication authentication) {
@@ -43,6 +48,8 @@ public class SimpleGroupTripController {
                     .currentMembers(1)
                     .status(GroupTrip.GroupTripStatus.OPEN)
                     .build();
+            // Same summary columns as the main create path, taken from the plan the trip was requested for
+            groupTripService.copyPlanSummary(groupTrip, planJson(request.get("tripPlan")));
             
             System.out.println("SIMPLE: About to save: " + groupTrip.getGroupName());
             
@@ -71,4 +78,11 @@ public class SimpleGroupTripController {
             ));
         }
     }
+
+    private String planJson(Object tripPlan) throws JsonProcessingException {
+        if (tripPlan == null || tripPlan instanceof String) {
+            return (String) tripPlan;
+        }
+        return objectMapper.writeValueAsString(tripPlan);
+    }
 }
@@ -1,22 +1,25 @@
 package com.example.demo.Controller;
 
 import com.example.demo.Repository.TripPlanRepository;
-import com.example.demo.Repository.UserRepository;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entity.TripPlan;
-import com.example.demo.entity.User;
+import com.example.demo.service.JobLeaseService;
 import com.example.demo.service.TripPlanService;
+import com.example.demo.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/trip-plans")
@@ -27,19 +30,17 @@ public class TripPlanController {
     private TripPlanService tripPlanService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private JobLeaseService jobLeaseService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
 
     /**
      * Accept a trip plan and save it to database
      */
     @PostMapping("/accept")
-    public ResponseEntity<?> acceptTrip(@RequestBody Map<String, Object> request, Authentication authentication) {
+    public ResponseEntity<?> acceptTrip(@RequestBody Map<String, Object> request, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            
             // Extract trip plan from request
             Map<String, Object> tripPlan = (Map<String, Object>) request.get("tripPlan");
             if (tripPlan == null) {
@@ -64,7 +65,7 @@ public class TripPlanController {
             }
 
             // Accept and save the trip
-            TripPlan savedTripPlan = tripPlanService.acceptTrip(userIdentifier, tripPlan, status);
+            TripPlan savedTripPlan = tripPlanService.acceptTrip(user.getId(), tripPlan, status);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -86,39 +87,28 @@ public class TripPlanController {
     }
 
     /**
-     * Get all trip plans for the authenticated user
+     * Get one page of trip plans for the authenticated user.
+     * Pass the returned nextCursor back as ?cursor= to fetch the following page.
      */
     @GetMapping("/my-trips")
-    public ResponseEntity<?> getMyTripPlans(Authentication authentication) {
+    public ResponseEntity<?> getMyTripPlans(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit,
+                                            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            
-            List<TripPlan> tripPlans = tripPlanService.getTripPlansByUser(userIdentifier);
-            
-            // Convert to response format
-            List<Map<String, Object>> response = tripPlans.stream().map(tripPlan -> {
-                try {
-                    Map<String, Object> tripResponse = new HashMap<>();
-                    tripResponse.put("id", tripPlan.getId());
-                    tripResponse.put("status", tripPlan.getStatus().getValue());
-                    tripResponse.put("createdAt", tripPlan.getCreatedAt());
-                    
-                    // Parse the JSON trip plan
-                    Map<String, Object> tripPlanData = objectMapper.readValue(tripPlan.getTripPlan(), Map.class);
-                    tripResponse.put("tripPlan", tripPlanData);
-                    
-                    return tripResponse;
-                } catch (Exception e) {
-                    System.err.println("❌ Error parsing trip plan JSON: " + e.getMessage());
-                    return null;
-                }
-            }).filter(tripResponse -> tripResponse != null).toList();
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "trips", response,
-                "total", response.size()
-            ));
+            KeysetCursor<Long> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeLong(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid cursor"
+                ));
+            }
+
+            CursorPage<TripPlan> page = tripPlanService.getTripPlanPage(user.getId(), null, after, limit);
+
+            Map<String, Object> body = toPageResponse(page);
+            return ResponseEntity.ok(body);
 
         } catch (Exception e) {
             System.err.println("❌ Error fetching trip plans: " + e.getMessage());
@@ -131,13 +121,14 @@ public class TripPlanController {
     }
 
     /**
-     * Get trip plans by status
+     * Get one page of trip plans by status
      */
     @GetMapping("/my-trips/{status}")
-    public ResponseEntity<?> getTripPlansByStatus(@PathVariable String status, Authentication authentication) {
+    public ResponseEntity<?> getTripPlansByStatus(@PathVariable String status,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            
             // Validate status
             TripPlan.TripStatus tripStatus;
             try {
@@ -148,34 +139,22 @@ public class TripPlanController {
                     "error", "Invalid status. Must be one of: upcoming, running, completed"
                 ));
             }
+
+            KeysetCursor<Long> after;
+            try {
+                after = cursor != null && !cursor.isBlank() ? KeysetCursor.decodeLong(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid cursor"
+                ));
+            }
             
-            List<TripPlan> tripPlans = tripPlanService.getTripPlansByUserAndStatus(userIdentifier, tripStatus);
-            
-            // Convert to response format
-            List<Map<String, Object>> response = tripPlans.stream().map(tripPlan -> {
-                try {
-                    Map<String, Object> tripResponse = new HashMap<>();
-                    tripResponse.put("id", tripPlan.getId());
-                    tripResponse.put("status", tripPlan.getStatus().getValue());
-                    tripResponse.put("createdAt", tripPlan.getCreatedAt());
-                    
-                    // Parse the JSON trip plan
-                    Map<String, Object> tripPlanData = objectMapper.readValue(tripPlan.getTripPlan(), Map.class);
-                    tripResponse.put("tripPlan", tripPlanData);
-                    
-                    return tripResponse;
-                } catch (Exception e) {
-                    System.err.println("❌ Error parsing trip plan JSON: " + e.getMessage());
-                    return null;
-                }
-            }).filter(tripResponse -> tripResponse != null).toList();
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "trips", response,
-                "status", status.toLowerCase(),
-                "total", response.size()
-            ));
+            CursorPage<TripPlan> page = tripPlanService.getTripPlanPage(user.getId(), tripStatus, after, limit);
+
+            Map<String, Object> body = toPageResponse(page);
+            body.put("status", status.toLowerCase());
+            return ResponseEntity.ok(body);
 
         } catch (Exception e) {
             System.err.println("❌ Error fetching trip plans by status: " + e.getMessage());
@@ -187,15 +166,44 @@ public class TripPlanController {
         }
     }
 
+    // Convert a page of trip plans to the response format; "total" is the size of this page
+    private Map<String, Object> toPageResponse(CursorPage<TripPlan> page) {
+        List<Map<String, Object>> trips = page.getItems().stream().map(tripPlan -> {
+            try {
+                Map<String, Object> tripResponse = new HashMap<>();
+                tripResponse.put("id", tripPlan.getId());
+                tripResponse.put("status", tripPlan.getStatus().getValue());
+                tripResponse.put("createdAt", tripPlan.getCreatedAt());
+                
+                // Parse the JSON trip plan
+                Map<String, Object> tripPlanData = objectMapper.readValue(tripPlan.getTripPlan(), Map.class);
+                tripResponse.put("tripPlan", tripPlanData);
+                
+                return tripResponse;
+            } catch (Exception e) {
+                System.err.println("❌ Error parsing trip plan JSON: " + e.getMessage());
+                return null;
+            }
+        }).filter(tripResponse -> tripResponse != null).toList();
+
+        // HashMap rather than Map.of: nextCursor is null on the last page
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("trips", trips);
+        body.put("total", trips.size());
+        body.put("nextCursor", page.getNextCursor());
+        body.put("hasMore", page.isHasMore());
+        body.put("limit", page.getLimit());
+        return body;
+    }
+
     /**
      * Get categorized trips (upcoming, running, completed)
      */
     @GetMapping("/categorized")
-    public ResponseEntity<?> getCategorizedTrips(Authentication authentication) {
+    public ResponseEntity<?> getCategorizedTrips(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            
-            Map<String, Object> categorizedTrips = tripPlanService.getCategorizedTrips(userIdentifier);
+            Map<String, Object> categorizedTrips = tripPlanService.getCategorizedTrips(user.getId());
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -260,10 +268,9 @@ public class TripPlanController {
      * Delete a trip plan
      */
     @DeleteMapping("/{tripId}")
-    public ResponseEntity<?> deleteTripPlan(@PathVariable Long tripId, Authentication authentication) {
+    public ResponseEntity<?> deleteTripPlan(@PathVariable Long tripId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String userIdentifier = authentication.getName();
-            boolean deleted = tripPlanService.deleteTripPlan(tripId, userIdentifier);
+            boolean deleted = tripPlanService.deleteTripPlan(tripId, user.getId());
             
             if (deleted) {
                 return ResponseEntity.ok(Map.of(
@@ -293,16 +300,19 @@ public class TripPlanController {
     @Scheduled(cron = "0 */5 * * * *") // Run every hour at the start of the hour
     public void scheduledTripStatusUpdate() {
         try {
-            Map<String, Object> result = tripPlanService.autoUpdateTripStatus();
-            
-            // Log the results
-            int updatedCount = (Integer)result.getOrDefault("updatedCount", 0);
-            if (updatedCount > 0) {
-                int upcomingToRunning = (Integer)result.getOrDefault("upcomingToRunning", 0);
-                int runningToCompleted = (Integer)result.getOrDefault("runningToCompleted", 0);
-                System.out.println("🔄 Scheduled trip update: Updated " + updatedCount + " trips (" + 
-                    upcomingToRunning + " to running, " + runningToCompleted + " to completed)");
-            }
+            // Lease so only one replica updates statuses per run
+            jobLeaseService.runExclusive("trip-status-update", Duration.ofMinutes(10), Duration.ofMinutes(1), () -> {
+                Map<String, Object> result = tripPlanService.autoUpdateTripStatus();
+                
+                // Log the results
+                int updatedCount = (Integer)result.getOrDefault("updatedCount", 0);
+                if (updatedCount > 0) {
+                    int upcomingToRunning = (Integer)result.getOrDefault("upcomingToRunning", 0);
+                    int runningToCompleted = (Integer)result.getOrDefault("runningToCompleted", 0);
+                    System.out.println("🔄 Scheduled trip update: Updated " + updatedCount + " trips (" + 
+                        upcomingToRunning + " to running, " + runningToCompleted + " to completed)");
+                }
+            });
         } catch (Exception e) {
             System.err.println("❌ Error in scheduled trip status update: " + e.getMessage());
             e.printStackTrace();
@@ -313,23 +323,9 @@ public class TripPlanController {
      * Manually trigger the automatic trip status update (for testing)
      */
     @PostMapping("/update-status-auto")
-    public ResponseEntity<?> triggerAutoStatusUpdate(Authentication authentication) {
+    public ResponseEntity<?> triggerAutoStatusUpdate(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
             // Check if user is admin
-            String userIdentifier = authentication.getName();
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                return ResponseEntity.status(403).body(Map.of(
-                    "success", false,
-                    "error", "User not found"
-                ));
-            }
-            
-            User user = userOptional.get();
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(403).body(Map.of(
                     "success", false,
@@ -366,23 +362,9 @@ public class TripPlanController {
      * Check if there are any trips that need status updates
      */
     @GetMapping("/check-status-updates")
-    public ResponseEntity<?> checkTripsNeedingStatusUpdate(Authentication authentication) {
+    public ResponseEntity<?> checkTripsNeedingStatusUpdate(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
             // Check if user is admin
-            String userIdentifier = authentication.getName();
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                return ResponseEntity.status(403).body(Map.of(
-                    "success", false,
-                    "error", "User not found"
-                ));
-            }
-            
-            User user = userOptional.get();
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(403).body(Map.of(
                     "success", false,
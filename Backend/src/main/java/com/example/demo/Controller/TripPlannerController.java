@@ -1,5 +1,6 @@
 package com.example.demo.Controller;
 
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.TripPlannerService;
 import com.example.demo.service.AcceptedTripService;
 import com.example.demo.dto.TripPlanRequest;
@@ -61,7 +62,7 @@ public class TripPlannerController {
     @PostMapping("/accept")
     public ResponseEntity<?> acceptTripPlan(@RequestBody Map<String, Object> request, Authentication authentication) {
         try {
-            String userEmail = authentication.getName();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             
             // Extract trip plan from request
             Map<String, Object> tripPlan = (Map<String, Object>) request.get("tripPlan");
@@ -73,7 +74,7 @@ public class TripPlannerController {
             }
 
             // Accept and save the trip
-            var acceptedTrip = acceptedTripService.acceptTrip(userEmail, tripPlan);
+            var acceptedTrip = acceptedTripService.acceptTrip(user.getId(), tripPlan);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
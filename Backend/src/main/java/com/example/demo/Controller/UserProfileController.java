@@ -1,7 +1,7 @@
 package com.example.demo.Controller;
 
 import com.example.demo.dto.UserProfileDTO;
-import com.example.demo.entity.User;
+import com.example.demo.SecurityConfigurations.AuthenticatedUser;
 import com.example.demo.service.UserProfileService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,13 +17,13 @@ public class UserProfileController {
     private UserProfileService userProfileService;
 
     @GetMapping
-    public ResponseEntity<UserProfileDTO> getUserProfile(@AuthenticationPrincipal User user) {
+    public ResponseEntity<UserProfileDTO> getUserProfile(@AuthenticationPrincipal AuthenticatedUser user) {
         return ResponseEntity.ok(userProfileService.getUserProfile(user.getId()));
     }
 
     @PutMapping
     public ResponseEntity<UserProfileDTO> updateUserProfile(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestPart("profile") UserProfileDTO userProfileDTO,
             @RequestPart(value = "file", required = false) MultipartFile file) {
         return ResponseEntity.ok(userProfileService.updateUserProfile(user.getId(), userProfileDTO, file));
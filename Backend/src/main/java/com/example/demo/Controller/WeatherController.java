@@ -1,6 +1,7 @@
 package com.example.demo.Controller;
 
 import com.example.demo.service.WeatherMonitoringService;
+import com.example.demo.service.WeatherPrefetchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,9 @@ public class WeatherController {
     @Autowired
     private WeatherMonitoringService weatherMonitoringService;
 
+    @Autowired
+    private WeatherPrefetchService weatherPrefetchService;
+
     @GetMapping("/details/{tripId}")
     public ResponseEntity<?> getWeatherDetails(@PathVariable Long tripId) {
         try {
@@ -23,4 +27,14 @@ public class WeatherController {
             return ResponseEntity.badRequest().body("Error fetching weather details: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/scan-metrics")
+    public ResponseEntity<?> getScanMetrics() {
+        return ResponseEntity.ok(weatherMonitoringService.getLastScanMetrics());
+    }
+
+    @GetMapping("/prefetch-metrics")
+    public ResponseEntity<?> getPrefetchMetrics() {
+        return ResponseEntity.ok(weatherPrefetchService.getStats());
+    }
+}
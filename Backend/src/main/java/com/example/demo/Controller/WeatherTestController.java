@@ -1,11 +1,8 @@
 package com.example.demo.Controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.service.WeatherProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -17,14 +14,9 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class WeatherTestController {
 
+    // "fixture" provider keeps these endpoints fully offline
     @Autowired
-    private RestTemplate restTemplate;
-
-    @Autowired
-    private ObjectMapper objectMapper;
-
-    // Replace with your actual WeatherAPI key
-    private static final String API_KEY = "c0859dd16f5c4108a0571407250307";
+    private WeatherProvider weatherProvider;
 
     @PostMapping("/weather")
     public Map<String, Object> getWeather(@RequestBody Map<String, Object> request) {
@@ -116,6 +108,7 @@ public class WeatherTestController {
                 "success", true,
                 "timestamp", timestamp,
                 "tripsChecked", mockTrips.size(),
+                "provider", weatherProvider.getName(),
                 "results", alertResults,
                 "message", "Check console for detailed weather monitoring output"
             );
@@ -266,39 +259,6 @@ public class WeatherTestController {
     }
 
     private Map<String, Object> fetchWeatherAPIData(String location, int days) {
-        try {
-            String url = UriComponentsBuilder
-                    .fromHttpUrl("http://api.weatherapi.com/v1/forecast.json")
-                    .queryParam("key", API_KEY)
-                    .queryParam("q", location)
-                    .queryParam("days", days)
-                    .queryParam("aqi", "no")
-                    .queryParam("alerts", "no")
-                    .toUriString();
-
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode forecastDays = root.path("forecast").path("forecastday");
-
-            List<Map<String, Object>> forecastList = new ArrayList<>();
-
-            for (JsonNode day : forecastDays) {
-                Map<String, Object> dayInfo = new HashMap<>();
-                dayInfo.put("date", day.get("date").asText());
-                dayInfo.put("condition", day.path("day").path("condition").path("text").asText());
-                dayInfo.put("icon", "https:" + day.path("day").path("condition").path("icon").asText());
-                dayInfo.put("avg_temp_c", day.path("day").path("avgtemp_c").asDouble());
-                dayInfo.put("humidity", day.path("day").path("avghumidity").asDouble());
-                dayInfo.put("precip_mm", day.path("day").path("totalprecip_mm").asDouble());
-                dayInfo.put("max_wind_kph", day.path("day").path("maxwind_kph").asDouble());
-
-                forecastList.add(dayInfo);
-            }
-
-            return Map.of("forecast", forecastList);
-
-        } catch (Exception e) {
-            throw new RuntimeException("WeatherAPI error: " + e.getMessage());
-        }
+        return Map.of("forecast", weatherProvider.fetchForecast(location, days));
     }
 }
@@ -1,6 +1,7 @@
 package com.example.demo.Repository;
 
 import com.example.demo.entity.AcceptedTrip;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,10 +20,21 @@ public interface AcceptedTripRepository extends JpaRepository<AcceptedTrip, Long
     List<AcceptedTrip> findByUserIdOrderByCreatedAtDesc(UUID userId);
     
     /**
-     * Find accepted trips by user ID with pagination
+     * First keyset page of a user's accepted trips, newest first
      */
-    @Query("SELECT a FROM AcceptedTrip a WHERE a.userId = :userId ORDER BY a.createdAt DESC")
-    List<AcceptedTrip> findByUserIdWithPagination(@Param("userId") UUID userId);
+    @Query("SELECT a FROM AcceptedTrip a WHERE a.userId = :userId ORDER BY a.createdAt DESC, a.id DESC")
+    List<AcceptedTrip> findByUserIdWithPagination(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Next keyset page of a user's accepted trips, strictly after the (createdAt, id) cursor
+     */
+    @Query("SELECT a FROM AcceptedTrip a WHERE a.userId = :userId " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AcceptedTrip> findByUserIdBeforeCursor(@Param("userId") UUID userId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
     
     /**
      * Count accepted trips by user ID
@@ -2,10 +2,12 @@ package com.example.demo.Repository;
 
 import com.example.demo.entity.GroupTripMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,5 +28,17 @@ public interface GroupTripMemberRepository extends JpaRepository<GroupTripMember
     @Query("SELECT COUNT(gtm) FROM GroupTripMember gtm WHERE gtm.groupTripId = :groupTripId AND gtm.status = com.example.demo.entity.GroupTripMember$MemberStatus.ACCEPTED")
     long countAcceptedMembersByGroupTripId(@Param("groupTripId") UUID groupTripId);
     
+    List<GroupTripMember> findByUserIdAndGroupTripIdIn(UUID userId, Collection<UUID> groupTripIds);
+    
     boolean existsByGroupTripIdAndUserId(UUID groupTripId, UUID userId);
+    
+    /**
+     * Move a membership from one status to another only if it is still in the expected one.
+     * Returns 0 when a concurrent request already processed it.
+     */
+    @Modifying
+    @Query("UPDATE GroupTripMember gtm SET gtm.status = :to WHERE gtm.id = :id AND gtm.status = :from")
+    int transitionStatus(@Param("id") UUID id,
+                         @Param("from") GroupTripMember.MemberStatus from,
+                         @Param("to") GroupTripMember.MemberStatus to);
 }
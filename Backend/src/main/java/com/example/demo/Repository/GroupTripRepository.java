@@ -4,10 +4,12 @@ import com.example.demo.entity.GroupTrip;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,11 +23,70 @@ public interface GroupTripRepository extends JpaRepository<GroupTrip, UUID> {
     @Query("SELECT gt FROM GroupTrip gt WHERE gt.status = :status ORDER BY gt.createdAt DESC")
     List<GroupTrip> findActiveGroupTrips(@Param("status") GroupTrip.GroupTripStatus status);
     
-    @Query("SELECT gt FROM GroupTrip gt WHERE gt.createdByUserId != :userId AND gt.status = 'OPEN' " +
-           "AND gt.id NOT IN (SELECT gtm.groupTripId FROM GroupTripMember gtm WHERE gtm.userId = :userId " +
-           "AND (gtm.status = 'REQUESTED' OR gtm.status = 'ACCEPTED')) " +
-           "ORDER BY gt.createdAt DESC")
-    List<GroupTrip> findAvailableGroupTripsForUser(@Param("userId") UUID userId);
+    /**
+     * First page of the trips a user created UNION the trips they have a membership in, newest first.
+     * Each branch is ordered and limited on its own index before the union, so the cost is bounded by
+     * the page size rather than by how many groups the user belongs to.
+     */
+    @Query(value = "SELECT * FROM (" +
+           "(SELECT gt.* FROM group_trips gt WHERE gt.created_by_user_id = :userId " +
+           "ORDER BY gt.created_at DESC, gt.id DESC LIMIT :limit) " +
+           "UNION " +
+           "(SELECT gt.* FROM group_trips gt JOIN group_trip_members gtm ON gtm.group_trip_id = gt.id " +
+           "WHERE gtm.user_id = :userId ORDER BY gt.created_at DESC, gt.id DESC LIMIT :limit)" +
+           ") my_trips ORDER BY created_at DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<GroupTrip> findMyGroupTripsPage(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    /**
+     * Next page of findMyGroupTripsPage, strictly after the (createdAt, id) cursor
+     */
+    @Query(value = "SELECT * FROM (" +
+           "(SELECT gt.* FROM group_trips gt WHERE gt.created_by_user_id = :userId " +
+           "AND (gt.created_at < :createdAt OR (gt.created_at = :createdAt AND gt.id < :id)) " +
+           "ORDER BY gt.created_at DESC, gt.id DESC LIMIT :limit) " +
+           "UNION " +
+           "(SELECT gt.* FROM group_trips gt JOIN group_trip_members gtm ON gtm.group_trip_id = gt.id " +
+           "WHERE gtm.user_id = :userId " +
+           "AND (gt.created_at < :createdAt OR (gt.created_at = :createdAt AND gt.id < :id)) " +
+           "ORDER BY gt.created_at DESC, gt.id DESC LIMIT :limit)" +
+           ") my_trips ORDER BY created_at DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<GroupTrip> findMyGroupTripsBeforeCursor(@Param("userId") UUID userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") UUID id,
+                                                 @Param("limit") int limit);
+    
+    /**
+     * Take one seat if the trip still has a free one, flipping it to FULL when that was the last seat.
+     * The row lock of the UPDATE serializes concurrent approvals, so a full trip returns 0 instead of overfilling.
+     */
+    @Modifying
+    @Query(value = "UPDATE group_trips SET current_members = current_members + 1, " +
+           "status = CASE WHEN current_members + 1 >= max_people THEN 'FULL' ELSE status END, " +
+           "updated_at = LOCALTIMESTAMP " +
+           "WHERE id = :id AND current_members < max_people",
+           nativeQuery = true)
+    int reserveSeat(@Param("id") UUID id);
+
+    /**
+     * Give back a seat taken by reserveSeat, reopening the trip if it had been marked FULL
+     */
+    @Modifying
+    @Query(value = "UPDATE group_trips SET current_members = current_members - 1, " +
+           "status = CASE WHEN status = 'FULL' THEN 'OPEN' ELSE status END, " +
+           "updated_at = LOCALTIMESTAMP " +
+           "WHERE id = :id AND current_members > 1",
+           nativeQuery = true)
+    int releaseSeat(@Param("id") UUID id);
+    
+    /**
+     * Whether the user created the trip or is an accepted member of it, in one query
+     */
+    @Query("SELECT COUNT(gt) > 0 FROM GroupTrip gt WHERE gt.id = :groupTripId AND (gt.createdByUserId = :userId " +
+           "OR EXISTS (SELECT 1 FROM GroupTripMember gtm WHERE gtm.groupTripId = gt.id AND gtm.userId = :userId " +
+           "AND gtm.status = com.example.demo.entity.GroupTripMember$MemberStatus.ACCEPTED))")
+    boolean hasChatAccess(@Param("groupTripId") UUID groupTripId, @Param("userId") UUID userId);
     
     @Query("SELECT COUNT(gt) FROM GroupTrip gt WHERE gt.createdByUserId = :userId")
     long countByCreatedByUserId(@Param("userId") UUID userId);
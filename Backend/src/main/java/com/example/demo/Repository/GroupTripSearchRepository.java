@@ -0,0 +1,82 @@
+package com.example.demo.Repository;
+
+import com.example.demo.dto.GroupTripSearchFilter;
+import com.example.demo.entity.GroupTrip;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Group trip discovery: open trips the user neither created nor joined, filtered and keyset-paginated on
+ * (created_at DESC, id DESC). Only the filters that are set are added to the SQL, so every query shape
+ * stays simple enough for the planner to use idx_group_trips_status_created or idx_group_trips_status_start.
+ */
+@Repository
+public class GroupTripSearchRepository {
+
+    private static final String BASE_SQL =
+            "SELECT gt.* FROM group_trips gt " +
+            "WHERE gt.status = 'OPEN' AND gt.created_by_user_id <> :userId " +
+            // Anti-join on idx_group_trip_members_user_status rather than NOT IN over all of the user's memberships
+            "AND NOT EXISTS (SELECT 1 FROM group_trip_members gtm WHERE gtm.group_trip_id = gt.id " +
+            "AND gtm.user_id = :userId AND gtm.status IN ('REQUESTED', 'ACCEPTED'))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public List<GroupTrip> discover(UUID userId, GroupTripSearchFilter filter, LocalDateTime cursorCreatedAt,
+                                    UUID cursorId, int limit) {
+        StringBuilder sql = new StringBuilder(BASE_SQL);
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+
+        if (filter != null) {
+            if (filter.getDestination() != null && !filter.getDestination().isBlank()) {
+                sql.append(" AND lower(gt.destination) LIKE :destination ESCAPE '\\'");
+                params.put("destination", escapeLike(filter.getDestination().trim().toLowerCase()) + "%");
+            }
+            if (filter.getStartFrom() != null) {
+                sql.append(" AND gt.start_date >= :startFrom");
+                params.put("startFrom", filter.getStartFrom());
+            }
+            if (filter.getStartTo() != null) {
+                sql.append(" AND gt.start_date <= :startTo");
+                params.put("startTo", filter.getStartTo());
+            }
+            if (filter.getMaxBudget() != null) {
+                sql.append(" AND gt.budget <= :maxBudget");
+                params.put("maxBudget", filter.getMaxBudget());
+            }
+            if (filter.getMinSeats() != null) {
+                // current_members counts the creator and accepted members
+                sql.append(" AND gt.max_people - gt.current_members >= :minSeats");
+                params.put("minSeats", filter.getMinSeats());
+            }
+        }
+
+        if (cursorCreatedAt != null) {
+            sql.append(" AND (gt.created_at < :createdAt OR (gt.created_at = :createdAt AND gt.id < :id))");
+            params.put("createdAt", cursorCreatedAt);
+            params.put("id", cursorId);
+        }
+
+        sql.append(" ORDER BY gt.created_at DESC, gt.id DESC LIMIT :limit");
+        params.put("limit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), GroupTrip.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.Repository;
+
+import com.example.demo.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Lock up to :limit due messages, oldest first. SKIP LOCKED lets several dispatchers
+     * (one per replica) claim different rows instead of waiting on each other.
+     */
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NotificationOutbox> claimDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.example.demo.entity.NotificationOutbox.Status.DELIVERED, " +
+           "o.deliveredAt = :now WHERE o.id IN :ids")
+    int markDelivered(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = com.example.demo.entity.NotificationOutbox.Status.DELIVERED " +
+           "AND o.deliveredAt < :cutoff")
+    int deleteDeliveredBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Fan-out replay after a listener reconnects
+    List<NotificationOutbox> findByStatusAndDeliveredAtAfterOrderByIdAsc(NotificationOutbox.Status status, LocalDateTime since);
+
+    long countByStatus(NotificationOutbox.Status status);
+}
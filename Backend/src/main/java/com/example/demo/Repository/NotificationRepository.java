@@ -2,8 +2,14 @@ package com.example.demo.Repository;
 
 import com.example.demo.entity.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +18,48 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     List<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId);
     List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(UUID userId);
     long countByUserIdAndIsReadFalse(UUID userId);
+
+    /**
+     * First keyset page of a user's inbox, newest first (served by idx_notifications_user_created).
+     * On the monthly-partitioned table Postgres reads partitions newest first and stops once the page is
+     * full, so a typical inbox only touches the latest month; the cursor query below also prunes newer months.
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Next keyset page of a user's inbox, strictly after the (createdAt, id) cursor
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageByUserIdBeforeCursor(@Param("userId") UUID userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") UUID id,
+                                                    Pageable pageable);
+
+    /**
+     * Unread counts for a set of users as (userId, count) rows; users with nothing unread are absent
+     */
+    @Query("SELECT n.userId, COUNT(n) FROM Notification n WHERE n.userId IN :userIds AND n.isRead = false GROUP BY n.userId")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Mark up to :limit of the user's unread notifications as read in one statement.
+     * Callers repeat it until fewer than :limit rows change, so huge inboxes never hold one long lock.
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications SET \"isread\" = true WHERE id IN " +
+           "(SELECT id FROM notifications WHERE user_id = :userId AND \"isread\" = false LIMIT :limit)",
+           nativeQuery = true)
+    int markReadChunk(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    /**
+     * Delete up to :limit of the user's notifications in one statement (chunked like markReadChunk).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE id IN " +
+           "(SELECT id FROM notifications WHERE user_id = :userId LIMIT :limit)",
+           nativeQuery = true)
+    int deleteChunk(@Param("userId") UUID userId, @Param("limit") int limit);
 }
\ No newline at end of file
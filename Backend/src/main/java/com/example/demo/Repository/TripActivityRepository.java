@@ -3,6 +3,8 @@ package com.example.demo.Repository;
 import com.example.demo.entity.TripActivity;
 import com.example.demo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,7 +15,16 @@ public interface TripActivityRepository extends JpaRepository<TripActivity,Long>
 //    boolean existByTripIdAndActivity(Long id,String activity);
     TripActivity findByTripIdAndActivity(Long id,String activity);
    boolean existsByTripId(Long Id);
+    // False for a new trip and for rows written before sort_order existed
+    boolean existsByTripIdAndSortOrderIsNotNull(Long tripId);
     List<TripActivity> findAllByTripId(Long tripId);
+    List<TripActivity> findAllByTripIdOrderBySortOrderAsc(Long tripId);
+
+    // Per-day progress rows: [dayNumber, total, completed]
+    @Query("SELECT a.dayNumber, COUNT(a), SUM(CASE WHEN a.completed = true THEN 1 ELSE 0 END) " +
+           "FROM TripActivity a WHERE a.tripId = :tripId " +
+           "GROUP BY a.dayNumber ORDER BY a.dayNumber")
+    List<Object[]> findProgressByDay(@Param("tripId") Long tripId);
 
 
 }
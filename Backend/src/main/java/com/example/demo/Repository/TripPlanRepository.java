@@ -1,15 +1,22 @@
 package com.example.demo.Repository;
 
 import com.example.demo.entity.TripPlan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TripPlanRepository extends JpaRepository<TripPlan, Long> {
@@ -37,17 +44,102 @@ public interface TripPlanRepository extends JpaRepository<TripPlan, Long> {
            "CAST(trip_plan -> 'trip_summary' ->> 'start_date' AS DATE) BETWEEN :startDate AND :endDate)", 
            nativeQuery = true)
     List<TripPlan> findUpcomingTripsInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Distinct destinations of upcoming trips starting in the date range (may contain nulls and case variants)
+     */
+    @Query(value = "SELECT DISTINCT COALESCE(trip_plan ->> 'destination', trip_plan -> 'trip_summary' ->> 'destination') " +
+           "FROM trip_plan WHERE status = 'upcoming' AND " +
+           "(CAST(trip_plan ->> 'start_date' AS DATE) BETWEEN :startDate AND :endDate OR " +
+           "CAST(trip_plan -> 'trip_summary' ->> 'start_date' AS DATE) BETWEEN :startDate AND :endDate)",
+           nativeQuery = true)
+    List<String> findUpcomingDestinationsInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * One chunk of upcoming trips in the date range with id greater than afterId, in id order.
+     * The weather scan walks the range chunk by chunk so it never holds every trip at once.
+     */
+    @Query(value = "SELECT * FROM trip_plan WHERE status = 'upcoming' AND id > :afterId AND " +
+           "(CAST(trip_plan ->> 'start_date' AS DATE) BETWEEN :startDate AND :endDate OR " +
+           "CAST(trip_plan -> 'trip_summary' ->> 'start_date' AS DATE) BETWEEN :startDate AND :endDate) " +
+           "ORDER BY id",
+           nativeQuery = true)
+    List<TripPlan> findUpcomingTripsInRangeAfterId(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    /**
+     * Stream trips with the given status through a server-side cursor. Entities are loaded read-only
+     * (no dirty-check snapshots); callers must run inside a transaction and clear the persistence
+     * context as they go.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM TripPlan t WHERE t.status = :status ORDER BY t.id")
+    Stream<TripPlan> streamByStatus(@Param("status") TripPlan.TripStatus status);
+
+    /**
+     * Set the status of the given trips in one statement
+     */
+    @Modifying
+    @Query("UPDATE TripPlan t SET t.status = :status WHERE t.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("status") TripPlan.TripStatus status);
+
+    long countByStatus(TripPlan.TripStatus status);
+
+    List<TripPlan> findTop3ByStatusOrderByIdAsc(TripPlan.TripStatus status);
     
     /**
-     * Find trip plans by user ID with pagination
+     * First keyset page of a user's trip plans, newest first
+     */
+    @Query("SELECT t FROM TripPlan t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripPlan> findByUserIdWithPagination(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Next keyset page of a user's trip plans, strictly after the (createdAt, id) cursor
      */
-    @Query("SELECT t FROM TripPlan t WHERE t.userId = :userId ORDER BY t.createdAt DESC")
-    List<TripPlan> findByUserIdWithPagination(@Param("userId") UUID userId);
+    @Query("SELECT t FROM TripPlan t WHERE t.userId = :userId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripPlan> findByUserIdBeforeCursor(@Param("userId") UUID userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    /**
+     * First keyset page of a user's trip plans with the given status
+     */
+    @Query("SELECT t FROM TripPlan t WHERE t.userId = :userId AND t.status = :status ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripPlan> findByUserIdAndStatusWithPagination(@Param("userId") UUID userId,
+                                                       @Param("status") TripPlan.TripStatus status,
+                                                       Pageable pageable);
+
+    /**
+     * Next keyset page of a user's trip plans with the given status
+     */
+    @Query("SELECT t FROM TripPlan t WHERE t.userId = :userId AND t.status = :status " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TripPlan> findByUserIdAndStatusBeforeCursor(@Param("userId") UUID userId,
+                                                     @Param("status") TripPlan.TripStatus status,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
     
     /**
      * Count trip plans by user ID
      */
     long countByUserId(UUID userId);
+
+    /**
+     * (id, trip_plan JSON) rows for a batch of plans, e.g. the plans behind a page of group trips
+     */
+    @Query("SELECT t.id, t.tripPlan FROM TripPlan t WHERE t.id IN :ids")
+    List<Object[]> findTripPlanJsonByIds(@Param("ids") Collection<Long> ids);
     
     /**
      * Count trip plans by user ID and status
@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -15,4 +17,10 @@ public interface UserRepository extends JpaRepository<User,UUID> {
     
     @Query("SELECT u.username FROM User u WHERE u.id = :userId")
     Optional<String> findUsernameByUserId(@Param("userId") UUID userId);
+
+    /**
+     * (id, username) rows for a batch of users, without loading the entities and their profiles
+     */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :userIds")
+    List<Object[]> findUsernamesByIds(@Param("userIds") Collection<UUID> userIds);
 }
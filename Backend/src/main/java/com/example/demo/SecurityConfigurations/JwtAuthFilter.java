@@ -1,5 +1,6 @@
 package com.example.demo.SecurityConfigurations;
 
+import com.example.demo.entity.User;
 import com.example.demo.service.TokenBlacklistService;
 import com.nimbusds.jose.proc.SecurityContext;
 import jakarta.servlet.FilterChain;
@@ -45,8 +46,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             boolean isValid= jwtUtility.validateToken(userDetails,token);
 
             if(isValid){
+                // Resolve the user once here; downstream code reads the id straight off the principal
+                AuthenticatedUser principal = AuthenticatedUser.from((User) userDetails);
                 UsernamePasswordAuthenticationToken authenticationToken=
-                        new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal,null,principal.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters for group trip discovery; null fields are not applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupTripSearchFilter {
+    // Case-insensitive prefix of the destination
+    private String destination;
+    private LocalDate startFrom;
+    private LocalDate startTo;
+    private Double maxBudget;
+    private Integer minSeats;
+}
@@ -0,0 +1,124 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed view of the trip_plan JSON produced by the travel service.
+ * Older plans carry destination/origin/start_date/duration_days/budget at the top level,
+ * newer ones nest them under trip_summary; the resolve* methods check both.
+ * Read and write it through {@link com.example.demo.util.TripPlanJson}.
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class TripPlanDocument {
+
+    // Legacy flat fields
+    private String destination;
+    private String origin;
+    private String startDate;
+    private Integer durationDays;
+    private Double budget;
+
+    private TripSummary tripSummary;
+    private List<DayPlan> dailyItinerary = new ArrayList<>();
+
+    public String resolveDestination() {
+        return destination != null ? destination : tripSummary != null ? tripSummary.getDestination() : null;
+    }
+
+    public String resolveOrigin() {
+        return origin != null ? origin : tripSummary != null ? tripSummary.getOrigin() : null;
+    }
+
+    public String resolveStartDate() {
+        return startDate != null ? startDate : tripSummary != null ? tripSummary.getStartDate() : null;
+    }
+
+    public Integer resolveDurationDays() {
+        return durationDays != null ? durationDays : tripSummary != null ? tripSummary.getDuration() : null;
+    }
+
+    public Double resolveBudget() {
+        return budget != null ? budget : tripSummary != null ? tripSummary.getTotalBudget() : null;
+    }
+
+    /**
+     * All activities in itinerary order: each day's morning activity followed by its afternoon activities.
+     */
+    public List<Activity> activities() {
+        List<Activity> activities = new ArrayList<>();
+        if (dailyItinerary == null) {
+            return activities;
+        }
+        for (DayPlan day : dailyItinerary) {
+            if (day.getMorningActivity() != null) {
+                activities.add(day.getMorningActivity());
+            }
+            if (day.getAfternoonActivities() != null) {
+                activities.addAll(day.getAfternoonActivities());
+            }
+        }
+        return activities;
+    }
+
+    /**
+     * Accommodation options across all days, in itinerary order.
+     */
+    public List<Accommodation> accommodations() {
+        List<Accommodation> accommodations = new ArrayList<>();
+        if (dailyItinerary == null) {
+            return accommodations;
+        }
+        for (DayPlan day : dailyItinerary) {
+            if (day.getAccommodationOptions() != null) {
+                accommodations.addAll(day.getAccommodationOptions());
+            }
+        }
+        return accommodations;
+    }
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class TripSummary {
+        private String origin;
+        private String destination;
+        private String startDate;
+        private Integer duration;
+        private Double totalBudget;
+    }
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class DayPlan {
+        private Integer day;
+        private String date;
+        private Activity morningActivity;
+        private List<Activity> afternoonActivities = new ArrayList<>();
+        private List<Accommodation> accommodationOptions = new ArrayList<>();
+    }
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class Activity {
+        private String spotName;
+        private String time;
+        private String description;
+        private Double entryFee;
+        private String imageUrl;
+    }
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class Accommodation {
+        private String hotelName;
+        private Double rating;
+        private Double costPerNight;
+        private String amenities;
+        private String imageUrl;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One trip's weather alert, collected during a scan and delivered in the user's digest notification.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeatherAlertDigestItem {
+    private UUID userId;
+    private Long tripId;
+    private String destination;
+    private String weatherInfo;
+}
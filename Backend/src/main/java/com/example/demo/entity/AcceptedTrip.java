@@ -16,7 +16,9 @@ import java.util.UUID;
 @Builder
 @Data
 @Entity
-@Table(name = "accepted_trips")
+@Table(name = "accepted_trips", indexes = {
+        @Index(name = "idx_accepted_trips_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 public class AcceptedTrip {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
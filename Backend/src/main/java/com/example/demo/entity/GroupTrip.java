@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -14,7 +15,10 @@ import java.util.UUID;
 @Builder
 @Data
 @Entity
-@Table(name = "group_trips")
+@Table(name = "group_trips", indexes = {
+        @Index(name = "idx_group_trips_status_created", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_group_trips_status_start", columnList = "status, start_date")
+})
 public class GroupTrip {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -35,7 +39,8 @@ public class GroupTrip {
     @Column(name = "additional_requirements", columnDefinition = "TEXT")
     private String additionalRequirements;
 
-    @Column(name = "current_members")
+    // Creator plus accepted members; only changed through GroupTripRepository.reserveSeat/releaseSeat
+    @Column(name = "current_members", nullable = false)
     private Integer currentMembers;
 
     @Column(name = "trip_plan_id", nullable = false)
@@ -44,6 +49,16 @@ public class GroupTrip {
     @Column(name = "created_by_user_id", nullable = false)
     private UUID createdByUserId;
 
+    // Copied from the linked trip plan at creation so discovery can filter and index them
+    @Column(name = "destination")
+    private String destination;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "budget")
+    private Double budget;
+
     @Column(name = "status", nullable = false)
     @Enumerated(EnumType.STRING)
     private GroupTripStatus status;
@@ -77,6 +92,10 @@ public class GroupTrip {
         if (currentMembers == null) {
             currentMembers = 1;
         }
+        if (maxPeople == null) {
+            // reserveSeat needs a limit to compare against
+            maxPeople = 5;
+        }
     }
 
     @PreUpdate
@@ -14,7 +14,10 @@ import java.util.UUID;
 @Builder
 @Data
 @Entity
-@Table(name = "group_trip_members")
+@Table(name = "group_trip_members", indexes = {
+        @Index(name = "idx_group_trip_members_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_group_trip_members_trip_status", columnList = "group_trip_id, status")
+})
 public class GroupTripMember {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -16,7 +16,9 @@ import java.util.UUID;
 @Builder
 @Data
 @Entity
-@Table(name = "trip_activity")
+@Table(name = "trip_activity", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_trip_activity_trip_activity", columnNames = {"trip_id", "activity"})
+})
 public class TripActivity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,4 +30,9 @@ public class TripActivity {
     private boolean completed;
     @Column(name="activity",nullable = false)
     private String activity;
+    // Itinerary day and order within the trip, so the checklist reads back in plan order
+    @Column(name="day_number")
+    private Integer dayNumber;
+    @Column(name="sort_order")
+    private Integer sortOrder;
 }
@@ -1,12 +1,18 @@
 package com.example.demo.entity;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.dto.TripPlanDocument;
+import com.example.demo.util.TripPlanJson;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -19,7 +25,10 @@ import java.util.UUID;
 @Builder
 @Data
 @Entity
-@Table(name = "trip_plan")
+@Table(name = "trip_plan", indexes = {
+        @Index(name = "idx_trip_plan_user_status_created", columnList = "user_id, status, created_at DESC, id DESC"),
+        @Index(name = "idx_trip_plan_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 public class TripPlan {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,6 +52,15 @@ public class TripPlan {
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 
+    // Parsed view of tripPlan, built on first use and reused until tripPlan is replaced
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient ParsedTripPlan parsed;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -53,18 +71,41 @@ public class TripPlan {
         }
     }
 
+    /**
+     * Typed trip plan, parsed at most once per tripPlan value on this instance.
+     * Unparseable JSON yields an empty document so callers see nulls, as before.
+     */
+    @JsonIgnore
+    public TripPlanDocument getDocument() {
+        if (parsed == null || parsed.source() != tripPlan) {
+            TripPlanDocument document = null;
+            if (tripPlan != null && !tripPlan.isBlank()) {
+                try {
+                    document = TripPlanJson.readDocument(tripPlan);
+                } catch (Exception e) {
+                    System.err.println("Error parsing JSON: " + e.getMessage());
+                }
+            }
+            parsed = new ParsedTripPlan(tripPlan, document != null ? document : new TripPlanDocument());
+        }
+        return parsed.document();
+    }
+
+    private record ParsedTripPlan(String source, TripPlanDocument document) {
+    }
+
     // Helper methods to extract data from JSONB
     public String getDestination() {
-        return getStringFromJson("destination", "trip_summary.destination");
+        return getDocument().resolveDestination();
     }
 
     public String getOrigin() {
-        return getStringFromJson("origin", "trip_summary.origin");
+        return getDocument().resolveOrigin();
     }
 
     public LocalDate getStartDate() {
         try {
-            String dateStr = getStringFromJson("start_date", "trip_summary.start_date");
+            String dateStr = getDocument().resolveStartDate();
             return dateStr != null ? LocalDate.parse(dateStr) : null;
         } catch (Exception e) {
             System.err.println("Error parsing start date: " + e.getMessage());
@@ -73,79 +114,11 @@ public class TripPlan {
     }
 
     public Integer getDurationDays() {
-        return getIntFromJson("duration_days", "trip_summary.duration");
+        return getDocument().resolveDurationDays();
     }
 
     public Double getBudget() {
-        return getDoubleFromJson("budget", "trip_summary.total_budget");
-    }
-
-    private String getStringFromJson(String... paths) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(tripPlan);
-
-            for (String path : paths) {
-                JsonNode node = getNodeByPath(jsonNode, path);
-                if (node != null && !node.isNull()) {
-                    return node.asText();
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error parsing JSON: " + e.getMessage());
-            return null;
-        }
-    }
-
-    private Integer getIntFromJson(String... paths) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(tripPlan);
-
-            for (String path : paths) {
-                JsonNode node = getNodeByPath(jsonNode, path);
-                if (node != null && !node.isNull()) {
-                    return node.asInt();
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error parsing JSON: " + e.getMessage());
-            return null;
-        }
-    }
-
-    private Double getDoubleFromJson(String... paths) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(tripPlan);
-
-            for (String path : paths) {
-                JsonNode node = getNodeByPath(jsonNode, path);
-                if (node != null && !node.isNull()) {
-                    return node.asDouble();
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error parsing JSON: " + e.getMessage());
-            return null;
-        }
-    }
-
-    private JsonNode getNodeByPath(JsonNode node, String path) {
-        String[] parts = path.split("\\.");
-        JsonNode current = node;
-
-        for (String part : parts) {
-            if (current == null || current.isNull()) {
-                return null;
-            }
-            current = current.get(part);
-        }
-
-        return current;
+        return getDocument().resolveBudget();
     }
 
     // Check if trip is upcoming
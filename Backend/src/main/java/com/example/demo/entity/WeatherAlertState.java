@@ -0,0 +1,39 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last weather alert sent for a trip. The fingerprint identifies the set of adverse days
+ * and reasons, so the scan only notifies the user when that set changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "weather_alert_state")
+public class WeatherAlertState {
+    @Id
+    @Column(name = "trip_id")
+    private Long tripId;
+
+    // Null while the trip has no adverse weather
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
+    @Column(name = "last_alerted_at")
+    private LocalDateTime lastAlertedAt;
+
+    @Column(name = "last_checked_at")
+    private LocalDateTime lastCheckedAt;
+
+    @Builder.Default
+    @Column(name = "suppressed_count", nullable = false)
+    private long suppressedCount = 0;
+}
@@ -1,11 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entity.AcceptedTrip;
-import com.example.demo.entity.User;
 import com.example.demo.Repository.AcceptedTripRepository;
-import com.example.demo.Repository.UserRepository;
+import com.example.demo.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -22,29 +24,14 @@ public class AcceptedTripService {
     @Autowired
     private AcceptedTripRepository acceptedTripRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private ObjectMapper objectMapper;
 
     /**
      * Accept a trip plan and save it to the database
      */
-    public AcceptedTrip acceptTrip(String userIdentifier, Map<String, Object> tripPlan) {
+    public AcceptedTrip acceptTrip(UUID userId, Map<String, Object> tripPlan) {
         try {
-            // Find user by username first, then by email if not found
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            
             // Extract trip summary data for debugging and validation
             Map<String, Object> tripSummary = null;
             String destination = null;
@@ -81,14 +68,14 @@ public class AcceptedTripService {
             
             // Create and save accepted trip
             AcceptedTrip acceptedTrip = AcceptedTrip.builder()
-                    .userId(user.getId())
+                    .userId(userId)
                     .tripPlan(tripPlanJson)
                     .createdAt(LocalDateTime.now())
                     .build();
             
             AcceptedTrip savedTrip = acceptedTripRepository.save(acceptedTrip);
             
-            System.out.println("✅ Trip accepted and saved for user: " + userIdentifier);
+            System.out.println("✅ Trip accepted and saved for user: " + userId);
             System.out.println("📊 Trip ID: " + savedTrip.getId());
             
             return savedTrip;
@@ -103,21 +90,31 @@ public class AcceptedTripService {
     /**
      * Get all accepted trips for a user
      */
-    public List<AcceptedTrip> getUserAcceptedTrips(String userIdentifier) {
+    public List<AcceptedTrip> getUserAcceptedTrips(UUID userId) {
         try {
-            // Find user by username first, then by email if not found
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
+            return acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(userId);
             
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
+        } catch (Exception e) {
+            System.err.println("❌ Error fetching user trips: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch user trips: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get one keyset page of a user's accepted trips
+     */
+    public CursorPage<AcceptedTrip> getUserAcceptedTripsPage(UUID userId, KeysetCursor<Long> cursor, Integer limit) {
+        try {
+            int pageSize = CursorPage.clampLimit(limit);
+            Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+            List<AcceptedTrip> rows = cursor == null
+                    ? acceptedTripRepository.findByUserIdWithPagination(userId, pageable)
+                    : acceptedTripRepository.findByUserIdBeforeCursor(userId, cursor.getCreatedAt(), cursor.getId(), pageable);
+
+            return CursorPage.fromOverfetch(rows, pageSize,
+                    trip -> KeysetCursor.of(trip.getCreatedAt(), trip.getId()).encode());
 
-            User user = userOptional.get();
-            return acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
-            
         } catch (Exception e) {
             System.err.println("❌ Error fetching user trips: " + e.getMessage());
             throw new RuntimeException("Failed to fetch user trips: " + e.getMessage());
@@ -134,16 +131,10 @@ public class AcceptedTripService {
     /**
      * Get recent accepted trips for a user (last 30 days)
      */
-    public List<AcceptedTrip> getRecentAcceptedTrips(String userEmail) {
+    public List<AcceptedTrip> getRecentAcceptedTrips(UUID userId) {
         try {
-            Optional<User> userOptional = userRepository.findByEmail(userEmail);
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with email: " + userEmail);
-            }
-
-            User user = userOptional.get();
             LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            return acceptedTripRepository.findRecentTripsByUserId(user.getId(), thirtyDaysAgo);
+            return acceptedTripRepository.findRecentTripsByUserId(userId, thirtyDaysAgo);
             
         } catch (Exception e) {
             System.err.println("❌ Error fetching recent trips: " + e.getMessage());
@@ -154,15 +145,9 @@ public class AcceptedTripService {
     /**
      * Count total accepted trips for a user
      */
-    public long countUserAcceptedTrips(String userEmail) {
+    public long countUserAcceptedTrips(UUID userId) {
         try {
-            Optional<User> userOptional = userRepository.findByEmail(userEmail);
-            if (!userOptional.isPresent()) {
-                return 0;
-            }
-
-            User user = userOptional.get();
-            return acceptedTripRepository.countByUserId(user.getId());
+            return acceptedTripRepository.countByUserId(userId);
             
         } catch (Exception e) {
             System.err.println("❌ Error counting user trips: " + e.getMessage());
@@ -173,9 +158,9 @@ public class AcceptedTripService {
     /**
      * Delete an accepted trip
      */
-    public boolean deleteAcceptedTrip(Long tripId, String userIdentifier) {
+    public boolean deleteAcceptedTrip(Long tripId, UUID userId) {
         try {
-            System.out.println("🔍 DEBUG: Attempting to delete trip " + tripId + " for user: " + userIdentifier);
+            System.out.println("🔍 DEBUG: Attempting to delete trip " + tripId + " for user: " + userId);
             
             Optional<AcceptedTrip> tripOptional = acceptedTripRepository.findById(tripId);
             if (!tripOptional.isPresent()) {
@@ -186,25 +171,9 @@ public class AcceptedTripService {
             AcceptedTrip trip = tripOptional.get();
             System.out.println("🔍 DEBUG: Found trip with user ID: " + trip.getUserId());
             
-            // Find user by username first, then by email if not found (consistent with other methods)
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                System.out.println("❌ User not found with identifier: " + userIdentifier);
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-            
-            User user = userOptional.get();
-            System.out.println("🔍 DEBUG: Found user with ID: " + user.getId());
-            System.out.println("🔍 DEBUG: User email: " + user.getEmail());
-            System.out.println("🔍 DEBUG: User username: " + user.getUsername());
-            
             // Verify the trip belongs to the user
-            if (!trip.getUserId().equals(user.getId())) {
-                System.out.println("❌ Authorization failed: Trip user ID (" + trip.getUserId() + ") != Current user ID (" + user.getId() + ")");
+            if (!trip.getUserId().equals(userId)) {
+                System.out.println("❌ Authorization failed: Trip user ID (" + trip.getUserId() + ") != Current user ID (" + userId + ")");
                 throw new RuntimeException("Unauthorized to delete this trip");
             }
 
@@ -222,20 +191,9 @@ public class AcceptedTripService {
     /**
      * Get trips categorized by their status (ongoing, past, upcoming)
      */
-    public Map<String, List<Map<String, Object>>> getCategorizedTrips(String userIdentifier) {
+    public Map<String, List<Map<String, Object>>> getCategorizedTrips(UUID userId) {
         try {
-            // Find user by username first, then by email if not found
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            List<AcceptedTrip> allTrips = acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+            List<AcceptedTrip> allTrips = acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(userId);
             
             // Initialize categories
             List<Map<String, Object>> ongoingTrips = new ArrayList<>();
@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Offline provider that replays recorded weatherapi.com responses, for local runs, load tests and CI.
+ * A location is read from {location}/{slug}.json (e.g. "Cox's Bazar" -> coxs-bazar.json), falling back to
+ * default.json and then to a generated mild forecast. Recorded dates are shifted so day 1 is always today.
+ * Latency and a failure rate can be injected to exercise the scan's timeouts and error paths.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.provider", havingValue = "fixture")
+public class FixtureWeatherProvider implements WeatherProvider {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${weather.fixture.location:classpath:weather-fixtures/}")
+    private String fixtureLocation = "classpath:weather-fixtures/";
+
+    @Value("${weather.fixture.latency-ms:0}")
+    private long latencyMs = 0;
+
+    @Value("${weather.fixture.failure-rate:0.0}")
+    private double failureRate = 0.0;
+
+    private final Map<String, List<Map<String, Object>>> recordings = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Map<String, Object>> fetchForecast(String location, int days) {
+        simulateNetwork(location);
+
+        List<Map<String, Object>> recorded = recordings.computeIfAbsent(slug(location), this::loadRecording);
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> forecast = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.min(days, MAX_FORECAST_DAYS), recorded.size()); i++) {
+            Map<String, Object> day = new HashMap<>(recorded.get(i));
+            day.put("date", today.plusDays(i).toString());
+            forecast.add(day);
+        }
+        return forecast;
+    }
+
+    @Override
+    public String getName() {
+        return "fixture";
+    }
+
+    private void simulateNetwork(String location) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Fixture weather call interrupted for " + location);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new RuntimeException("Injected fixture failure for " + location);
+        }
+    }
+
+    private List<Map<String, Object>> loadRecording(String slug) {
+        for (String name : List.of(slug, "default")) {
+            Resource resource = resourceLoader.getResource(fixtureLocation + name + ".json");
+            if (!resource.exists()) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                return WeatherApiProvider.parseForecast(objectMapper.readTree(in));
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to read weather fixture " + name + ": " + e.getMessage());
+            }
+        }
+        System.out.println("⚠️ No weather fixture for " + slug + " - using generated forecast");
+        return generatedForecast();
+    }
+
+    private static List<Map<String, Object>> generatedForecast() {
+        List<Map<String, Object>> forecast = new ArrayList<>();
+        for (int i = 0; i < MAX_FORECAST_DAYS; i++) {
+            Map<String, Object> day = new HashMap<>();
+            day.put("condition", "Partly cloudy");
+            day.put("icon", "https://cdn.weatherapi.com/weather/64x64/day/116.png");
+            day.put("avg_temp_c", 27.0);
+            day.put("humidity", 70.0);
+            day.put("precip_mm", 0.0);
+            day.put("max_wind_kph", 12.0);
+            forecast.add(day);
+        }
+        return forecast;
+    }
+
+    static String slug(String location) {
+        String slug = WeatherForecastCache.normalize(location)
+                .replaceAll("['’]", "")
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("(^-|-$)", "");
+        return slug.isEmpty() ? "default" : slug;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.GroupTripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-node cache of who may use a group trip's chat, keyed by (groupTripId, userId), so chat reads and sends
+ * do not look up the trip and the membership on every message. Only grants are cached: a user who is refused
+ * is checked again next time, so an approval on another node takes effect immediately. Grants expire after a
+ * short TTL and are dropped on this node whenever GroupTripService changes that user's membership.
+ */
+@Component
+public class GroupTripAccessCache {
+
+    @Autowired
+    private GroupTripRepository groupTripRepository;
+
+    @Value("${group-trip.access-cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${group-trip.access-cache.max-entries:100000}")
+    private int maxEntries = 100000;
+
+    private final Clock clock;
+    private final Map<AccessKey, Instant> grants = new ConcurrentHashMap<>();
+
+    public GroupTripAccessCache() {
+        this(Clock.systemUTC());
+    }
+
+    GroupTripAccessCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    public boolean hasAccess(UUID groupTripId, UUID userId) {
+        AccessKey key = new AccessKey(groupTripId, userId);
+        Instant now = clock.instant();
+        Instant expiresAt = grants.get(key);
+        if (expiresAt != null && now.isBefore(expiresAt)) {
+            return true;
+        }
+
+        boolean allowed = groupTripRepository.hasChatAccess(groupTripId, userId);
+        if (allowed) {
+            if (grants.size() >= maxEntries) {
+                grants.values().removeIf(expiry -> !now.isBefore(expiry));
+            }
+            if (grants.size() < maxEntries) {
+                grants.put(key, now.plus(Duration.ofSeconds(ttlSeconds)));
+            }
+        } else if (expiresAt != null) {
+            grants.remove(key);
+        }
+        return allowed;
+    }
+
+    public void invalidate(UUID groupTripId, UUID userId) {
+        grants.remove(new AccessKey(groupTripId, userId));
+    }
+
+    private record AccessKey(UUID groupTripId, UUID userId) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.GroupTripMemberRepository;
+import com.example.demo.Repository.TripPlanRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.dto.GroupTripResponse;
+import com.example.demo.entity.GroupTrip;
+import com.example.demo.entity.GroupTripMember;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds GroupTripResponse DTOs for a whole listing at once. Creator names, trip plans and the current user's
+ * memberships are each loaded with one IN (...) query for all trips and joined in memory, so a listing costs
+ * three queries however many trips it has. Member counts come from the stored current_members column.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupTripResponseAssembler {
+
+    private final UserRepository userRepository;
+    private final TripPlanRepository tripPlanRepository;
+    private final GroupTripMemberRepository groupTripMemberRepository;
+    private final ObjectMapper objectMapper;
+
+    public List<GroupTripResponse> assemble(List<GroupTrip> groupTrips, UUID currentUserId) {
+        if (groupTrips.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> tripIds = collect(groupTrips, GroupTrip::getId);
+        Set<UUID> creatorIds = collect(groupTrips, GroupTrip::getCreatedByUserId);
+        Set<Long> planIds = collect(groupTrips, GroupTrip::getTripPlanId);
+
+        Map<UUID, String> creatorNames = new HashMap<>();
+        for (Object[] row : userRepository.findUsernamesByIds(creatorIds)) {
+            creatorNames.put((UUID) row[0], (String) row[1]);
+        }
+
+        Map<Long, String> planJson = new HashMap<>();
+        if (!planIds.isEmpty()) {
+            for (Object[] row : tripPlanRepository.findTripPlanJsonByIds(planIds)) {
+                planJson.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        Map<UUID, GroupTripMember> memberships = groupTripMemberRepository
+                .findByUserIdAndGroupTripIdIn(currentUserId, tripIds).stream()
+                .collect(Collectors.toMap(GroupTripMember::getGroupTripId, Function.identity(), (a, b) -> a));
+
+        List<GroupTripResponse> responses = new ArrayList<>(groupTrips.size());
+        for (GroupTrip groupTrip : groupTrips) {
+            responses.add(toResponse(groupTrip, currentUserId,
+                    creatorNames.getOrDefault(groupTrip.getCreatedByUserId(), "Unknown User"),
+                    parseTripPlan(groupTrip, planJson),
+                    memberships.get(groupTrip.getId())));
+        }
+        return responses;
+    }
+
+    public GroupTripResponse assemble(GroupTrip groupTrip, UUID currentUserId) {
+        return assemble(List.of(groupTrip), currentUserId).get(0);
+    }
+
+    private GroupTripResponse toResponse(GroupTrip groupTrip, UUID currentUserId, String creatorName, Object tripPlan,
+                                         GroupTripMember memberRequest) {
+        boolean isCreator = groupTrip.getCreatedByUserId().equals(currentUserId);
+        String memberStatus = memberRequest != null ? memberRequest.getStatus().toString() : null;
+
+        return GroupTripResponse.builder()
+                .id(groupTrip.getId())
+                .groupName(groupTrip.getGroupName())
+                .description(groupTrip.getDescription())
+                .maxPeople(groupTrip.getMaxPeople())
+                .meetingPoint(groupTrip.getMeetingPoint())
+                .additionalRequirements(groupTrip.getAdditionalRequirements())
+                .createdByUserId(groupTrip.getCreatedByUserId())
+                .creatorName(creatorName)
+                .tripPlanId(groupTrip.getTripPlanId())
+                .tripPlan(tripPlan)
+                .status(groupTrip.getStatus())
+                .currentMembers(groupTrip.getCurrentMembers() != null ? groupTrip.getCurrentMembers() : 1)
+                .createdAt(groupTrip.getCreatedAt())
+                .updatedAt(groupTrip.getUpdatedAt())
+                .isCreator(isCreator)
+                .hasRequested(memberRequest != null)
+                .memberStatus(memberStatus)
+                .userJoinStatus(isCreator ? "CREATOR" : memberStatus != null ? memberStatus : "NOT_JOINED")
+                .build();
+    }
+
+    private Object parseTripPlan(GroupTrip groupTrip, Map<Long, String> planJson) {
+        if (groupTrip.getTripPlanId() == null) {
+            return null;
+        }
+        try {
+            String json = planJson.get(groupTrip.getTripPlanId());
+            if (json != null && !json.trim().isEmpty()) {
+                return objectMapper.readValue(json, Object.class);
+            }
+            return null;
+        } catch (Exception e) {
+            // If parsing fails, fall back to the copy stored on the group trip
+            if (groupTrip.getTripPlan() != null && !groupTrip.getTripPlan().trim().isEmpty()) {
+                try {
+                    return objectMapper.readValue(groupTrip.getTripPlan(), Object.class);
+                } catch (Exception e2) {
+                    return groupTrip.getTripPlan();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static <T> Set<T> collect(List<GroupTrip> groupTrips, Function<GroupTrip, T> key) {
+        return groupTrips.stream().map(key).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.service;
 import com.example.demo.Repository.TripPlanRepository;
 import com.example.demo.Repository.GroupTripMemberRepository;
 import com.example.demo.Repository.GroupTripRepository;
+import com.example.demo.Repository.GroupTripSearchRepository;
 import com.example.demo.Repository.UserRepository;
 import com.example.demo.Repository.GroupChatMessageRepository;
 import com.example.demo.dto.*;
@@ -11,11 +12,15 @@ import com.example.demo.entity.GroupTrip;
 import com.example.demo.entity.GroupTripMember;
 import com.example.demo.entity.User;
 import com.example.demo.entity.GroupChatMessage;
+import com.example.demo.util.KeysetCursor;
+import com.example.demo.util.TripPlanJson;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -27,10 +32,13 @@ import java.util.stream.Collectors;
 public class GroupTripService {
 
     private final GroupTripRepository groupTripRepository;
+    private final GroupTripSearchRepository groupTripSearchRepository;
     private final GroupTripMemberRepository groupTripMemberRepository;
     private final UserRepository userRepository;
     private final TripPlanRepository tripPlanRepository;
     private final GroupChatMessageRepository groupChatMessageRepository;
+    private final GroupTripResponseAssembler groupTripResponseAssembler;
+    private final GroupTripAccessCache groupTripAccessCache;
     private final ObjectMapper objectMapper;
 
     @Transactional
@@ -66,7 +74,8 @@ public class GroupTripService {
 
             // Step 3: Find user's trips
             System.out.println("Step 3: Finding user's trip plans...");
-            List<TripPlan> userTrips = tripPlanRepository.findByUserIdOrderByCreatedAtDesc(creatorId);
+            // Only the latest plan is needed, so fetch a single row instead of the user's whole history
+            List<TripPlan> userTrips = tripPlanRepository.findByUserIdWithPagination(creatorId, PageRequest.of(0, 1));
             System.out.println("Found " + userTrips.size() + " trip plans");
             
             if (userTrips.isEmpty()) {
@@ -97,6 +106,7 @@ public class GroupTripService {
                     .currentMembers(1)
                     .status(GroupTrip.GroupTripStatus.OPEN)
                     .build();
+            copyPlanSummary(groupTrip, latestTrip.getTripPlan());
 
             System.out.println("Group trip entity created: " + groupTrip.getGroupName());
 
@@ -162,61 +172,68 @@ public class GroupTripService {
         }
     }
 
-    public ApiResponse<List<GroupTripResponse>> getAllAvailableGroupTrips(UUID userId) {
+    /**
+     * One page of open group trips the user can join, newest first, narrowed by the optional filters.
+     * Pass the returned nextCursor back to fetch the following page.
+     */
+    public ApiResponse<CursorPage<GroupTripResponse>> discoverGroupTrips(UUID userId, GroupTripSearchFilter filter,
+                                                                         KeysetCursor<UUID> cursor, Integer limit) {
         try {
-            List<GroupTrip> groupTrips = groupTripRepository.findAvailableGroupTripsForUser(userId);
-            
-            List<GroupTripResponse> responses = groupTrips.stream()
-                    .map(trip -> convertToResponse(trip, userId))
-                    .collect(Collectors.toList());
+            int pageSize = CursorPage.clampLimit(limit);
+            // One extra row tells us whether another page exists
+            List<GroupTrip> rows = groupTripSearchRepository.discover(userId, filter,
+                    cursor != null ? cursor.getCreatedAt() : null,
+                    cursor != null ? cursor.getId() : null,
+                    pageSize + 1);
 
-            return ApiResponse.<List<GroupTripResponse>>builder()
+            CursorPage<GroupTrip> page = CursorPage.fromOverfetch(rows, pageSize,
+                    trip -> KeysetCursor.of(trip.getCreatedAt(), trip.getId()).encode());
+
+            return ApiResponse.<CursorPage<GroupTripResponse>>builder()
                     .success(true)
-                    .data(responses)
+                    .data(CursorPage.<GroupTripResponse>builder()
+                            .items(groupTripResponseAssembler.assemble(page.getItems(), userId))
+                            .nextCursor(page.getNextCursor())
+                            .hasMore(page.isHasMore())
+                            .limit(pageSize)
+                            .build())
                     .build();
 
         } catch (Exception e) {
-            return ApiResponse.<List<GroupTripResponse>>builder()
+            return ApiResponse.<CursorPage<GroupTripResponse>>builder()
                     .success(false)
                     .error("Failed to fetch group trips: " + e.getMessage())
                     .build();
         }
     }
 
-    public ApiResponse<List<GroupTripResponse>> getMyGroupTrips(UUID userId) {
+    /**
+     * One page of the trips the user created or has a membership in (joined, requested, ...), newest first.
+     * Pass the returned nextCursor back to fetch the following page.
+     */
+    public ApiResponse<CursorPage<GroupTripResponse>> getMyGroupTrips(UUID userId, KeysetCursor<UUID> cursor, Integer limit) {
         try {
-            // Get trips created by user
-            List<GroupTrip> createdTrips = groupTripRepository.findByCreatedByUserIdOrderByCreatedAtDesc(userId);
-            
-            // Get trips where user is a member (joined or requested)
-            List<GroupTripMember> memberEntries = groupTripMemberRepository.findByUserIdOrderByJoinedAtDesc(userId);
-            List<GroupTrip> memberTrips = memberEntries.stream()
-                    .map(member -> groupTripRepository.findById(member.getGroupTripId()).orElse(null))
-                    .filter(trip -> trip != null)
-                    .collect(Collectors.toList());
-            
-            // Combine both lists and remove duplicates
-            List<GroupTrip> allTrips = new java.util.ArrayList<>(createdTrips);
-            for (GroupTrip memberTrip : memberTrips) {
-                if (!allTrips.stream().anyMatch(trip -> trip.getId().equals(memberTrip.getId()))) {
-                    allTrips.add(memberTrip);
-                }
-            }
-            
-            // Sort by creation date (most recent first)
-            allTrips.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-            
-            List<GroupTripResponse> responses = allTrips.stream()
-                    .map(trip -> convertToResponse(trip, userId))
-                    .collect(Collectors.toList());
+            int pageSize = CursorPage.clampLimit(limit);
+            // One extra row tells us whether another page exists
+            List<GroupTrip> rows = cursor == null
+                    ? groupTripRepository.findMyGroupTripsPage(userId, pageSize + 1)
+                    : groupTripRepository.findMyGroupTripsBeforeCursor(userId, cursor.getCreatedAt(), cursor.getId(), pageSize + 1);
 
-            return ApiResponse.<List<GroupTripResponse>>builder()
+            CursorPage<GroupTrip> page = CursorPage.fromOverfetch(rows, pageSize,
+                    trip -> KeysetCursor.of(trip.getCreatedAt(), trip.getId()).encode());
+
+            return ApiResponse.<CursorPage<GroupTripResponse>>builder()
                     .success(true)
-                    .data(responses)
+                    .data(CursorPage.<GroupTripResponse>builder()
+                            .items(groupTripResponseAssembler.assemble(page.getItems(), userId))
+                            .nextCursor(page.getNextCursor())
+                            .hasMore(page.isHasMore())
+                            .limit(pageSize)
+                            .build())
                     .build();
 
         } catch (Exception e) {
-            return ApiResponse.<List<GroupTripResponse>>builder()
+            return ApiResponse.<CursorPage<GroupTripResponse>>builder()
                     .success(false)
                     .error("Failed to fetch your group trips: " + e.getMessage())
                     .build();
@@ -238,6 +255,15 @@ public class GroupTripService {
                         .build();
             }
 
+            if (groupTrip.getStatus() != GroupTrip.GroupTripStatus.OPEN) {
+                return ApiResponse.<String>builder()
+                        .success(false)
+                        .error(groupTrip.getStatus() == GroupTrip.GroupTripStatus.FULL
+                                ? "This group trip is full"
+                                : "This group trip is not accepting new members")
+                        .build();
+            }
+
             // Check if user already has an active request (REQUESTED or ACCEPTED)
             Optional<GroupTripMember> existingMember = groupTripMemberRepository
                     .findByGroupTripIdAndUserId(groupTripId, userId);
@@ -261,6 +287,7 @@ public class GroupTripService {
                     existingMember.get().setJoinMessage(request.getJoinMessage());
                     existingMember.get().setJoinedAt(LocalDateTime.now()); // Update to current time for new request
                     groupTripMemberRepository.save(existingMember.get());
+                    groupTripAccessCache.invalidate(groupTripId, userId);
                     
                     return ApiResponse.<String>builder()
                             .success(true)
@@ -278,6 +305,7 @@ public class GroupTripService {
                     .build();
 
             groupTripMemberRepository.save(member);
+            groupTripAccessCache.invalidate(groupTripId, userId);
 
             return ApiResponse.<String>builder()
                     .success(true)
@@ -317,9 +345,31 @@ public class GroupTripService {
                         .build();
             }
 
-            // Update member status
-            member.setStatus(approve ? GroupTripMember.MemberStatus.ACCEPTED : GroupTripMember.MemberStatus.DECLINED);
-            groupTripMemberRepository.save(member);
+            if (approve) {
+                // Claim the seat first; the conditional UPDATE is what keeps concurrent approvals from overfilling
+                if (groupTripRepository.reserveSeat(groupTripId) == 0) {
+                    return ApiResponse.<String>builder()
+                            .success(false)
+                            .error("This group trip is full")
+                            .build();
+                }
+                if (groupTripMemberRepository.transitionStatus(member.getId(),
+                        GroupTripMember.MemberStatus.REQUESTED, GroupTripMember.MemberStatus.ACCEPTED) == 0) {
+                    // Another tab processed this request in the meantime; give the seat back
+                    groupTripRepository.releaseSeat(groupTripId);
+                    return ApiResponse.<String>builder()
+                            .success(false)
+                            .error("This request has already been processed")
+                            .build();
+                }
+            } else if (groupTripMemberRepository.transitionStatus(member.getId(),
+                    GroupTripMember.MemberStatus.REQUESTED, GroupTripMember.MemberStatus.DECLINED) == 0) {
+                return ApiResponse.<String>builder()
+                        .success(false)
+                        .error("This request has already been processed")
+                        .build();
+            }
+            groupTripAccessCache.invalidate(groupTripId, memberId);
 
             String message = approve ? "Member approved successfully" : "Member request rejected";
             return ApiResponse.<String>builder()
@@ -359,73 +409,27 @@ public class GroupTripService {
         return groupTripRepository.count();
     }
 
-    private GroupTripResponse convertToResponse(GroupTrip groupTrip, UUID currentUserId) {
+    // Destination, start date and budget are copied onto the group trip so discovery can filter on indexed columns.
+    // Every create path must call this before the first save.
+    public void copyPlanSummary(GroupTrip groupTrip, String tripPlanJson) {
+        if (tripPlanJson == null || tripPlanJson.isBlank()) {
+            return;
+        }
         try {
-            // Get creator name
-            String creatorName = userRepository.findById(groupTrip.getCreatedByUserId())
-                    .map(User::getUsername)
-                    .orElse("Unknown User");
-
-            // Get trip plan data
-            Object tripPlan = null;
-            if (groupTrip.getTripPlanId() != null) {
-                try {
-                    Optional<TripPlan> tripPlanEntity = tripPlanRepository.findById(groupTrip.getTripPlanId());
-                    if (tripPlanEntity.isPresent()) {
-                        String tripPlanJson = tripPlanEntity.get().getTripPlan();
-                        if (tripPlanJson != null && !tripPlanJson.trim().isEmpty()) {
-                            tripPlan = objectMapper.readValue(tripPlanJson, Object.class);
-                        }
-                    }
-                } catch (Exception e) {
-                    // If parsing fails, try the old way as fallback
-                    if (groupTrip.getTripPlan() != null && !groupTrip.getTripPlan().trim().isEmpty()) {
-                        try {
-                            tripPlan = objectMapper.readValue(groupTrip.getTripPlan(), Object.class);
-                        } catch (Exception e2) {
-                            tripPlan = groupTrip.getTripPlan();
-                        }
-                    }
-                }
+            TripPlanDocument plan = TripPlanJson.readDocument(tripPlanJson);
+            groupTrip.setDestination(plan.resolveDestination());
+            groupTrip.setBudget(plan.resolveBudget());
+            String startDate = plan.resolveStartDate();
+            if (startDate != null && !startDate.isBlank()) {
+                groupTrip.setStartDate(LocalDate.parse(startDate.trim()));
             }
-
-            // Check if current user has requested to join
-            Optional<GroupTripMember> memberRequest = groupTripMemberRepository
-                    .findByGroupTripIdAndUserId(groupTrip.getId(), currentUserId);
-
-            // Calculate current members dynamically: 1 (creator) + accepted members
-            long acceptedMembersCount = groupTripMemberRepository.countAcceptedMembersByGroupTripId(groupTrip.getId());
-            int currentMembers = 1 + (int) acceptedMembersCount; // 1 for creator + accepted members
-
-            return GroupTripResponse.builder()
-                    .id(groupTrip.getId())
-                    .groupName(groupTrip.getGroupName())
-                    .description(groupTrip.getDescription())
-                    .maxPeople(groupTrip.getMaxPeople())
-                    .meetingPoint(groupTrip.getMeetingPoint())
-                    .additionalRequirements(groupTrip.getAdditionalRequirements())
-                    .createdByUserId(groupTrip.getCreatedByUserId())
-                    .creatorName(creatorName)
-                    .tripPlanId(groupTrip.getTripPlanId())
-                    .tripPlan(tripPlan)
-                    .status(groupTrip.getStatus())
-                    .currentMembers(currentMembers)
-                    .createdAt(groupTrip.getCreatedAt())
-                    .updatedAt(groupTrip.getUpdatedAt())
-                    .isCreator(groupTrip.getCreatedByUserId().equals(currentUserId))
-                    .hasRequested(memberRequest.isPresent())
-                    .memberStatus(memberRequest.map(m -> m.getStatus().toString()).orElse(null))
-                    .userJoinStatus(groupTrip.getCreatedByUserId().equals(currentUserId) ? "CREATOR" : 
-                                   memberRequest.map(m -> m.getStatus().toString()).orElse("NOT_JOINED"))
-                    .build();
-
         } catch (Exception e) {
-            throw new RuntimeException("Failed to convert group trip to response", e);
+            System.out.println("⚠️ Could not read plan summary for group trip: " + e.getMessage());
         }
     }
 
     private GroupTripResponse convertToDetailedResponse(GroupTrip groupTrip, UUID currentUserId) {
-        GroupTripResponse response = convertToResponse(groupTrip, currentUserId);
+        GroupTripResponse response = groupTripResponseAssembler.assemble(groupTrip, currentUserId);
         
         // Add member details if user is the creator
         if (groupTrip.getCreatedByUserId().equals(currentUserId)) {
@@ -612,15 +616,8 @@ public class GroupTripService {
         }
     }
 
+    // Creator or accepted member; usually answered from the per-node cache without a query
     private boolean hasAccessToGroupTrip(UUID groupTripId, UUID userId) {
-        // Check if user is the creator
-        Optional<GroupTrip> groupTripOpt = groupTripRepository.findById(groupTripId);
-        if (groupTripOpt.isPresent() && groupTripOpt.get().getCreatedByUserId().equals(userId)) {
-            return true;
-        }
-
-        // Check if user is an accepted member
-        Optional<GroupTripMember> memberOpt = groupTripMemberRepository.findByGroupTripIdAndUserId(groupTripId, userId);
-        return memberOpt.isPresent() && memberOpt.get().getStatus() == GroupTripMember.MemberStatus.ACCEPTED;
+        return groupTripAccessCache.hasAccess(groupTripId, userId);
     }
 }
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntConsumer;
+
+/**
+ * Database leases for @Scheduled jobs, so each run happens on one backend replica only (ShedLock-style).
+ * A lease is taken by a conditional UPDATE on scheduled_job_lease (or the INSERT of its first row), which
+ * only one node can win. lockAtMostFor bounds how long a crashed node blocks the job; lockAtLeastFor keeps
+ * the lease after a fast run so replicas whose timers fire a little later skip it.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE scheduled_job_lease SET locked_until = ?, locked_at = ?, locked_by = ? " +
+            "WHERE job_name = ? AND locked_until <= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduled_job_lease (job_name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)";
+
+    private static final String RELEASE_SQL =
+            "UPDATE scheduled_job_lease SET locked_until = ? WHERE job_name = ? AND locked_by = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${scheduling.node-id:}")
+    private String configuredNodeId = "";
+
+    private String nodeId;
+
+    /**
+     * Take the lease if it is free or expired. Runs in its own transaction so the lease is visible
+     * to other nodes immediately, even when called from inside a transactional job.
+     */
+    public boolean tryAcquire(String jobName, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(lockAtMostFor);
+
+        Boolean acquired = newTransaction().execute(status -> {
+            int updated = jdbcTemplate.update(ACQUIRE_SQL, lockedUntil, now, getNodeId(), jobName, now);
+            if (updated > 0) {
+                return true;
+            }
+            try {
+                return jdbcTemplate.update(INSERT_SQL, jobName, lockedUntil, now, getNodeId()) > 0;
+            } catch (DuplicateKeyException e) {
+                // Row exists and is held by someone else
+                status.setRollbackOnly();
+                return false;
+            }
+        });
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * Give the lease back, but keep it until lockedAt + lockAtLeastFor.
+     */
+    public void release(String jobName, LocalDateTime lockedAt, Duration lockAtLeastFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = lockedAt.plus(lockAtLeastFor);
+        LocalDateTime lockedUntil = earliest.isAfter(now) ? earliest : now;
+
+        newTransaction().executeWithoutResult(status ->
+                jdbcTemplate.update(RELEASE_SQL, lockedUntil, jobName, getNodeId()));
+    }
+
+    /**
+     * Run the job if this node gets the lease. Returns false if another node holds it.
+     */
+    public boolean runExclusive(String jobName, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable job) {
+        LocalDateTime lockedAt = LocalDateTime.now();
+        if (!tryAcquire(jobName, lockAtMostFor)) {
+            System.out.println("⏭️ Skipping " + jobName + " - lease held by another node");
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            release(jobName, lockedAt, lockAtLeastFor);
+        }
+    }
+
+    /**
+     * Split a job into hash partitions, each with its own lease ("name#0", "name#1", ...), and run every
+     * partition this node can lease. Nodes start at different partitions, so replicas firing at the same
+     * time each take a share of the work in parallel. Returns the number of partitions run here.
+     */
+    public int runPartitioned(String jobName, int partitions, Duration lockAtMostFor, Duration lockAtLeastFor,
+                              IntConsumer partitionJob) {
+        if (partitions <= 1) {
+            return runExclusive(jobName, lockAtMostFor, lockAtLeastFor, () -> partitionJob.accept(0)) ? 1 : 0;
+        }
+
+        int start = Math.floorMod(getNodeId().hashCode(), partitions);
+        int ran = 0;
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            if (runExclusive(jobName + "#" + partition, lockAtMostFor, lockAtLeastFor, () -> partitionJob.accept(partition))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    public String getNodeId() {
+        if (nodeId == null) {
+            // e.g. "12345@backend-7f9c" - unique per JVM across replicas
+            nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                    ? configuredNodeId
+                    : ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return nodeId;
+    }
+
+    /**
+     * True if the partition owns this key. Partition on something stable (destination, trip id)
+     * so the same key always lands in the same partition.
+     */
+    public static boolean inPartition(Object key, int partition, int partitions) {
+        return partitions <= 1 || Math.floorMod(key == null ? 0 : key.hashCode(), partitions) == partition;
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationOutboxRepository;
+import com.example.demo.entity.NotificationOutbox;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed notifications from notification_outbox to users over STOMP.
+ * Producers only insert rows; this dispatcher claims due rows in batches, sends them, and marks them
+ * delivered. A failed send is retried with exponential backoff until maxAttempts, then parked as FAILED.
+ * It runs on its own thread, so a slow broker never holds up the @Scheduled jobs or the producers.
+ * With Postgres fan-out enabled, sending means pg_notify inside the claim transaction, and every node's
+ * listener pushes the message to its own sessions once the batch commits.
+ */
+@Service
+public class NotificationOutboxDispatcher {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PgNotifyFanout fanout;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notification.outbox.poll-ms:500}")
+    private long pollMs = 500;
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${notification.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs = 1000;
+
+    @Value("${notification.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs = 300000;
+
+    @Value("${notification.outbox.retention-hours:24}")
+    private long retentionHours = 24;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime lastPurgeAt = LocalDateTime.MIN;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            System.out.println("⏸️ Notification outbox dispatcher disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        try {
+            // Keep draining while batches come back full, then wait for the next tick
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+            } while (claimed == batchSize);
+            purgeDelivered();
+        } catch (Exception e) {
+            System.err.println("❌ Notification outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Claim and send one batch of due messages. Returns the number of rows claimed.
+     * Rows stay locked until the batch commits, so another replica never sends the same message.
+     */
+    public int dispatchBatch() {
+        Integer claimed = new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> batch = outboxRepository.claimDueBatch(now, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> sent = new ArrayList<>();
+            List<NotificationOutbox> retry = new ArrayList<>();
+            for (NotificationOutbox message : batch) {
+                try {
+                    Map<String, Object> payload = objectMapper.readValue(message.getPayload(), PAYLOAD_TYPE);
+                    if (fanout.isEnabled()) {
+                        String eventId = PgNotifyFanout.outboxEventId(message.getId());
+                        fanout.publishToUser(eventId, message.getUserId(), payload, eventId);
+                    } else {
+                        messagingTemplate.convertAndSendToUser(message.getUserId().toString(), "/queue/notifications", payload);
+                    }
+                    sent.add(message.getId());
+                } catch (Exception e) {
+                    scheduleRetry(message, e, now);
+                    retry.add(message);
+                }
+            }
+
+            if (!sent.isEmpty()) {
+                outboxRepository.markDelivered(sent, now);
+            }
+            if (!retry.isEmpty()) {
+                outboxRepository.saveAll(retry);
+            }
+            delivered.addAndGet(sent.size());
+            return batch.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", outboxRepository.countByStatus(NotificationOutbox.Status.PENDING));
+        stats.put("failed", outboxRepository.countByStatus(NotificationOutbox.Status.FAILED));
+        stats.put("deliveredTotal", delivered.get());
+        stats.put("retriedTotal", retried.get());
+        stats.put("failedTotal", failed.get());
+        return stats;
+    }
+
+    // 1s, 2s, 4s, ... capped at backoffMaxMs
+    Duration backoff(int attempts) {
+        long delay = backoffBaseMs << Math.min(Math.max(attempts - 1, 0), 30);
+        return Duration.ofMillis(Math.min(delay, backoffMaxMs));
+    }
+
+    private void scheduleRetry(NotificationOutbox message, Exception error, LocalDateTime now) {
+        message.setAttempts(message.getAttempts() + 1);
+        String reason = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        message.setLastError(reason.length() > 500 ? reason.substring(0, 500) : reason);
+        if (message.getAttempts() >= maxAttempts) {
+            message.setStatus(NotificationOutbox.Status.FAILED);
+            failed.incrementAndGet();
+            System.err.println("❌ Giving up on notification " + message.getNotificationId() + " after "
+                    + message.getAttempts() + " attempts: " + reason);
+        } else {
+            message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+            retried.incrementAndGet();
+        }
+    }
+
+    // Delivered rows are only kept for troubleshooting; drop them once an hour
+    private void purgeDelivered() {
+        LocalDateTime now = LocalDateTime.now();
+        if (lastPurgeAt.plusHours(1).isAfter(now)) {
+            return;
+        }
+        lastPurgeAt = now;
+        Integer purged = new TransactionTemplate(transactionManager).execute(status ->
+                outboxRepository.deleteDeliveredBefore(now.minusHours(retentionHours)));
+        if (purged != null && purged > 0) {
+            System.out.println("🧹 Purged " + purged + " delivered notification outbox rows");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of the notifications table (created by SchemaMigrationService,
+ * 2025_08_notifications_partitioned) in shape: the current month and monthsAhead upcoming months always exist,
+ * and months older than retentionMonths are detached and dropped. Dropping a partition removes a month of
+ * notifications without the table bloat and long locks of a bulk DELETE. Rows that landed in the default
+ * partition for a month that had no partition yet are moved into it when the month is created.
+ * Runs at startup and daily under a job lease; does nothing if notifications is not partitioned (e.g. H2).
+ */
+@Service
+public class NotificationPartitionService {
+
+    private static final String PARENT = "notifications";
+    private static final Pattern PARTITION_NAME = Pattern.compile("notifications_p(\\d{4})_(\\d{2})");
+    private static final String DEFAULT_PARTITION = "notifications_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notification.partitions.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notification.partitions.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @Value("${notification.retention-months:6}")
+    private int retentionMonths = 6;
+
+    private final Clock clock;
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public NotificationPartitionService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    NotificationPartitionService(Clock clock) {
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduledMaintenance();
+    }
+
+    @Scheduled(cron = "${notification.partitions.cron:0 15 3 * * *}")
+    public void scheduledMaintenance() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jobLeaseService.runExclusive("notification-partitions", Duration.ofMinutes(30), Duration.ofMinutes(5), this::maintain);
+        } catch (Exception e) {
+            System.err.println("❌ Notification partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create missing upcoming partitions and drop expired ones. Returns what was changed.
+     */
+    public Map<String, Object> maintain() {
+        if (!isPartitioned()) {
+            System.out.println("⏭️ notifications is not partitioned - skipping partition maintenance");
+            return Map.of();
+        }
+
+        YearMonth current = YearMonth.now(clock);
+        List<String> existing = listPartitions();
+
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (!existing.contains(name)) {
+                createPartition(month, existing.contains(DEFAULT_PARTITION));
+                created.add(name);
+            }
+        }
+
+        // Keep the current month plus retentionMonths full months before it
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        List<String> dropped = new ArrayList<>();
+        for (String name : existing) {
+            YearMonth month = monthOf(name);
+            if (month != null && month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("ALTER TABLE public." + PARENT + " DETACH PARTITION public." + name);
+                jdbcTemplate.execute("DROP TABLE public." + name);
+                dropped.add(name);
+            }
+        }
+
+        if (!created.isEmpty() || !dropped.isEmpty()) {
+            System.out.println("🗂️ Notification partitions: created " + created + ", dropped " + dropped);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("created", created);
+        result.put("dropped", dropped);
+        result.put("oldestKept", oldestKept.toString());
+        lastRun = result;
+        return result;
+    }
+
+    /**
+     * Create one month's partition. Postgres refuses to create it while the default partition holds rows for that
+     * month, so in that case the default is detached, the month created, its rows moved over and the default
+     * re-attached, all in one transaction.
+     */
+    private void createPartition(YearMonth month, boolean hasDefault) {
+        String name = partitionName(month);
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+        String createSql = "CREATE TABLE IF NOT EXISTS public." + name + " PARTITION OF public." + PARENT +
+                " FOR VALUES FROM (" + from + ") TO (" + to + ")";
+        String inRange = " WHERE created_at >= " + from + " AND created_at < " + to;
+
+        boolean stranded = hasDefault && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM public." + DEFAULT_PARTITION + inRange + ")", Boolean.class));
+        if (!stranded) {
+            jdbcTemplate.execute(createSql);
+            return;
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE public." + PARENT + " DETACH PARTITION public." + DEFAULT_PARTITION);
+            jdbcTemplate.execute(createSql);
+            int moved = jdbcTemplate.update("INSERT INTO public." + PARENT +
+                    " SELECT * FROM public." + DEFAULT_PARTITION + inRange);
+            jdbcTemplate.update("DELETE FROM public." + DEFAULT_PARTITION + inRange);
+            jdbcTemplate.execute("ALTER TABLE public." + PARENT + " ATTACH PARTITION public." + DEFAULT_PARTITION + " DEFAULT");
+            System.out.println("🗂️ Moved " + moved + " notifications from " + DEFAULT_PARTITION + " into " + name);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(lastRun);
+        stats.put("enabled", enabled);
+        stats.put("monthsAhead", monthsAhead);
+        stats.put("retentionMonths", retentionMonths);
+        return stats;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "notifications_p" + month.format(SUFFIX);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('public." + PARENT + "')",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('public." + PARENT + "')",
+                String.class);
+    }
+}
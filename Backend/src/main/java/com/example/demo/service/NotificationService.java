@@ -1,19 +1,35 @@
 package com.example.demo.service;
 
+import com.example.demo.Repository.NotificationOutboxRepository;
 import com.example.demo.Repository.NotificationRepository;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.WeatherAlertDigestItem;
 import com.example.demo.entity.Notification;
+import com.example.demo.entity.NotificationOutbox;
+import com.example.demo.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
 
 @Service
 public class NotificationService {
@@ -22,77 +38,187 @@ public class NotificationService {
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationOutboxRepository outboxRepository;
 
-    @Transactional(readOnly = false)
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notification.bulk.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
+
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notifications (id, user_id, title, message, type, \"isread\", created_at, trip_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO notification_outbox (notification_id, user_id, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    /**
+     * Store a weather alert and queue its WebSocket push. The notification and its outbox row commit
+     * together in their own transaction; NotificationOutboxDispatcher pushes it afterwards, so the caller
+     * never waits on the broker. Nothing is read back, so the cost does not grow with the user's history.
+     */
     public void sendWeatherAlert(UUID userId, String destination, String weatherInfo, Long tripId) {
+        Notification notification = Notification.builder()
+                .userId(userId)
+                .title("⚠️ Weather Alert for " + destination)
+                .message("Adverse weather conditions detected for your upcoming trip to " + destination + ". " + weatherInfo)
+                .type(Notification.NotificationType.WEATHER_ALERT)
+                .tripId(tripId)
+                .createdAt(LocalDateTime.now())
+                .isRead(false)
+                .build();
+
+        Notification saved;
         try {
-            System.out.println("🔍 Starting notification save process for user: " + userId);
-            
-            // Save notification to database
-            Notification notification = Notification.builder()
-                    .userId(userId)
-                    .title("⚠️ Weather Alert for " + destination)
-                    .message("Adverse weather conditions detected for your upcoming trip to " + destination + ". " + weatherInfo)
-                    .type(Notification.NotificationType.WEATHER_ALERT)
-                    .tripId(tripId)
-                    .createdAt(LocalDateTime.now())
-                    .isRead(false)
-                    .build();
+            saved = newTransaction().execute(status -> {
+                Notification stored = notificationRepository.save(notification);
+                outboxRepository.save(NotificationOutbox.builder()
+                        .notificationId(stored.getId())
+                        .userId(userId)
+                        .payload(toJson(toPayload(stored)))
+                        .nextAttemptAt(stored.getCreatedAt())
+                        .createdAt(stored.getCreatedAt())
+                        .build());
+                return stored;
+            });
+        } catch (Exception e) {
+            System.err.println("❌ Error saving notification: " + e.getMessage());
+            throw new RuntimeException("Failed to save notification", e);
+        }
+        unreadCounter.increment(userId, 1);
+        System.out.println("✅ Weather alert " + saved.getId() + " queued for user " + userId + " (" + destination + ")");
+    }
 
-            System.out.println("🔍 Notification object created: " + notification);
-            
-            Notification saved = notificationRepository.save(notification);
-            notificationRepository.flush(); // Force immediate database write
-            System.out.println("✅ Notification saved successfully with ID: " + saved.getId());
-            System.out.println("🔍 Saved notification details: " + saved);
-            
-            // Verify the notification was actually written to the database
-            System.out.println("🔍 Verifying notification in database...");
-            List<Notification> allUserNotifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-            System.out.println("📋 Total notifications for user " + userId + ": " + allUserNotifications.size());
-            
-            // Check if our notification exists
-            boolean found = allUserNotifications.stream()
-                    .anyMatch(n -> n.getId().equals(saved.getId()));
-            System.out.println("✅ Notification exists in database: " + found);
-            
-            if (found) {
-                System.out.println("🎉 SUCCESS: Notification was successfully written to database!");
-                System.out.println("📄 Notification ID: " + saved.getId());
-                System.out.println("👤 User ID: " + saved.getUserId());
-                System.out.println("📝 Title: " + saved.getTitle());
-                System.out.println("📅 Created At: " + saved.getCreatedAt());
-                System.out.println("🔄 Is Read: " + saved.isRead());
-            } else {
-                System.err.println("❌ FAILED: Notification was NOT found in database after save!");
+    /**
+     * Deliver one digest notification per user for all alerts collected during a weather scan.
+     * The digests and their outbox rows are written as two JDBC batch inserts in one transaction;
+     * the outbox dispatcher pushes one message per user after commit. Returns the number of digests written.
+     */
+    public int sendWeatherAlertDigests(Map<UUID, List<WeatherAlertDigestItem>> alertsByUser) {
+        if (alertsByUser.isEmpty()) {
+            return 0;
+        }
+
+        List<Notification> digests = new ArrayList<>();
+        List<String> payloads = new ArrayList<>();
+        for (Map.Entry<UUID, List<WeatherAlertDigestItem>> entry : alertsByUser.entrySet()) {
+            List<WeatherAlertDigestItem> items = entry.getValue();
+            if (items.isEmpty()) {
+                continue;
             }
+            Notification digest = buildDigest(entry.getKey(), items);
+            Map<String, Object> payload = toPayload(digest);
+            payload.put("tripIds", items.stream().map(WeatherAlertDigestItem::getTripId).toList());
+            digests.add(digest);
+            payloads.add(toJson(payload));
+        }
 
-            // Send real-time notification via WebSocket
-            Map<String, Object> notificationData = new HashMap<>();
-            notificationData.put("id", saved.getId());
-            notificationData.put("title", saved.getTitle());
-            notificationData.put("message", saved.getMessage());
-            notificationData.put("type", saved.getType());
-            notificationData.put("timestamp", saved.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            notificationData.put("tripId", saved.getTripId());
-            notificationData.put("isRead", false);
-
-            // Send to specific user
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(), 
-                    "/queue/notifications", 
-                    notificationData
-            );
-
-            System.out.println("📱 Real-time notification sent to user: " + userId);
-            System.out.println("🌩️ Weather alert: " + destination);
-            
+        try {
+            newTransaction().executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_NOTIFICATION_SQL, digests, digests.size(), (ps, notification) -> {
+                    ps.setObject(1, notification.getId());
+                    ps.setObject(2, notification.getUserId());
+                    ps.setString(3, notification.getTitle());
+                    ps.setString(4, notification.getMessage());
+                    ps.setString(5, notification.getType().name());
+                    ps.setBoolean(6, notification.isRead());
+                    ps.setObject(7, notification.getCreatedAt());
+                    ps.setObject(8, notification.getTripId());
+                });
+                List<Integer> rows = IntStream.range(0, digests.size()).boxed().toList();
+                jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, rows, rows.size(), (ps, i) -> {
+                    Notification digest = digests.get(i);
+                    ps.setObject(1, digest.getId());
+                    ps.setObject(2, digest.getUserId());
+                    ps.setString(3, payloads.get(i));
+                    ps.setObject(4, digest.getCreatedAt());
+                    ps.setObject(5, digest.getCreatedAt());
+                });
+            });
         } catch (Exception e) {
-            System.err.println("❌ Error saving notification: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save notification", e);
+            System.err.println("❌ Error saving weather alert digests: " + e.getMessage());
+            throw new RuntimeException("Failed to save weather alert digests: " + e.getMessage());
         }
+        digests.forEach(digest -> unreadCounter.increment(digest.getUserId(), 1));
+        System.out.println("✅ Saved and queued " + digests.size() + " weather alert digests in one batch");
+        return digests.size();
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize notification payload: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toPayload(Notification notification) {
+        Map<String, Object> notificationData = new HashMap<>();
+        notificationData.put("id", notification.getId());
+        notificationData.put("title", notification.getTitle());
+        notificationData.put("message", notification.getMessage());
+        notificationData.put("type", notification.getType());
+        notificationData.put("timestamp", notification.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        notificationData.put("tripId", notification.getTripId());
+        notificationData.put("isRead", notification.isRead());
+        return notificationData;
+    }
+
+    // A single alert reads exactly like sendWeatherAlert; several become one list, without a single trip id
+    private Notification buildDigest(UUID userId, List<WeatherAlertDigestItem> items) {
+        String title;
+        String message;
+        Long tripId;
+        if (items.size() == 1) {
+            WeatherAlertDigestItem item = items.get(0);
+            title = "⚠️ Weather Alert for " + item.getDestination();
+            message = "Adverse weather conditions detected for your upcoming trip to " + item.getDestination() + ". " + item.getWeatherInfo();
+            tripId = item.getTripId();
+        } else {
+            StringBuilder body = new StringBuilder("Adverse weather conditions detected for " + items.size() + " of your upcoming trips.");
+            for (WeatherAlertDigestItem item : items) {
+                body.append("\n\n• ").append(item.getDestination()).append(": ").append(item.getWeatherInfo());
+            }
+            title = "⚠️ Weather Alerts for " + items.size() + " upcoming trips";
+            message = body.toString();
+            tripId = null;
+        }
+        return Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .title(title)
+                .message(message)
+                .type(Notification.NotificationType.WEATHER_ALERT)
+                .tripId(tripId)
+                .createdAt(LocalDateTime.now())
+                .isRead(false)
+                .build();
+    }
+
+    /**
+     * One keyset page of the user's inbox, newest first. Pass the returned nextCursor back to continue.
+     */
+    public CursorPage<Notification> getNotificationPage(UUID userId, KeysetCursor<UUID> cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> rows = cursor == null
+                ? notificationRepository.findPageByUserId(userId, pageable)
+                : notificationRepository.findPageByUserIdBeforeCursor(userId, cursor.getCreatedAt(), cursor.getId(), pageable);
+
+        return CursorPage.fromOverfetch(rows, pageSize,
+                notification -> KeysetCursor.of(notification.getCreatedAt(), notification.getId()).encode());
     }
 
     public List<Notification> getUserNotifications(UUID userId) {
@@ -103,30 +229,61 @@ public class NotificationService {
         return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
     }
 
+    // Served from NotificationUnreadCounter; only the first read for a user hits the database
     public long getUnreadCount(UUID userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCounter.get(userId);
     }
 
     public void markAsRead(UUID notificationId) {
         notificationRepository.findById(notificationId).ifPresent(notification -> {
+            boolean wasUnread = !notification.isRead();
             notification.setRead(true);
             notificationRepository.save(notification);
+            if (wasUnread) {
+                unreadCounter.decrement(notification.getUserId(), 1);
+            }
         });
     }
 
-    public void markAllAsRead(UUID userId) {
-        List<Notification> unread = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
-        unread.forEach(notification -> notification.setRead(true));
-        notificationRepository.saveAll(unread);
+    /**
+     * Mark every unread notification of the user as read with bulk UPDATEs of at most bulkChunkSize rows,
+     * each committed on its own. Returns the number of notifications changed.
+     */
+    public int markAllAsRead(UUID userId) {
+        int updated = runInChunks(() -> notificationRepository.markReadChunk(userId, bulkChunkSize));
+        unreadCounter.decrement(userId, updated);
+        System.out.println("✅ Marked " + updated + " notifications as read for user " + userId);
+        return updated;
     }
 
     public void deleteNotification(UUID notificationId) {
+        notificationRepository.findById(notificationId)
+                .filter(notification -> !notification.isRead())
+                .ifPresent(notification -> unreadCounter.decrement(notification.getUserId(), 1));
         notificationRepository.deleteById(notificationId);
     }
 
-    public void clearAllNotifications(UUID userId) {
-        List<Notification> userNotifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        notificationRepository.deleteAll(userNotifications);
+    /**
+     * Delete all of the user's notifications with bulk DELETEs of at most bulkChunkSize rows.
+     * Returns the number of notifications removed.
+     */
+    public int clearAllNotifications(UUID userId) {
+        int deleted = runInChunks(() -> notificationRepository.deleteChunk(userId, bulkChunkSize));
+        unreadCounter.reset(userId);
+        System.out.println("🗑️ Cleared " + deleted + " notifications for user " + userId);
+        return deleted;
+    }
+
+    // Repeat a chunked bulk statement, one short transaction per chunk, until a chunk comes back short
+    private int runInChunks(IntSupplier chunk) {
+        int total = 0;
+        int affected;
+        do {
+            Integer result = newTransaction().execute(status -> chunk.getAsInt());
+            affected = result == null ? 0 : result;
+            total += affected;
+        } while (affected >= bulkChunkSize);
+        return total;
     }
 
     // Test method to verify notification saving
@@ -156,4 +313,10 @@ public class NotificationService {
             e.printStackTrace();
         }
     }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory unread badge count per user, so polling the badge does not run COUNT(*) on every request.
+ * The first read loads the count from the database; after that the notification write, read and delete
+ * paths adjust it in place. Counts only move for users already cached; others load fresh on their next read.
+ * Each replica keeps its own counts, and a periodic reconcile re-reads them from the database in one grouped
+ * query, which also fixes drift from writes on other nodes. Users who stop polling are dropped.
+ */
+@Component
+public class NotificationUnreadCounter {
+
+    private static final int RECONCILE_BATCH = 500;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notification.unread.idle-minutes:30}")
+    private long idleMinutes = 30;
+
+    @Value("${notification.unread.max-users:50000}")
+    private int maxUsers = 50000;
+
+    private final Clock clock;
+    private final Map<UUID, Entry> counts = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public NotificationUnreadCounter() {
+        this(Clock.systemUTC());
+    }
+
+    NotificationUnreadCounter(Clock clock) {
+        this.clock = clock;
+    }
+
+    public long get(UUID userId) {
+        Entry entry = counts.get(userId);
+        if (entry != null) {
+            entry.lastReadAt = clock.instant();
+            hits.incrementAndGet();
+            return entry.unread.get();
+        }
+        loads.incrementAndGet();
+        long unread = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        if (counts.size() < maxUsers) {
+            counts.putIfAbsent(userId, new Entry(unread, clock.instant()));
+        }
+        return unread;
+    }
+
+    public void increment(UUID userId, long delta) {
+        Entry entry = counts.get(userId);
+        if (entry != null) {
+            entry.unread.updateAndGet(current -> Math.max(0, current + delta));
+        }
+    }
+
+    public void decrement(UUID userId, long delta) {
+        increment(userId, -delta);
+    }
+
+    public void reset(UUID userId) {
+        Entry entry = counts.get(userId);
+        if (entry != null) {
+            entry.unread.set(0);
+        }
+    }
+
+    /**
+     * Drop idle users, then overwrite the remaining counts with the database's view.
+     */
+    @Scheduled(fixedDelayString = "${notification.unread.reconcile-ms:300000}")
+    public void reconcile() {
+        Instant idleBefore = clock.instant().minus(Duration.ofMinutes(idleMinutes));
+        counts.entrySet().removeIf(e -> e.getValue().lastReadAt.isBefore(idleBefore));
+
+        List<UUID> users = new ArrayList<>(counts.keySet());
+        int corrected = 0;
+        for (int from = 0; from < users.size(); from += RECONCILE_BATCH) {
+            List<UUID> batch = users.subList(from, Math.min(from + RECONCILE_BATCH, users.size()));
+            Map<UUID, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(batch)) {
+                actual.put((UUID) row[0], ((Number) row[1]).longValue());
+            }
+            for (UUID userId : batch) {
+                Entry entry = counts.get(userId);
+                long unread = actual.getOrDefault(userId, 0L);
+                if (entry != null && entry.unread.getAndSet(unread) != unread) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            System.out.println("🔄 Reconciled unread counts: " + corrected + " of " + users.size() + " users corrected");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", counts.size());
+        stats.put("hits", hits.get());
+        stats.put("loads", loads.get());
+        return stats;
+    }
+
+    private static class Entry {
+        private final AtomicLong unread;
+        private volatile Instant lastReadAt;
+
+        Entry(long unread, Instant lastReadAt) {
+            this.unread = new AtomicLong(unread);
+            this.lastReadAt = lastReadAt;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationOutboxRepository;
+import com.example.demo.entity.NotificationOutbox;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cross-node WebSocket fan-out over Postgres LISTEN/NOTIFY, for deployments without an external STOMP broker.
+ * Producers publish an event with pg_notify inside their transaction, so it is only sent if the write commits.
+ * Every node keeps one dedicated LISTEN connection (outside the pool) and forwards each event to its own
+ * STOMP sessions; sessions on other nodes are reached by those nodes' listeners.
+ *
+ * Only user notifications from the outbox are fanned out.
+ *
+ * NOTIFY payloads are capped at 8000 bytes, so larger events carry a reference to their outbox row that the
+ * listener loads from the database. Notifications are not queued while a listener is disconnected; after
+ * reconnecting it replays outbox deliveries committed during the gap, skipping events it has already forwarded.
+ */
+@Service
+public class PgNotifyFanout {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    private static final int RECENT_IDS = 10000;
+    private static final long REPLAY_SLACK_SECONDS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Value("${websocket.pg-fanout.enabled:false}")
+    private boolean enabled;
+
+    @Value("${websocket.pg-fanout.channel:wanderwise_events}")
+    private String channel = "wanderwise_events";
+
+    // Below Postgres' 8000-byte NOTIFY limit, leaving room for the envelope
+    @Value("${websocket.pg-fanout.max-payload-bytes:7000}")
+    private int maxPayloadBytes = 7000;
+
+    @Value("${websocket.pg-fanout.poll-ms:500}")
+    private int pollMs = 500;
+
+    @Value("${websocket.pg-fanout.reconnect-ms:5000}")
+    private long reconnectMs = 5000;
+
+    @Value("${websocket.pg-fanout.replay-window-minutes:10}")
+    private long replayWindowMinutes = 10;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String datasourcePassword;
+
+    private final Set<String> recentIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_IDS;
+        }
+    });
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong publishedByRef = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong latencyTotalMs = new AtomicLong();
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    private volatile LocalDateTime lastListeningAt;
+    private volatile boolean connected;
+    private volatile boolean running;
+    private Thread listener;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "pg-fanout-listener");
+        listener.setDaemon(true);
+        listener.start();
+        System.out.println("📡 Postgres LISTEN/NOTIFY fan-out enabled on channel " + channel);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publish a message for /user/{userId}/queue/notifications on every node.
+     * ref is loaded by the listeners instead when the payload is too large for NOTIFY.
+     */
+    public void publishToUser(String eventId, UUID userId, Map<String, Object> payload, String ref) {
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("id", eventId);
+        envelope.put("target", userId.toString());
+        envelope.put("sentAt", System.currentTimeMillis());
+        envelope.put("payload", payload);
+
+        String json = toJson(envelope);
+        if (json.getBytes(StandardCharsets.UTF_8).length > maxPayloadBytes) {
+            if (ref == null) {
+                throw new IllegalArgumentException("Event " + eventId + " exceeds " + maxPayloadBytes + " bytes and has no ref");
+            }
+            envelope.remove("payload");
+            envelope.put("ref", ref);
+            json = toJson(envelope);
+            publishedByRef.incrementAndGet();
+        }
+        // Delivered to listeners when the surrounding transaction commits
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, json);
+        published.incrementAndGet();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl, datasourceUsername, datasourcePassword)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                connected = true;
+                replayGap();
+                lastListeningAt = LocalDateTime.now();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                    lastListeningAt = LocalDateTime.now();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    System.err.println("❌ Fan-out listener lost its connection, reconnecting in " + reconnectMs + "ms: " + e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                reconnects.incrementAndGet();
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forward one NOTIFY payload to this node's sessions.
+     */
+    void handle(String json) {
+        try {
+            Map<String, Object> envelope = objectMapper.readValue(json, MAP_TYPE);
+            String eventId = (String) envelope.get("id");
+            if (!markSeen(eventId)) {
+                duplicates.incrementAndGet();
+                return;
+            }
+
+            Object payload = envelope.containsKey("payload") ? envelope.get("payload") : resolve((String) envelope.get("ref"));
+            if (payload == null) {
+                System.err.println("❌ Fan-out event " + eventId + " references a missing row");
+                return;
+            }
+            forward((String) envelope.get("target"), payload);
+
+            long latency = Math.max(0, System.currentTimeMillis() - ((Number) envelope.get("sentAt")).longValue());
+            latencyTotalMs.addAndGet(latency);
+            latencyMaxMs.accumulateAndGet(latency, Math::max);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to forward fan-out event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-forward what was committed while this node was not listening. Only the last replayWindowMinutes are
+     * replayed; clients that were offline longer reload through the REST endpoints anyway.
+     */
+    void replayGap() {
+        LocalDateTime gapStart = lastListeningAt;
+        if (gapStart == null) {
+            return;
+        }
+        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(replayWindowMinutes);
+        LocalDateTime since = gapStart.minusSeconds(REPLAY_SLACK_SECONDS);
+        if (since.isBefore(windowStart)) {
+            since = windowStart;
+        }
+
+        int count = 0;
+        for (NotificationOutbox message : outboxRepository.findByStatusAndDeliveredAtAfterOrderByIdAsc(
+                NotificationOutbox.Status.DELIVERED, since)) {
+            if (markSeen(outboxEventId(message.getId()))) {
+                forward(message.getUserId().toString(), parse(message.getPayload()));
+                count++;
+            }
+        }
+        replayed.addAndGet(count);
+        if (count > 0) {
+            System.out.println("🔁 Fan-out replayed " + count + " events missed since " + since);
+        }
+    }
+
+    public static String outboxEventId(Long outboxId) {
+        return "outbox:" + outboxId;
+    }
+
+    public Map<String, Object> getStats() {
+        long forwardedCount = forwarded.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("connected", connected);
+        stats.put("published", published.get());
+        stats.put("publishedByRef", publishedByRef.get());
+        stats.put("forwarded", forwardedCount);
+        stats.put("duplicatesSkipped", duplicates.get());
+        stats.put("replayed", replayed.get());
+        stats.put("reconnects", reconnects.get());
+        stats.put("avgLatencyMs", forwardedCount == 0 ? 0 : latencyTotalMs.get() / forwardedCount);
+        stats.put("maxLatencyMs", latencyMaxMs.get());
+        return stats;
+    }
+
+    private void forward(String userId, Object payload) {
+        messagingTemplate.convertAndSendToUser(userId, "/queue/notifications", payload);
+        forwarded.incrementAndGet();
+    }
+
+    // Event ids look like outbox:<id>, so a ref is simply the event id of the stored row
+    private Object resolve(String ref) {
+        if (ref == null || !ref.startsWith("outbox:")) {
+            return null;
+        }
+        Optional<NotificationOutbox> message = outboxRepository.findById(Long.parseLong(ref.substring("outbox:".length())));
+        return message.map(m -> parse(m.getPayload())).orElse(null);
+    }
+
+    private boolean markSeen(String eventId) {
+        synchronized (recentIds) {
+            return recentIds.add(eventId);
+        }
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read fan-out payload: " + e.getMessage());
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize fan-out event: " + e.getMessage());
+        }
+    }
+}
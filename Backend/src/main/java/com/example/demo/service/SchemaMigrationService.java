@@ -0,0 +1,224 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Schema and data migrations that Hibernate's ddl-auto=update cannot express: dedupes, backfills and
+ * constraints on existing rows. database/init.sql only runs on a fresh Docker volume, so anything an
+ * existing database needs lives here. Each migration is applied once, in its own transaction under a
+ * Postgres advisory lock so replicas starting together do not race, and is recorded in schema_migration.
+ * Runs during startup, after Hibernate has updated the schema and before the web server and scheduled
+ * jobs start; a failing migration stops startup rather than leaving the app on a half-migrated schema.
+ * Statements on existing tables guard on to_regclass so a migration is harmless on a database without
+ * the table; new tables use CREATE ... IF NOT EXISTS.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SchemaMigrationService {
+
+    // Arbitrary key shared by all replicas for pg_advisory_xact_lock
+    private static final long MIGRATION_LOCK_KEY = 4_271_903_115L;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            // Checklist rows used to be inserted on every view; keep one row per (trip, activity), preferring a
+            // completed copy, so the unique key behind INSERT ... ON CONFLICT (trip_id, activity) can be added
+            new Migration("2025_07_trip_activity_unique", List.of(
+                    "DO $$\n" +
+                    "BEGIN\n" +
+                    "    IF to_regclass('public.trip_activity') IS NULL THEN\n" +
+                    "        RETURN;\n" +
+                    "    END IF;\n" +
+                    "    ALTER TABLE public.trip_activity ADD COLUMN IF NOT EXISTS day_number integer;\n" +
+                    "    ALTER TABLE public.trip_activity ADD COLUMN IF NOT EXISTS sort_order integer;\n" +
+                    "    DELETE FROM public.trip_activity a USING public.trip_activity b\n" +
+                    "    WHERE a.trip_id = b.trip_id AND a.activity = b.activity\n" +
+                    "      AND (a.completed < b.completed OR (a.completed = b.completed AND a.id > b.id));\n" +
+                    "    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_trip_activity_trip_activity') THEN\n" +
+                    "        ALTER TABLE public.trip_activity\n" +
+                    "            ADD CONSTRAINT uk_trip_activity_trip_activity UNIQUE (trip_id, activity);\n" +
+                    "    END IF;\n" +
+                    "END $$")),
+            // Digest alerts collected across weather scan partitions, see WeatherAlertDigestQueue
+            new Migration("2025_08_weather_alert_digest_queue", List.of(
+                    "CREATE TABLE IF NOT EXISTS weather_alert_pending (\n" +
+                    "    id bigserial PRIMARY KEY,\n" +
+                    "    run_id character varying(32) NOT NULL,\n" +
+                    "    user_id uuid NOT NULL,\n" +
+                    "    trip_id bigint NOT NULL,\n" +
+                    "    fingerprint character varying(255),\n" +
+                    "    destination character varying(255),\n" +
+                    "    weather_info text,\n" +
+                    "    created_at timestamp without time zone NOT NULL)",
+                    "CREATE TABLE IF NOT EXISTS weather_scan_partition_done (\n" +
+                    "    run_id character varying(32) NOT NULL,\n" +
+                    "    scan_partition integer NOT NULL,\n" +
+                    "    completed_at timestamp without time zone NOT NULL,\n" +
+                    "    PRIMARY KEY (run_id, scan_partition))")),
+            // Monthly range partitions on created_at, maintained by NotificationPartitionService. Hibernate creates
+            // notifications unpartitioned, so convert it in place: the primary key has to include the partition
+            // key, and every existing row is copied into its month (one transaction, under the migration lock)
+            new Migration("2025_08_notifications_partitioned", List.of(
+                    "DO $$\n" +
+                    "DECLARE\n" +
+                    "    first_month date := date_trunc('month', now())::date;\n" +
+                    "    m date;\n" +
+                    "BEGIN\n" +
+                    "    IF to_regclass('public.notifications') IS NULL\n" +
+                    "       OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'public.notifications'::regclass) THEN\n" +
+                    "        RETURN;\n" +
+                    "    END IF;\n" +
+                    "    ALTER TABLE public.notifications RENAME TO notifications_unpartitioned;\n" +
+                    "    ALTER INDEX IF EXISTS public.idx_notifications_user_created RENAME TO idx_notifications_unpartitioned_user_created;\n" +
+                    "    EXECUTE 'SELECT COALESCE(date_trunc(''month'', min(created_at))::date, $1) FROM public.notifications_unpartitioned'\n" +
+                    "        INTO first_month USING first_month;\n" +
+                    "\n" +
+                    "    CREATE TABLE public.notifications (\n" +
+                    "        id uuid NOT NULL,\n" +
+                    "        user_id uuid NOT NULL,\n" +
+                    "        title character varying(255) NOT NULL,\n" +
+                    "        message text,\n" +
+                    "        type character varying(255) NOT NULL,\n" +
+                    "        \"isread\" boolean NOT NULL DEFAULT false,\n" +
+                    "        created_at timestamp(6) without time zone NOT NULL,\n" +
+                    "        trip_id bigint,\n" +
+                    "        CONSTRAINT pk_notifications_id_created PRIMARY KEY (id, created_at)\n" +
+                    "    ) PARTITION BY RANGE (created_at);\n" +
+                    "    CREATE TABLE public.notifications_default PARTITION OF public.notifications DEFAULT;\n" +
+                    "    CREATE INDEX idx_notifications_user_created ON public.notifications (user_id, created_at DESC, id DESC);\n" +
+                    "\n" +
+                    "    FOR m IN SELECT generate_series(first_month, date_trunc('month', now())::date + interval '3 months', interval '1 month')::date LOOP\n" +
+                    "        EXECUTE format('CREATE TABLE public.%I PARTITION OF public.notifications FOR VALUES FROM (%L) TO (%L)',\n" +
+                    "                       'notifications_p' || to_char(m, 'YYYY_MM'), m, (m + interval '1 month')::date);\n" +
+                    "    END LOOP;\n" +
+                    "\n" +
+                    "    INSERT INTO public.notifications (id, user_id, title, message, type, \"isread\", created_at, trip_id)\n" +
+                    "    SELECT id, user_id, title, message, type, \"isread\", created_at, trip_id FROM public.notifications_unpartitioned;\n" +
+                    "    DROP TABLE public.notifications_unpartitioned;\n" +
+                    "END $$")),
+            // Discovery filters on destination, start date and budget copied from the linked plan; backfill
+            // group trips created before the columns existed
+            new Migration("2025_08_group_trip_discovery", List.of(
+                    "DO $$\n" +
+                    "BEGIN\n" +
+                    "    IF to_regclass('public.group_trips') IS NULL THEN\n" +
+                    "        RETURN;\n" +
+                    "    END IF;\n" +
+                    "    ALTER TABLE public.group_trips\n" +
+                    "        ADD COLUMN IF NOT EXISTS destination character varying(255),\n" +
+                    "        ADD COLUMN IF NOT EXISTS start_date date,\n" +
+                    "        ADD COLUMN IF NOT EXISTS budget double precision;\n" +
+                    "    IF to_regclass('public.trip_plan') IS NOT NULL THEN\n" +
+                    "        UPDATE public.group_trips gt SET\n" +
+                    "            destination = plan.destination,\n" +
+                    "            start_date = CASE WHEN plan.start_date ~ '^\\d{4}-\\d{2}-\\d{2}$' THEN CAST(plan.start_date AS DATE) END,\n" +
+                    "            budget = CASE WHEN plan.budget ~ '^\\d+(\\.\\d+)?$' THEN CAST(plan.budget AS double precision) END\n" +
+                    "        FROM (\n" +
+                    "            SELECT id,\n" +
+                    "                   COALESCE(trip_plan ->> 'destination', trip_plan -> 'trip_summary' ->> 'destination') AS destination,\n" +
+                    "                   COALESCE(trip_plan ->> 'start_date', trip_plan -> 'trip_summary' ->> 'start_date') AS start_date,\n" +
+                    "                   COALESCE(trip_plan ->> 'budget', trip_plan -> 'trip_summary' ->> 'total_budget') AS budget\n" +
+                    "            FROM public.trip_plan\n" +
+                    "        ) plan\n" +
+                    "        WHERE plan.id = gt.trip_plan_id AND gt.destination IS NULL;\n" +
+                    "    END IF;\n" +
+                    "    CREATE INDEX IF NOT EXISTS idx_group_trips_status_created ON public.group_trips (status, created_at DESC, id DESC);\n" +
+                    "    CREATE INDEX IF NOT EXISTS idx_group_trips_status_start ON public.group_trips (status, start_date);\n" +
+                    "    CREATE INDEX IF NOT EXISTS idx_group_trips_destination_prefix ON public.group_trips (lower(destination) text_pattern_ops);\n" +
+                    "    IF to_regclass('public.group_trip_members') IS NOT NULL THEN\n" +
+                    "        CREATE INDEX IF NOT EXISTS idx_group_trip_members_user_status ON public.group_trip_members (user_id, status);\n" +
+                    "        CREATE INDEX IF NOT EXISTS idx_group_trip_members_trip_status ON public.group_trip_members (group_trip_id, status);\n" +
+                    "    END IF;\n" +
+                    "END $$")),
+            // current_members is maintained by GroupTripRepository.reserveSeat/releaseSeat; give every trip a
+            // seat limit, recount the counter once from the accepted members and guard it with a CHECK
+            new Migration("2025_08_group_trip_seats", List.of(
+                    "DO $$\n" +
+                    "BEGIN\n" +
+                    "    IF to_regclass('public.group_trips') IS NULL OR to_regclass('public.group_trip_members') IS NULL THEN\n" +
+                    "        RETURN;\n" +
+                    "    END IF;\n" +
+                    "    -- reserveSeat compares against max_people, so a NULL limit would never take a seat\n" +
+                    "    UPDATE public.group_trips SET max_people = 5 WHERE max_people IS NULL;\n" +
+                    "    ALTER TABLE public.group_trips ALTER COLUMN max_people SET DEFAULT 5;\n" +
+                    "    ALTER TABLE public.group_trips ALTER COLUMN max_people SET NOT NULL;\n" +
+                    "    UPDATE public.group_trips gt SET current_members = 1 + (\n" +
+                    "        SELECT COUNT(*) FROM public.group_trip_members gtm\n" +
+                    "        WHERE gtm.group_trip_id = gt.id AND gtm.status = 'ACCEPTED'\n" +
+                    "    );\n" +
+                    "    UPDATE public.group_trips SET status = 'FULL' WHERE status = 'OPEN' AND current_members >= max_people;\n" +
+                    "    ALTER TABLE public.group_trips ALTER COLUMN current_members SET NOT NULL;\n" +
+                    "    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'group_trips_current_members_check') THEN\n" +
+                    "        -- NOT VALID: trips overfilled before seats were reserved stay readable, new writes are checked\n" +
+                    "        ALTER TABLE public.group_trips ADD CONSTRAINT group_trips_current_members_check\n" +
+                    "            CHECK (current_members <= max_people) NOT VALID;\n" +
+                    "    END IF;\n" +
+                    "END $$"))
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${schema.migrations.enabled:true}")
+    private boolean enabled = true;
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migration (" +
+                "name character varying(100) PRIMARY KEY, " +
+                "applied_at timestamp without time zone NOT NULL)");
+        for (Migration migration : MIGRATIONS) {
+            apply(migration);
+        }
+    }
+
+    /**
+     * Apply one migration unless it is already recorded. Returns whether it ran.
+     */
+    boolean apply(Migration migration) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Boolean applied = transaction.execute(status -> {
+                // Held until commit; a replica waiting here then sees the row below and skips
+                jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", MIGRATION_LOCK_KEY);
+                Integer done = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM schema_migration WHERE name = ?", Integer.class, migration.name());
+                if (done != null && done > 0) {
+                    return false;
+                }
+                long start = System.currentTimeMillis();
+                for (String sql : migration.statements()) {
+                    jdbcTemplate.execute(sql);
+                }
+                jdbcTemplate.update("INSERT INTO schema_migration (name, applied_at) VALUES (?, ?)",
+                        migration.name(), LocalDateTime.now());
+                System.out.println("🛠️ Applied schema migration " + migration.name() +
+                        " in " + (System.currentTimeMillis() - start) + " ms");
+                return true;
+            });
+            return Boolean.TRUE.equals(applied);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to apply schema migration " + migration.name() + ": " + e.getMessage(), e);
+        }
+    }
+
+    record Migration(String name, List<String> statements) {
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
 import java.util.Date;
 
 @Service
@@ -20,6 +21,9 @@ public class TokenBlacklistService {
     @Autowired
     private JwtUtility jwtUtility;
 
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
     /**
      * Add a token to the blacklist
      */
@@ -45,6 +49,11 @@ public class TokenBlacklistService {
     @Scheduled(fixedRate = 86400000) // Daily cleanup
     @Transactional
     public void cleanupExpiredTokens() {
+        // Replicas start at different times, so hold the lease for most of the day instead of releasing it
+        if (!jobLeaseService.tryAcquire("token-blacklist-cleanup", Duration.ofHours(23))) {
+            System.out.println("⏭️ Skipping token cleanup - already done by another node");
+            return;
+        }
         repository.deleteByExpiryDateBefore(new Date());
     }
 }
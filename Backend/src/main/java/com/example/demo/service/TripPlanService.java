@@ -1,28 +1,37 @@
 package com.example.demo.service;
 
 import com.example.demo.Repository.TripActivityRepository;
+import com.example.demo.dto.ChecklistBulkUpdateRequest;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.TripPlanDocument;
 import com.example.demo.entity.TripActivity;
 import com.example.demo.entity.TripPlan;
-import com.example.demo.entity.User;
 import com.example.demo.Repository.TripPlanRepository;
-import com.example.demo.Repository.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.demo.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TripPlanService {
@@ -30,37 +39,32 @@ public class TripPlanService {
     @Autowired
     private TripPlanRepository tripPlanRepository;
 
-    @Autowired
-    private UserRepository userRepository;
     @Autowired
     private TripActivityRepository tripActivityRepository;
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows per persistence-context clear when streaming trips, and ids per bulk status update
+    private static final int STREAM_CHUNK_SIZE = 200;
+
     /**
      * Accept a trip plan and save it to the database
      */
-    public TripPlan acceptTrip(String userIdentifier, Map<String, Object> tripPlan) {
-        return acceptTrip(userIdentifier, tripPlan, TripPlan.TripStatus.UPCOMING);
+    public TripPlan acceptTrip(UUID userId, Map<String, Object> tripPlan) {
+        return acceptTrip(userId, tripPlan, TripPlan.TripStatus.UPCOMING);
     }
 
     /**
      * Accept a trip plan and save it to the database with specific status
      */
-    public TripPlan acceptTrip(String userIdentifier, Map<String, Object> tripPlan, TripPlan.TripStatus status) {
+    public TripPlan acceptTrip(UUID userId, Map<String, Object> tripPlan, TripPlan.TripStatus status) {
         try {
-            // Find user by username first, then by email if not found
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            
             // Extract trip summary data for debugging and validation
             Map<String, Object> tripSummary = null;
             String destination = null;
@@ -96,7 +100,7 @@ public class TripPlanService {
 
             // Log the data being saved
             System.out.println("💾 SAVING TRIP TO DATABASE:");
-            System.out.println("   User: " + user.getUsername() + " (ID: " + user.getId() + ")");
+            System.out.println("   User ID: " + userId);
             System.out.println("   Destination: " + destination);
             System.out.println("   Origin: " + origin);
             System.out.println("   Duration: " + duration + " days");
@@ -109,7 +113,7 @@ public class TripPlanService {
             
             // Create and save the trip plan entity
             TripPlan tripPlanEntity = TripPlan.builder()
-                    .userId(user.getId())
+                    .userId(userId)
                     .tripPlan(tripPlanJson)
                     .status(status)
                     .createdAt(LocalDateTime.now())
@@ -129,22 +133,28 @@ public class TripPlanService {
     }
 
     /**
-     * Get all trip plans for a user
+     * Get one keyset page of a user's trip plans, optionally filtered by status
      */
-    public List<TripPlan> getTripPlansByUser(String userIdentifier) {
+    public CursorPage<TripPlan> getTripPlanPage(UUID userId, TripPlan.TripStatus status,
+                                                KeysetCursor<Long> cursor, Integer limit) {
         try {
-            // Find user by username first, then by email if not found
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
+            int pageSize = CursorPage.clampLimit(limit);
+            // Fetch one extra row so we know whether another page exists
+            Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+            List<TripPlan> rows;
+            if (cursor == null) {
+                rows = status == null
+                        ? tripPlanRepository.findByUserIdWithPagination(userId, pageable)
+                        : tripPlanRepository.findByUserIdAndStatusWithPagination(userId, status, pageable);
+            } else {
+                rows = status == null
+                        ? tripPlanRepository.findByUserIdBeforeCursor(userId, cursor.getCreatedAt(), cursor.getId(), pageable)
+                        : tripPlanRepository.findByUserIdAndStatusBeforeCursor(userId, status, cursor.getCreatedAt(), cursor.getId(), pageable);
             }
 
-            User user = userOptional.get();
-            return tripPlanRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+            return CursorPage.fromOverfetch(rows, pageSize,
+                    trip -> KeysetCursor.of(trip.getCreatedAt(), trip.getId()).encode());
 
         } catch (Exception e) {
             System.err.println("❌ Error fetching user trips: " + e.getMessage());
@@ -152,29 +162,6 @@ public class TripPlanService {
         }
     }
 
-    /**
-     * Get trip plans by user and status
-     */
-    public List<TripPlan> getTripPlansByUserAndStatus(String userIdentifier, TripPlan.TripStatus status) {
-        try {
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            return tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), status);
-
-        } catch (Exception e) {
-            System.err.println("❌ Error fetching user trips by status: " + e.getMessage());
-            throw new RuntimeException("Failed to fetch trips by status: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Update trip plan status
      */
@@ -199,22 +186,11 @@ public class TripPlanService {
     /**
      * Get categorized trips (upcoming, running, completed)
      */
-    public Map<String, Object> getCategorizedTrips(String userIdentifier) {
+    public Map<String, Object> getCategorizedTrips(UUID userId) {
         try {
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            
-            List<TripPlan> upcomingTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), TripPlan.TripStatus.UPCOMING);
-            List<TripPlan> runningTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), TripPlan.TripStatus.RUNNING);
-            List<TripPlan> completedTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(user.getId(), TripPlan.TripStatus.COMPLETED);
+            List<TripPlan> upcomingTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(userId, TripPlan.TripStatus.UPCOMING);
+            List<TripPlan> runningTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(userId, TripPlan.TripStatus.RUNNING);
+            List<TripPlan> completedTrips = tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(userId, TripPlan.TripStatus.COMPLETED);
 
             // Convert to response format
             Map<String, Object> response = new HashMap<>();
@@ -232,11 +208,10 @@ public class TripPlanService {
     }
 
     /**
-     * Scheduled task to automatically update trip status based on dates
-     * Runs daily at midnight
+     * Automatically update trip status based on dates.
+     * Scheduled under a job lease by TripPlanController.scheduledTripStatusUpdate
      * @return A map containing information about the update operation
      */
-    @Scheduled(cron = "0 0 0 * * ?") // Run at midnight every day
     @Transactional
     public Map<String, Object> autoUpdateTripStatus() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
@@ -254,12 +229,9 @@ public class TripPlanService {
             int upcomingToRunning = 0;
             int runningToCompleted = 0;
             
-            // Get all upcoming trips
-            List<TripPlan> upcomingTrips = tripPlanRepository.findByStatus(TripPlan.TripStatus.UPCOMING);
-            System.out.println("📊 Found " + upcomingTrips.size() + " upcoming trips to check");
-            result.put("upcomingTripsChecked", upcomingTrips.size());
-            
-            for (TripPlan trip : upcomingTrips) {
+            // Stream upcoming trips and remember the ones that have started
+            List<Long> toRunning = new ArrayList<>();
+            int upcomingChecked = forEachTripWithStatus(TripPlan.TripStatus.UPCOMING, trip -> {
                 LocalDate startDate = trip.getStartDate();
                 Integer durationDays = trip.getDurationDays();
                 
@@ -271,21 +243,16 @@ public class TripPlanService {
                         System.out.println("🔄 Updating trip #" + trip.getId() + " to RUNNING status");
                         System.out.println("   📍 Destination: " + trip.getDestination());
                         System.out.println("   📅 Start date: " + startDate + ", End date: " + endDate);
-                        
-                        trip.setStatus(TripPlan.TripStatus.RUNNING);
-                        tripPlanRepository.save(trip);
-                        updatedCount++;
-                        upcomingToRunning++;
+                        toRunning.add(trip.getId());
                     }
                 }
-            }
+            });
+            System.out.println("📊 Checked " + upcomingChecked + " upcoming trips");
+            result.put("upcomingTripsChecked", upcomingChecked);
             
-            // Get all running trips
-            List<TripPlan> runningTrips = tripPlanRepository.findByStatus(TripPlan.TripStatus.RUNNING);
-            System.out.println("📊 Found " + runningTrips.size() + " running trips to check");
-            result.put("runningTripsChecked", runningTrips.size());
-            
-            for (TripPlan trip : runningTrips) {
+            // Stream running trips and remember the ones that have ended
+            List<Long> toCompleted = new ArrayList<>();
+            int runningChecked = forEachTripWithStatus(TripPlan.TripStatus.RUNNING, trip -> {
                 LocalDate startDate = trip.getStartDate();
                 Integer durationDays = trip.getDurationDays();
                 
@@ -297,14 +264,17 @@ public class TripPlanService {
                         System.out.println("🔄 Updating trip #" + trip.getId() + " to COMPLETED status");
                         System.out.println("   📍 Destination: " + trip.getDestination());
                         System.out.println("   📅 Start date: " + startDate + ", End date: " + endDate);
-                        
-                        trip.setStatus(TripPlan.TripStatus.COMPLETED);
-                        tripPlanRepository.save(trip);
-                        updatedCount++;
-                        runningToCompleted++;
+                        toCompleted.add(trip.getId());
                     }
                 }
-            }
+            });
+            System.out.println("📊 Checked " + runningChecked + " running trips");
+            result.put("runningTripsChecked", runningChecked);
+            
+            // Both id lists were collected before either update, so a trip moves at most one step per run
+            upcomingToRunning = updateStatusInChunks(toRunning, TripPlan.TripStatus.RUNNING);
+            runningToCompleted = updateStatusInChunks(toCompleted, TripPlan.TripStatus.COMPLETED);
+            updatedCount = upcomingToRunning + runningToCompleted;
             
             System.out.println("✅ Auto-update completed. Updated " + updatedCount + " trips.");
             System.out.println("   - " + upcomingToRunning + " trips changed from UPCOMING to RUNNING");
@@ -328,20 +298,48 @@ public class TripPlanService {
         }
     }
     
+    /**
+     * Walk all trips with the given status through a database cursor, clearing the persistence context
+     * every STREAM_CHUNK_SIZE rows so heap use stays flat however many trips exist.
+     * Must be called inside a transaction. Returns the number of trips visited.
+     */
+    private int forEachTripWithStatus(TripPlan.TripStatus status, Consumer<TripPlan> action) {
+        int visited = 0;
+        try (Stream<TripPlan> trips = tripPlanRepository.streamByStatus(status)) {
+            Iterator<TripPlan> iterator = trips.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++visited % STREAM_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.clear();
+        return visited;
+    }
+
+    private int updateStatusInChunks(List<Long> tripIds, TripPlan.TripStatus status) {
+        int updated = 0;
+        for (int from = 0; from < tripIds.size(); from += STREAM_CHUNK_SIZE) {
+            List<Long> chunk = tripIds.subList(from, Math.min(from + STREAM_CHUNK_SIZE, tripIds.size()));
+            updated += tripPlanRepository.updateStatusByIds(chunk, status);
+        }
+        return updated;
+    }
+
     /**
      * Check if there are any trips that need status updates
      * @return Map with information about trips that need updating
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> checkTripsNeedingStatusUpdate() {
         Map<String, Object> result = new HashMap<>();
         LocalDate today = LocalDate.now();
         
         try {
             // Check upcoming trips that should be running
-            List<TripPlan> upcomingTrips = tripPlanRepository.findByStatus(TripPlan.TripStatus.UPCOMING);
-            int upcomingNeedingUpdate = 0;
-            
-            for (TripPlan trip : upcomingTrips) {
+            int[] upcomingNeedingUpdate = {0};
+            forEachTripWithStatus(TripPlan.TripStatus.UPCOMING, trip -> {
                 LocalDate startDate = trip.getStartDate();
                 Integer durationDays = trip.getDurationDays();
                 
@@ -349,16 +347,14 @@ public class TripPlanService {
                     LocalDate endDate = startDate.plusDays(durationDays);
                     
                     if ((startDate.isEqual(today) || startDate.isBefore(today)) && endDate.isAfter(today)) {
-                        upcomingNeedingUpdate++;
+                        upcomingNeedingUpdate[0]++;
                     }
                 }
-            }
+            });
             
             // Check running trips that should be completed
-            List<TripPlan> runningTrips = tripPlanRepository.findByStatus(TripPlan.TripStatus.RUNNING);
-            int runningNeedingUpdate = 0;
-            
-            for (TripPlan trip : runningTrips) {
+            int[] runningNeedingUpdate = {0};
+            forEachTripWithStatus(TripPlan.TripStatus.RUNNING, trip -> {
                 LocalDate startDate = trip.getStartDate();
                 Integer durationDays = trip.getDurationDays();
                 
@@ -366,14 +362,14 @@ public class TripPlanService {
                     LocalDate endDate = startDate.plusDays(durationDays);
                     
                     if (endDate.isBefore(today)) {
-                        runningNeedingUpdate++;
+                        runningNeedingUpdate[0]++;
                     }
                 }
-            }
+            });
             
-            result.put("upcomingNeedingUpdate", upcomingNeedingUpdate);
-            result.put("runningNeedingUpdate", runningNeedingUpdate);
-            result.put("totalNeedingUpdate", upcomingNeedingUpdate + runningNeedingUpdate);
+            result.put("upcomingNeedingUpdate", upcomingNeedingUpdate[0]);
+            result.put("runningNeedingUpdate", runningNeedingUpdate[0]);
+            result.put("totalNeedingUpdate", upcomingNeedingUpdate[0] + runningNeedingUpdate[0]);
             result.put("success", true);
             
         } catch (Exception e) {
@@ -387,19 +383,8 @@ public class TripPlanService {
     /**
      * Delete a trip plan
      */
-    public boolean deleteTripPlan(Long tripId, String userIdentifier) {
+    public boolean deleteTripPlan(Long tripId, UUID userId) {
         try {
-            Optional<User> userOptional = userRepository.findByUsername(userIdentifier);
-            if (!userOptional.isPresent()) {
-                userOptional = userRepository.findByEmail(userIdentifier);
-            }
-            
-            if (!userOptional.isPresent()) {
-                throw new RuntimeException("User not found with identifier: " + userIdentifier);
-            }
-
-            User user = userOptional.get();
-            
             Optional<TripPlan> tripOptional = tripPlanRepository.findById(tripId);
             if (!tripOptional.isPresent()) {
                 throw new RuntimeException("Trip plan not found with ID: " + tripId);
@@ -408,7 +393,7 @@ public class TripPlanService {
             TripPlan tripPlan = tripOptional.get();
             
             // Verify ownership
-            if (!tripPlan.getUserId().equals(user.getId())) {
+            if (!tripPlan.getUserId().equals(userId)) {
                 throw new RuntimeException("User not authorized to delete this trip plan");
             }
 
@@ -452,56 +437,144 @@ public class TripPlanService {
 
 
     // ---------- Trip Activity CheckList -------------------
-    public Map<String, Boolean> getActivityByTripId(long id){
-        Optional<TripPlan> tripPlan=tripPlanRepository.findById(id);
-        String jsonString= tripPlan.get().getTripPlan();
-        System.out.println(jsonString);
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = null;
-        try {
-            root = mapper.readTree(jsonString);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+    private static final String INSERT_TRIP_ACTIVITY_SQL =
+            "INSERT INTO trip_activity (trip_id, activity, completed, day_number, sort_order) " +
+            "VALUES (?, ?, false, ?, ?) ON CONFLICT (trip_id, activity) DO UPDATE " +
+            "SET day_number = EXCLUDED.day_number, sort_order = EXCLUDED.sort_order " +
+            "WHERE trip_activity.sort_order IS NULL";
+    // Rows from before the itinerary was materialized whose activity is no longer in the plan go last
+    private static final String ORDER_LEFTOVER_ACTIVITIES_SQL =
+            "UPDATE trip_activity SET sort_order = ? WHERE trip_id = ? AND sort_order IS NULL";
+    private static final String UPDATE_TRIP_ACTIVITIES_SQL =
+            "UPDATE trip_activity SET completed = ? WHERE trip_id = ? AND activity = ANY(?)";
+
+    /**
+     * Checklist for a trip (activity -> completed) in itinerary order.
+     * The itinerary is only parsed the first time; afterwards trip_activity is the source of truth.
+     * Rows written before day_number/sort_order existed have no order yet and are backfilled the same way.
+     */
+    public Map<String, Boolean> getChecklist(long tripId) {
+        if (!tripActivityRepository.existsByTripIdAndSortOrderIsNotNull(tripId)) {
+            materializeChecklist(tripId);
         }
 
-        List<String> activitySpots = new ArrayList<>();
-        Map<String,Boolean> activities=new HashMap<>();
-        JsonNode itinerary = root.path("daily_itinerary");
-        for (JsonNode day : itinerary) {
-            // Morning activity
-            JsonNode morning = day.path("morning_activity");
-            if (!morning.isMissingNode()) {
-                String s=morning.path("spot_name").asText();
-                TripActivity tripActivity=new TripActivity();
-                tripActivity.setTripId(id);
-                tripActivity.setActivity(s);
-                tripActivity.setCompleted(false);
-                tripActivityRepository.save(tripActivity);
-                activitySpots.add(s);
-                activities.put(s,false);
+        Map<String, Boolean> checklist = new LinkedHashMap<>();
+        for (TripActivity tripActivity : tripActivityRepository.findAllByTripIdOrderBySortOrderAsc(tripId)) {
+            checklist.put(tripActivity.getActivity(), tripActivity.isCompleted());
+        }
+        return checklist;
+    }
+
+    /**
+     * Insert one trip_activity row per itinerary activity in a single JDBC batch.
+     * Safe to call repeatedly or concurrently: rows that already exist are skipped by the unique key, except that
+     * older rows without day_number/sort_order get them filled in (completion is kept).
+     * Returns the number of rows inserted or backfilled.
+     */
+    public int materializeChecklist(long tripId) {
+        TripPlan tripPlan = tripPlanRepository.findById(tripId)
+                .orElseThrow(() -> new RuntimeException("Trip plan not found with ID: " + tripId));
+
+        List<Object[]> rows = new ArrayList<>();
+        List<TripPlanDocument.DayPlan> itinerary = tripPlan.getDocument().getDailyItinerary();
+        if (itinerary != null) {
+            for (int d = 0; d < itinerary.size(); d++) {
+                TripPlanDocument.DayPlan day = itinerary.get(d);
+                int dayNumber = day.getDay() != null ? day.getDay() : d + 1;
+
+                List<TripPlanDocument.Activity> dayActivities = new ArrayList<>();
+                if (day.getMorningActivity() != null) {
+                    dayActivities.add(day.getMorningActivity());
+                }
+                if (day.getAfternoonActivities() != null) {
+                    dayActivities.addAll(day.getAfternoonActivities());
+                }
+                for (TripPlanDocument.Activity activity : dayActivities) {
+                    if (activity.getSpotName() != null && !activity.getSpotName().isBlank()) {
+                        rows.add(new Object[] { tripId, activity.getSpotName(), dayNumber, rows.size() });
+                    }
+                }
             }
+        }
 
-            // Afternoon activities
-            JsonNode afternoon = day.path("afternoon_activities");
-            if (afternoon.isArray()) {
-                for (JsonNode activity : afternoon) {
-                    String s=activity.path("spot_name").asText();
-                    TripActivity tripActivity=new TripActivity();
-                    tripActivity.setTripId(id);
-                    tripActivity.setActivity(s);
-                    tripActivity.setCompleted(false);
-                    tripActivityRepository.save(tripActivity);
-
-                    activitySpots.add(s);
-                    activities.put(s,false);
+        int inserted = 0;
+        if (!rows.isEmpty()) {
+            int[] results = jdbcTemplate.batchUpdate(INSERT_TRIP_ACTIVITY_SQL, rows);
+            for (int result : results) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    inserted++;
                 }
             }
         }
-        return activities;
+        int leftovers = jdbcTemplate.update(ORDER_LEFTOVER_ACTIVITIES_SQL, rows.size(), tripId);
+        System.out.println("✅ Materialized checklist for trip " + tripId + ": " + inserted + "/" + rows.size()
+                + " activities written" + (leftovers > 0 ? ", " + leftovers + " unplanned activities ordered last" : ""));
+        return inserted;
     }
+
     public void updateCheckList(Long tripId,String activity,boolean completed){
         TripActivity tripActivity=tripActivityRepository.findByTripIdAndActivity(tripId,activity);
         tripActivity.setCompleted(completed);
         tripActivityRepository.save(tripActivity);
     }
+
+    /**
+     * Apply many {activity, completed} changes to one trip with at most two set-based UPDATEs,
+     * one for the activities being checked and one for those being unchecked.
+     * Repeated activities collapse to the last change. Returns the number of rows updated.
+     */
+    @Transactional
+    public int bulkUpdateChecklist(Long tripId, List<ChecklistBulkUpdateRequest.ActivityChange> changes) {
+        Map<String, Boolean> latest = new LinkedHashMap<>();
+        for (ChecklistBulkUpdateRequest.ActivityChange change : changes) {
+            if (change.getActivity() != null) {
+                latest.put(change.getActivity(), change.isCompleted());
+            }
+        }
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        List<String> checked = new ArrayList<>();
+        List<String> unchecked = new ArrayList<>();
+        latest.forEach((activity, completed) -> (completed ? checked : unchecked).add(activity));
+
+        int updated = 0;
+        if (!checked.isEmpty()) {
+            updated += jdbcTemplate.update(UPDATE_TRIP_ACTIVITIES_SQL, true, tripId, checked.toArray(new String[0]));
+        }
+        if (!unchecked.isEmpty()) {
+            updated += jdbcTemplate.update(UPDATE_TRIP_ACTIVITIES_SQL, false, tripId, unchecked.toArray(new String[0]));
+        }
+        return updated;
+    }
+
+    /**
+     * Completed/total activities per itinerary day, aggregated in the database.
+     */
+    public Map<String, Object> getChecklistProgress(Long tripId) {
+        List<Map<String, Object>> days = new ArrayList<>();
+        long totalCompleted = 0;
+        long total = 0;
+        for (Object[] row : tripActivityRepository.findProgressByDay(tripId)) {
+            long dayTotal = ((Number) row[1]).longValue();
+            long dayCompleted = row[2] != null ? ((Number) row[2]).longValue() : 0;
+
+            Map<String, Object> day = new HashMap<>();
+            day.put("day", row[0]);
+            day.put("completed", dayCompleted);
+            day.put("total", dayTotal);
+            days.add(day);
+
+            totalCompleted += dayCompleted;
+            total += dayTotal;
+        }
+
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("days", days);
+        progress.put("completed", totalCompleted);
+        progress.put("total", total);
+        return progress;
+    }
 }
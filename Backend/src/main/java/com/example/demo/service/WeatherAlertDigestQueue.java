@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.WeatherAlertDigestItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Collects digest alerts across the partitions of one weather scan. With weather.scan.partitions > 1 the
+ * partitions run under separate leases, often on different replicas, so no single node sees a user's alerts
+ * for every destination. Each partition stores its alerts in weather_alert_pending and records itself in
+ * weather_scan_partition_done; whichever node completes the last partition of the run drains the queue and
+ * sends the digests, so a user still gets one notification per scan. Alerts left behind by a run that never
+ * completed (a node died mid-partition) go out with the next completed run. Tables are created by
+ * SchemaMigrationService (2025_08_weather_alert_digest_queue).
+ */
+@Service
+public class WeatherAlertDigestQueue {
+
+    private static final String INSERT_ALERT_SQL =
+            "INSERT INTO weather_alert_pending (run_id, user_id, trip_id, fingerprint, destination, weather_info, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MARK_DONE_SQL =
+            "INSERT INTO weather_scan_partition_done (run_id, scan_partition, completed_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT (run_id, scan_partition) DO NOTHING";
+
+    private static final String COUNT_DONE_SQL =
+            "SELECT COUNT(*) FROM weather_scan_partition_done WHERE run_id = ?";
+
+    private static final String PURGE_DONE_SQL =
+            "DELETE FROM weather_scan_partition_done WHERE completed_at < ?";
+
+    // Claims the rows: a node draining concurrently blocks on them, then finds them gone
+    private static final String DRAIN_SQL =
+            "DELETE FROM weather_alert_pending RETURNING id, user_id, trip_id, fingerprint, destination, weather_info";
+
+    // Completion markers are only needed while a run is in progress
+    private static final int DONE_RETENTION_DAYS = 7;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Store one partition's alerts and mark the partition done, in one transaction. Returns true once every
+     * partition of the run is done, i.e. the caller should drain the queue.
+     */
+    public boolean completePartition(String runId, int partition, int partitions,
+                                     Map<UUID, List<WeatherAlertDigestItem>> alertsByUser,
+                                     Map<Long, String> fingerprints) {
+        List<WeatherAlertDigestItem> items = alertsByUser.values().stream().flatMap(List::stream).toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        newTransaction().executeWithoutResult(status -> {
+            if (!items.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ALERT_SQL, items, items.size(), (ps, item) -> {
+                    ps.setString(1, runId);
+                    ps.setObject(2, item.getUserId());
+                    ps.setLong(3, item.getTripId());
+                    ps.setString(4, fingerprints.get(item.getTripId()));
+                    ps.setString(5, item.getDestination());
+                    ps.setString(6, item.getWeatherInfo());
+                    ps.setObject(7, now);
+                });
+            }
+            jdbcTemplate.update(MARK_DONE_SQL, runId, partition, now);
+            jdbcTemplate.update(PURGE_DONE_SQL, now.minusDays(DONE_RETENTION_DAYS));
+        });
+
+        // Counted after commit, so of two nodes finishing together at least the later one sees every marker
+        Integer done = jdbcTemplate.queryForObject(COUNT_DONE_SQL, Integer.class, runId);
+        return done != null && done >= partitions;
+    }
+
+    /**
+     * Remove every queued alert and hand it to the sender inside the same transaction. If the sender throws,
+     * the rows are restored and go out with the next completed run. Returns the number of trips drained.
+     */
+    public int drain(Consumer<PendingDigests> sender) {
+        Integer drained = newTransaction().execute(status -> {
+            List<PendingAlert> rows = jdbcTemplate.query(DRAIN_SQL, (rs, rowNum) -> new PendingAlert(
+                    rs.getLong("id"),
+                    new WeatherAlertDigestItem(
+                            rs.getObject("user_id", UUID.class),
+                            rs.getLong("trip_id"),
+                            rs.getString("destination"),
+                            rs.getString("weather_info")),
+                    rs.getString("fingerprint")));
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            // A trip queued by an unfinished earlier run and again by this one keeps only its latest alert
+            Map<Long, PendingAlert> latestByTrip = new LinkedHashMap<>();
+            rows.stream()
+                    .sorted(Comparator.comparingLong(PendingAlert::id))
+                    .forEach(row -> latestByTrip.put(row.item().getTripId(), row));
+
+            Map<UUID, List<WeatherAlertDigestItem>> alertsByUser = new LinkedHashMap<>();
+            Map<Long, String> fingerprints = new LinkedHashMap<>();
+            for (PendingAlert row : latestByTrip.values()) {
+                alertsByUser.computeIfAbsent(row.item().getUserId(), k -> new ArrayList<>()).add(row.item());
+                fingerprints.put(row.item().getTripId(), row.fingerprint());
+            }
+            sender.accept(new PendingDigests(alertsByUser, fingerprints));
+            return latestByTrip.size();
+        });
+        return drained != null ? drained : 0;
+    }
+
+    public record PendingDigests(Map<UUID, List<WeatherAlertDigestItem>> alertsByUser, Map<Long, String> fingerprints) {
+    }
+
+    record PendingAlert(long id, WeatherAlertDigestItem item, String fingerprint) {
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
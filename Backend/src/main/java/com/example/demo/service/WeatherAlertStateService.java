@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.WeatherAlertStateRepository;
+import com.example.demo.entity.WeatherAlertState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a weather alert for a trip is new information or a repeat of the last one.
+ * A trip moves between "clear" (no fingerprint) and "alerted" (fingerprint of the adverse days);
+ * an alert is only sent when the fingerprint changes and the cool-down since the last alert has passed.
+ */
+@Service
+public class WeatherAlertStateService {
+
+    public enum AlertDecision {
+        SEND,       // adverse set changed and the cool-down has passed
+        DUPLICATE,  // same adverse set as the last alert
+        COOL_DOWN,  // adverse set changed, but the last alert was too recent
+        CLEAR       // no adverse weather
+    }
+
+    @Autowired
+    private WeatherAlertStateRepository weatherAlertStateRepository;
+
+    @Value("${weather.alert.cooldown-minutes:360}")
+    private long cooldownMinutes = 360;
+
+    private final AtomicLong suppressedTotal = new AtomicLong();
+
+    /**
+     * Record this scan's result for the trip and decide whether to notify.
+     * Pass a null fingerprint when the trip has no adverse weather.
+     */
+    // Own transaction: the manual check runs inside a read-only one
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public AlertDecision evaluate(Long tripId, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<WeatherAlertState> existing = weatherAlertStateRepository.findById(tripId);
+
+        if (fingerprint == null) {
+            // Only trips that were alerted before need a row to go back to clear
+            existing.ifPresent(state -> {
+                state.setFingerprint(null);
+                state.setLastCheckedAt(now);
+                weatherAlertStateRepository.save(state);
+            });
+            return AlertDecision.CLEAR;
+        }
+
+        WeatherAlertState state = existing.orElseGet(() -> WeatherAlertState.builder().tripId(tripId).build());
+        state.setLastCheckedAt(now);
+
+        AlertDecision decision;
+        if (fingerprint.equals(state.getFingerprint())) {
+            decision = AlertDecision.DUPLICATE;
+        } else if (state.getLastAlertedAt() != null
+                && state.getLastAlertedAt().plusMinutes(cooldownMinutes).isAfter(now)) {
+            // Keep the old fingerprint so the change is still sent once the cool-down ends
+            decision = AlertDecision.COOL_DOWN;
+        } else {
+            decision = AlertDecision.SEND;
+        }
+
+        if (decision != AlertDecision.SEND) {
+            state.setSuppressedCount(state.getSuppressedCount() + 1);
+            suppressedTotal.incrementAndGet();
+        }
+        weatherAlertStateRepository.save(state);
+        return decision;
+    }
+
+    // Call after the notification went out, so a failed send is retried on the next scan
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markSent(Long tripId, String fingerprint) {
+        WeatherAlertState state = weatherAlertStateRepository.findById(tripId)
+                .orElseGet(() -> WeatherAlertState.builder().tripId(tripId).build());
+        state.setFingerprint(fingerprint);
+        state.setLastAlertedAt(LocalDateTime.now());
+        weatherAlertStateRepository.save(state);
+    }
+
+    public long getSuppressedTotal() {
+        return suppressedTotal.get();
+    }
+
+    /**
+     * SHA-256 over the adverse days and their reason categories, or null if there are none.
+     * Only the category ("Strong winds") is hashed, not the reading ("36.1 km/h"),
+     * so small forecast drift between scans does not count as a new alert.
+     */
+    @SuppressWarnings("unchecked")
+    public static String fingerprint(List<Map<String, Object>> adverseDays) {
+        if (adverseDays == null || adverseDays.isEmpty()) {
+            return null;
+        }
+
+        SortedMap<String, SortedSet<String>> reasonsByDate = new TreeMap<>();
+        for (Map<String, Object> day : adverseDays) {
+            SortedSet<String> categories = reasonsByDate.computeIfAbsent(String.valueOf(day.get("date")), k -> new TreeSet<>());
+            List<String> reasons = (List<String>) day.get("alert_reasons");
+            if (reasons != null) {
+                for (String reason : reasons) {
+                    int colon = reason.indexOf(':');
+                    categories.add(colon >= 0 ? reason.substring(0, colon).trim() : reason.trim());
+                }
+            }
+        }
+
+        StringBuilder canonical = new StringBuilder();
+        reasonsByDate.forEach((date, categories) ->
+                canonical.append(date).append('|').append(String.join(",", categories)).append(';'));
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to fingerprint weather alert: " + e.getMessage());
+        }
+    }
+}
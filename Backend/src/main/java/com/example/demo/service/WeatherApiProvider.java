@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "weather.provider", havingValue = "http", matchIfMissing = true)
+public class WeatherApiProvider implements WeatherProvider {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${weather.api.url:http://api.weatherapi.com/v1/forecast.json}")
+    private String apiUrl = "http://api.weatherapi.com/v1/forecast.json";
+
+    @Value("${weather.api.key:c0859dd16f5c4108a0571407250307}")
+    private String apiKey = "c0859dd16f5c4108a0571407250307";
+
+    @Override
+    public List<Map<String, Object>> fetchForecast(String location, int days) {
+        try {
+            String url = UriComponentsBuilder
+                    .fromHttpUrl(apiUrl)
+                    .queryParam("key", apiKey)
+                    .queryParam("q", location)
+                    .queryParam("days", Math.min(days, MAX_FORECAST_DAYS))
+                    .queryParam("aqi", "no")
+                    .queryParam("alerts", "yes")
+                    .toUriString();
+
+            String response = restTemplate.getForObject(url, String.class);
+            return parseForecast(objectMapper.readTree(response));
+
+        } catch (Exception e) {
+            throw new RuntimeException("WeatherAPI error: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    // weatherapi.com forecast.json -> day maps; the fixture provider reads recordings of the same format
+    static List<Map<String, Object>> parseForecast(JsonNode root) {
+        List<Map<String, Object>> forecastList = new ArrayList<>();
+
+        for (JsonNode day : root.path("forecast").path("forecastday")) {
+            Map<String, Object> dayInfo = new HashMap<>();
+            dayInfo.put("date", day.get("date").asText());
+            dayInfo.put("condition", day.path("day").path("condition").path("text").asText());
+            dayInfo.put("icon", "https:" + day.path("day").path("condition").path("icon").asText());
+            dayInfo.put("avg_temp_c", day.path("day").path("avgtemp_c").asDouble());
+            dayInfo.put("humidity", day.path("day").path("avghumidity").asDouble());
+            dayInfo.put("precip_mm", day.path("day").path("totalprecip_mm").asDouble());
+            dayInfo.put("max_wind_kph", day.path("day").path("maxwind_kph").asDouble());
+
+            forecastList.add(dayInfo);
+        }
+
+        return forecastList;
+    }
+}
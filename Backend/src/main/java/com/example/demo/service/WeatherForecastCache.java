@@ -0,0 +1,227 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory forecast cache shared by the scheduled weather scan and the weather details endpoint.
+ * Entries are keyed by normalized location and the first forecast date, expire after a TTL close to
+ * the provider's refresh interval, and the cache never holds more than maxEntries locations.
+ * Concurrent misses for the same key wait for a single load instead of calling the provider twice.
+ */
+@Component
+public class WeatherForecastCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final Map<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Object> loadLocks = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    @Autowired
+    public WeatherForecastCache(@Value("${weather.cache.ttl-minutes:30}") long ttlMinutes,
+                                @Value("${weather.cache.max-entries:500}") int maxEntries) {
+        this(Duration.ofMinutes(ttlMinutes), maxEntries, Clock.systemUTC());
+    }
+
+    WeatherForecastCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    /**
+     * Return the cached forecast for (location, forecastDate), loading it once on a miss.
+     * A null result from the loader is treated as a failure and is not cached.
+     * Callers get their own copy of the day maps and may modify them.
+     */
+    public List<Map<String, Object>> getOrLoad(String location, LocalDate forecastDate,
+                                               Supplier<List<Map<String, Object>>> loader) {
+        CacheKey key = new CacheKey(normalize(location), forecastDate);
+
+        List<Map<String, Object>> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                // Another thread may have loaded this key while we waited
+                cached = lookup(key);
+                if (cached != null) {
+                    return cached;
+                }
+
+                misses.incrementAndGet();
+                List<Map<String, Object>> loaded = loader.get();
+                if (loaded == null) {
+                    return null;
+                }
+                // The caller asked for it, so it counts as read
+                store(key, loaded, true);
+                return copy(loaded);
+            } finally {
+                loadLocks.remove(key, lock);
+            }
+        }
+    }
+
+    /**
+     * Load a fresh forecast and replace the cached one, even if it has not expired yet (refresh-ahead).
+     * The old entry keeps serving reads until the new one is stored; a failed load leaves it in place.
+     * Returns true if the entry was replaced.
+     */
+    public boolean refresh(String location, LocalDate forecastDate, Supplier<List<Map<String, Object>>> loader) {
+        CacheKey key = new CacheKey(normalize(location), forecastDate);
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                List<Map<String, Object>> loaded = loader.get();
+                if (loaded == null) {
+                    return false;
+                }
+                store(key, loaded, false);
+                refreshes.incrementAndGet();
+                return true;
+            } finally {
+                loadLocks.remove(key, lock);
+            }
+        }
+    }
+
+    /**
+     * Time left before the entry expires, or null if there is no live entry.
+     */
+    public Duration timeToExpiry(String location, LocalDate forecastDate) {
+        CacheEntry entry = entries.get(new CacheKey(normalize(location), forecastDate));
+        if (entry == null) {
+            return null;
+        }
+        Duration left = Duration.between(clock.instant(), entry.expiresAt());
+        return left.isNegative() ? null : left;
+    }
+
+    /**
+     * Whether the live entry has been served to a reader since it was loaded. Prefetch only keeps
+     * entries warm that someone actually reads.
+     */
+    public boolean readSinceLoad(String location, LocalDate forecastDate) {
+        CacheEntry entry = entries.get(new CacheKey(normalize(location), forecastDate));
+        return entry != null && entry.read().get();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void invalidate(String location, LocalDate forecastDate) {
+        entries.remove(new CacheKey(normalize(location), forecastDate));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", ttl.toMinutes());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("refreshes", refreshes.get());
+        return stats;
+    }
+
+    // "  Cox's   Bazar " and "cox's bazar" are the same forecast
+    static String normalize(String location) {
+        if (location == null) {
+            return "";
+        }
+        return location.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private List<Map<String, Object>> lookup(CacheKey key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(clock.instant())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        hits.incrementAndGet();
+        entry.read().set(true);
+        return copy(entry.forecast());
+    }
+
+    private void store(CacheKey key, List<Map<String, Object>> forecast, boolean read) {
+        entries.put(key, new CacheEntry(copy(forecast), clock.instant().plus(ttl), new AtomicBoolean(read)));
+        if (entries.size() > maxEntries) {
+            evictOverflow();
+        }
+    }
+
+    // Drop expired entries first, then the ones closest to expiry, until we are back under the bound
+    private void evictOverflow() {
+        Instant now = clock.instant();
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt().isBefore(now);
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+
+        while (entries.size() > maxEntries) {
+            CacheKey oldest = null;
+            Instant oldestExpiry = null;
+            for (Map.Entry<CacheKey, CacheEntry> e : entries.entrySet()) {
+                if (oldestExpiry == null || e.getValue().expiresAt().isBefore(oldestExpiry)) {
+                    oldest = e.getKey();
+                    oldestExpiry = e.getValue().expiresAt();
+                }
+            }
+            if (oldest == null || entries.remove(oldest) == null) {
+                break;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static List<Map<String, Object>> copy(List<Map<String, Object>> forecast) {
+        List<Map<String, Object>> copy = new ArrayList<>(forecast.size());
+        for (Map<String, Object> day : forecast) {
+            copy.add(new HashMap<>(day));
+        }
+        return copy;
+    }
+
+    private record CacheKey(String location, LocalDate forecastDate) {
+    }
+
+    private record CacheEntry(List<Map<String, Object>> forecast, Instant expiresAt, AtomicBoolean read) {
+    }
+}
@@ -1,21 +1,24 @@
 package com.example.demo.service;
 
 import com.example.demo.Repository.TripPlanRepository;
+import com.example.demo.dto.WeatherAlertDigestItem;
 import com.example.demo.entity.TripPlan;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.service.WeatherAlertStateService.AlertDecision;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class WeatherMonitoringService {
@@ -24,58 +27,140 @@ public class WeatherMonitoringService {
     private TripPlanRepository tripPlanRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
-
-    @Autowired
-    private ObjectMapper objectMapper;
+    private WeatherProvider weatherProvider;
 
     @Autowired
     @Lazy // Add Lazy to avoid circular dependency
     private NotificationService notificationService;
 
-    private static final String API_KEY = "c0859dd16f5c4108a0571407250307";
+    @Autowired
+    private WeatherForecastCache weatherForecastCache;
+
+    @Autowired
+    private WeatherScanExecutor weatherScanExecutor;
+
+    @Autowired
+    private WeatherAlertStateService weatherAlertStateService;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private WeatherAlertDigestQueue weatherAlertDigestQueue;
+
+    @Value("${weather.scan.timeout-seconds:60}")
+    private long scanTimeoutSeconds = 60;
+
+    // Trips loaded per query; bounds scan heap regardless of table size
+    @Value("${weather.scan.chunk-size:200}")
+    private int scanChunkSize = 200;
+
+    // >1 splits the scan into destination hash partitions that different replicas can run in parallel;
+    // digests then go through WeatherAlertDigestQueue so a user still gets one per scan
+    @Value("${weather.scan.partitions:1}")
+    private int scanPartitions = 1;
+
+    @Value("${weather.scan.lease-max-minutes:30}")
+    private long leaseMaxMinutes = 30;
+
+    @Value("${weather.scan.lease-min-minutes:5}")
+    private long leaseMinMinutes = 5;
+
+    // Collect a scan's alerts into one notification per user instead of one per trip
+    @Value("${weather.alert.digest:true}")
+    private boolean alertDigest = true;
+
+    private volatile Map<String, Object> lastScanMetrics = Map.of();
+
+    private static final int MAX_FORECAST_DAYS = WeatherProvider.MAX_FORECAST_DAYS;
+
+    private enum TripCheckResult { CHECKED, ALERT_SENT, ALERT_QUEUED, ALERT_SUPPRESSED, FAILED }
+
+    /**
+     * Scheduled entry point. Cron rather than fixedRate so every replica fires at the same time;
+     * the leases then let exactly one node run each partition of the scan.
+     */
+    @Scheduled(cron = "${weather.scan.cron:0 0 */8 * * *}")
+    public void runScheduledWeatherCheck() {
+        // Every replica fires at the same cron second, so the minute identifies the run on all of them
+        String runId = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).toString();
+        jobLeaseService.runPartitioned("weather-scan", scanPartitions,
+                Duration.ofMinutes(leaseMaxMinutes), Duration.ofMinutes(leaseMinMinutes),
+                partition -> checkWeather(partition, scanPartitions, runId));
+    }
 
-    // Run every 10 minutes for testing (change to longer for production)
-    @Scheduled(fixedRate = 30000000) // 5 minutes
+    // Whole scan on this node, without a lease (manual trigger and tests)
     public void scheduleWeatherCheck() {
+        checkWeather(0, 1, null);
+    }
+
+    private void checkWeather(int partition, int partitions, String runId) {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         
         System.out.println("\n" + "=".repeat(90));
-        System.out.println("🌤️ AUTOMATED WEATHER MONITORING - " + timestamp);
+        System.out.println("🌤️ AUTOMATED WEATHER MONITORING - " + timestamp
+                + (partitions > 1 ? " (partition " + partition + "/" + partitions + ")" : ""));
         System.out.println("=".repeat(90));
         
         try {
             LocalDate today = LocalDate.now();
             LocalDate checkUntil = today.plusDays(7); // Check next 7 days
             
-            // Query real trip_plan table
-            List<TripPlan> upcomingTrips = tripPlanRepository.findUpcomingTripsInRange(today, checkUntil);
-            
             System.out.println("📊 Database Query Results:");
             System.out.println("   🔍 Checking trips between " + today + " and " + checkUntil);
-            System.out.println("   📅 Found " + upcomingTrips.size() + " upcoming trips in database");
             
-            if (upcomingTrips.isEmpty()) {
+            // Walk trip_plan in id-ordered chunks so only one chunk of trips is in memory at a time
+            ScanStats stats = new ScanStats();
+            weatherScanExecutor.resetPeakInFlight();
+            long afterId = 0L;
+            List<TripPlan> chunk;
+            do {
+                chunk = tripPlanRepository.findUpcomingTripsInRangeAfterId(
+                        today, checkUntil, afterId, PageRequest.of(0, scanChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+                
+                List<TripPlan> upcomingTrips = chunk;
+                if (partitions > 1) {
+                    // Partition by destination so each forecast is still fetched by one node only
+                    upcomingTrips = chunk.stream()
+                            .filter(trip -> JobLeaseService.inPartition(
+                                    WeatherForecastCache.normalize(trip.getDestination()), partition, partitions))
+                            .toList();
+                }
+                if (!upcomingTrips.isEmpty()) {
+                    System.out.println("🎯 Processing " + upcomingTrips.size() + " upcoming trips for weather alerts:");
+                    runParallelScan(upcomingTrips, today, stats);
+                }
+            } while (chunk.size() == scanChunkSize);
+            
+            if (partitions > 1 && alertDigest) {
+                queueAlertDigests(runId, partition, partitions, stats);
+            } else {
+                sendAlertDigests(stats);
+            }
+            
+            System.out.println("   📅 Found " + stats.trips + " upcoming trips in database");
+            
+            if (stats.trips == 0) {
                 System.out.println("✅ No upcoming trips found for weather monitoring");
                 
                 // Show available trips for debugging
-                List<TripPlan> allUpcoming = tripPlanRepository.findByStatus(TripPlan.TripStatus.UPCOMING);
-                System.out.println("📋 Total upcoming trips in database: " + allUpcoming.size());
+                long allUpcoming = tripPlanRepository.countByStatus(TripPlan.TripStatus.UPCOMING);
+                System.out.println("📋 Total upcoming trips in database: " + allUpcoming);
                 
-                if (!allUpcoming.isEmpty()) {
+                if (allUpcoming > 0) {
                     System.out.println("📝 Available upcoming trips:");
-                    for (TripPlan trip : allUpcoming.subList(0, Math.min(3, allUpcoming.size()))) {
+                    for (TripPlan trip : tripPlanRepository.findTop3ByStatusOrderByIdAsc(TripPlan.TripStatus.UPCOMING)) {
                         System.out.println("   • ID: " + trip.getId() + 
                                          ", Destination: " + trip.getDestination() + 
                                          ", Start: " + trip.getStartDate());
                     }
                 }
             } else {
-                System.out.println("🎯 Processing upcoming trips for weather alerts:");
-                
-                for (TripPlan trip : upcomingTrips) {
-                    checkTripWeatherFromDB(trip);
-                }
+                publishScanMetrics(stats);
             }
             
             System.out.println("✅ Automated weather check completed at " + timestamp);
@@ -87,8 +172,151 @@ public class WeatherMonitoringService {
         }
     }
 
-    private void checkTripWeatherFromDB(TripPlan tripPlan) {
+    /**
+     * Fetch forecasts once per destination on the scan pool, then fan the results back to each trip.
+     * Alerts and notification writes stay on the calling thread: the trips (and their lazy user)
+     * belong to this thread's persistence context.
+     */
+    private void runParallelScan(List<TripPlan> trips, LocalDate today, ScanStats stats) {
+        Map<String, List<TripPlan>> tripsByDestination = new LinkedHashMap<>();
+        for (TripPlan trip : trips) {
+            tripsByDestination
+                    .computeIfAbsent(WeatherForecastCache.normalize(trip.getDestination()), k -> new ArrayList<>())
+                    .add(trip);
+        }
+
+        Map<String, CompletableFuture<List<Map<String, Object>>>> forecasts = new LinkedHashMap<>();
+        for (Map.Entry<String, List<TripPlan>> group : tripsByDestination.entrySet()) {
+            String destination = group.getValue().get(0).getDestination();
+            if (destination == null || destination.isBlank()) {
+                continue;
+            }
+            forecasts.put(group.getKey(), weatherScanExecutor
+                    .submit(() -> weatherForecastCache.getOrLoad(destination, today, () -> fetchForecastFromApi(destination)))
+                    .orTimeout(scanTimeoutSeconds, TimeUnit.SECONDS)
+                    .exceptionally(e -> {
+                        System.err.println("❌ Weather fetch failed for " + destination + ": " + e.getMessage());
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(forecasts.values().toArray(new CompletableFuture[0])).join();
+
+        stats.trips += trips.size();
+        stats.destinations.addAll(forecasts.keySet());
+        for (Map.Entry<String, List<TripPlan>> group : tripsByDestination.entrySet()) {
+            CompletableFuture<List<Map<String, Object>>> future = forecasts.get(group.getKey());
+            List<Map<String, Object>> forecast = future != null ? future.join() : null;
+            if (future != null && forecast == null) {
+                stats.fetchErrors++;
+            }
+            for (TripPlan trip : group.getValue()) {
+                switch (checkTripWeatherFromDB(trip, forecast, stats)) {
+                    case FAILED -> stats.tripErrors++;
+                    case ALERT_SENT -> stats.alertsSent++;
+                    case ALERT_SUPPRESSED -> stats.alertsSuppressed++;
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    /**
+     * Deliver the alerts queued during the scan: one notification per user, all written in one batch.
+     * Alert state is only marked sent once the digests are stored, so a failed write is retried next scan.
+     */
+    private void sendAlertDigests(ScanStats stats) {
+        if (stats.pendingAlerts.isEmpty()) {
+            return;
+        }
+        try {
+            deliverAlertDigests(stats, stats.pendingAlerts, stats.pendingFingerprints);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send weather alert digests: " + e.getMessage());
+            stats.tripErrors += stats.pendingFingerprints.size();
+        }
+    }
+
+    /**
+     * Partitioned scan: queue this partition's alerts. The node that completes the run's last partition
+     * drains the queue and sends every partition's alerts, so a user with trips to destinations in
+     * different partitions still gets a single digest.
+     */
+    private void queueAlertDigests(String runId, int partition, int partitions, ScanStats stats) {
+        try {
+            if (!weatherAlertDigestQueue.completePartition(
+                    runId, partition, partitions, stats.pendingAlerts, stats.pendingFingerprints)) {
+                System.out.println("📥 Queued " + stats.pendingFingerprints.size()
+                        + " weather alerts until every scan partition has run");
+                return;
+            }
+            weatherAlertDigestQueue.drain(pending ->
+                    deliverAlertDigests(stats, pending.alertsByUser(), pending.fingerprints()));
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send weather alert digests: " + e.getMessage());
+            stats.tripErrors += stats.pendingFingerprints.size();
+        }
+    }
+
+    // Throws if the digests could not be stored; alert state is only marked once they are
+    private void deliverAlertDigests(ScanStats stats, Map<UUID, List<WeatherAlertDigestItem>> alertsByUser,
+                                     Map<Long, String> fingerprints) {
+        int digests = notificationService.sendWeatherAlertDigests(alertsByUser);
+        stats.alertDigests += digests;
+        for (Map.Entry<Long, String> sent : fingerprints.entrySet()) {
+            weatherAlertStateService.markSent(sent.getKey(), sent.getValue());
+        }
+        stats.alertsSent += fingerprints.size();
+        System.out.println("📱 Sent " + digests + " weather alert digests covering "
+                + fingerprints.size() + " trips");
+    }
+
+    private void publishScanMetrics(ScanStats stats) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stats.startedAt);
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("completedAt", LocalDateTime.now().toString());
+        metrics.put("durationMs", durationMs);
+        metrics.put("trips", stats.trips);
+        metrics.put("destinations", stats.destinations.size());
+        metrics.put("threads", weatherScanExecutor.getThreads());
+        metrics.put("maxInFlight", weatherScanExecutor.getMaxInFlight());
+        metrics.put("peakInFlight", weatherScanExecutor.getPeakInFlight());
+        metrics.put("fetchErrors", stats.fetchErrors);
+        metrics.put("tripErrors", stats.tripErrors);
+        metrics.put("alertsSent", stats.alertsSent);
+        metrics.put("alertDigests", stats.alertDigests);
+        metrics.put("alertsSuppressed", stats.alertsSuppressed);
+        metrics.put("alertsSuppressedTotal", weatherAlertStateService.getSuppressedTotal());
+        lastScanMetrics = metrics;
+
+        System.out.println("📈 Scan metrics: " + stats.trips + " trips, " + stats.destinations.size() + " destinations, "
+                + durationMs + "ms, peak " + weatherScanExecutor.getPeakInFlight() + "/" + weatherScanExecutor.getMaxInFlight()
+                + " in flight, " + stats.fetchErrors + " fetch errors, " + stats.tripErrors + " trip errors, "
+                + stats.alertsSent + " alerts sent, " + stats.alertsSuppressed + " suppressed");
+    }
+
+    // Totals for one scan run, accumulated across chunks
+    private static class ScanStats {
+        private final long startedAt = System.nanoTime();
+        private final Set<String> destinations = new HashSet<>();
+        private int trips;
+        private int fetchErrors;
+        private int tripErrors;
+        private int alertsSent;
+        private int alertsSuppressed;
+        private int alertDigests;
+        // Digest mode: alerts waiting for the end of the scan, and the fingerprint to record per trip
+        private final Map<UUID, List<WeatherAlertDigestItem>> pendingAlerts = new LinkedHashMap<>();
+        private final Map<Long, String> pendingFingerprints = new LinkedHashMap<>();
+    }
+
+    public Map<String, Object> getLastScanMetrics() {
+        return lastScanMetrics;
+    }
+
+    private TripCheckResult checkTripWeatherFromDB(TripPlan tripPlan, List<Map<String, Object>> forecastWindow,
+                                                   ScanStats stats) {
         try {
+            TripCheckResult result = TripCheckResult.CHECKED;
             String destination = tripPlan.getDestination();
             LocalDate startDate = tripPlan.getStartDate();
             Integer duration = tripPlan.getDurationDays();
@@ -113,15 +341,14 @@ public class WeatherMonitoringService {
             
             if (destination == null || startDate == null || duration == null) {
                 System.out.println("⚠️ Missing essential trip data - skipping weather check");
-                return;
+                return TripCheckResult.CHECKED;
             }
             
-            Map<String, Object> weatherData = fetchWeatherData(destination, duration);
-            
-            if (weatherData != null && weatherData.containsKey("forecast")) {
-                List<Map<String, Object>> forecast = (List<Map<String, Object>>) weatherData.get("forecast");
+            if (forecastWindow != null) {
+                List<Map<String, Object>> forecast = forecastWindow.subList(0, Math.min(duration, forecastWindow.size()));
                 
-                boolean foundAdverseWeather = true;//for testing actually false
+                boolean foundAdverseWeather = false;
+                List<Map<String, Object>> adverseDays = new ArrayList<>();
 
                 StringBuilder weatherAlertInfo = new StringBuilder();
                 
@@ -142,6 +369,7 @@ public class WeatherMonitoringService {
                         }
                         
                         printWeatherAlert(dayWeather);
+                        adverseDays.add(dayWeather);
                         
                         // Build alert info for notification
                         List<String> alertReasons = (List<String>) dayWeather.get("alert_reasons");
@@ -149,21 +377,37 @@ public class WeatherMonitoringService {
                     }
                 }
                 
-                // Send notification if adverse weather found
-                if (foundAdverseWeather && tripPlan.getUserId() != null) {
+                // Send notification only when the adverse-weather set changed since the last alert
+                String fingerprint = WeatherAlertStateService.fingerprint(adverseDays);
+                AlertDecision decision = weatherAlertStateService.evaluate(tripPlan.getId(), fingerprint);
+                if (foundAdverseWeather && decision != AlertDecision.SEND) {
+                    System.out.println("🔕 Alert suppressed (" + decision + ") for trip " + tripPlan.getId());
+                    result = TripCheckResult.ALERT_SUPPRESSED;
+                }
+
+                if (decision == AlertDecision.SEND && tripPlan.getUserId() != null) {
                     String alertMessage = "Weather alert detected for your trip to " + destination + ". " + 
                                         weatherAlertInfo.toString() + 
                                         "Please pack appropriate gear and monitor weather updates.";
-                    System.out.println(tripPlan.getUserId());
-                    notificationService.sendWeatherAlert(
-                        tripPlan.getUserId(), 
-                        destination, 
-                        alertMessage, 
-                        tripPlan.getId()
-                    );
-                    System.out.println("*** notification sent****");
-                    
-                    System.out.println("📱 Notification sent to user: " + tripPlan.getUserId());
+                    if (alertDigest) {
+                        stats.pendingAlerts
+                                .computeIfAbsent(tripPlan.getUserId(), k -> new ArrayList<>())
+                                .add(new WeatherAlertDigestItem(tripPlan.getUserId(), tripPlan.getId(), destination, alertMessage));
+                        stats.pendingFingerprints.put(tripPlan.getId(), fingerprint);
+                        System.out.println("📥 Alert queued for digest to user: " + tripPlan.getUserId());
+                        result = TripCheckResult.ALERT_QUEUED;
+                    } else {
+                        notificationService.sendWeatherAlert(
+                            tripPlan.getUserId(), 
+                            destination, 
+                            alertMessage, 
+                            tripPlan.getId()
+                        );
+                        weatherAlertStateService.markSent(tripPlan.getId(), fingerprint);
+                        
+                        System.out.println("📱 Notification sent to user: " + tripPlan.getUserId());
+                        result = TripCheckResult.ALERT_SENT;
+                    }
                 }
                 
                 if (!foundAdverseWeather) {
@@ -174,51 +418,40 @@ public class WeatherMonitoringService {
             }
             
             System.out.println("-".repeat(70));
+            return result;
             
         } catch (Exception e) {
             System.err.println("❌ Error checking weather for trip " + tripPlan.getId() + ": " + e.getMessage());
             e.printStackTrace(); // Add full stack trace for debugging
+            return TripCheckResult.FAILED;
         }
     }
 
     // Manual trigger for testing
-    @Transactional(readOnly = true)
+    // No surrounding transaction: one persistence context for the whole scan would keep every chunk
+    // of trips managed until the end and undo the chunking's heap bound
     public void manualWeatherCheck() {
         System.out.println("🔧 MANUAL WEATHER CHECK TRIGGERED");
         scheduleWeatherCheck();
     }
 
-    // Copy the working methods from WeatherTestController
+    /**
+     * Forecast for the first {@code days} days (provider max 3), served from the shared cache.
+     * Trips to the same destination on the same day reuse one provider call.
+     */
     private Map<String, Object> fetchWeatherData(String location, int days) {
-        try {
-            String url = UriComponentsBuilder
-                .fromHttpUrl("http://api.weatherapi.com/v1/forecast.json")
-                .queryParam("key", API_KEY)
-                .queryParam("q", location)
-                .queryParam("days", Math.min(days, 3))
-                .queryParam("aqi", "no")
-                .queryParam("alerts", "yes")
-                .toUriString();
-
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode forecastDays = root.path("forecast").path("forecastday");
-
-            List<Map<String, Object>> forecastList = new ArrayList<>();
-
-            for (JsonNode day : forecastDays) {
-                Map<String, Object> dayInfo = new HashMap<>();
-                dayInfo.put("date", day.get("date").asText());
-                dayInfo.put("condition", day.path("day").path("condition").path("text").asText());
-                dayInfo.put("avg_temp_c", day.path("day").path("avgtemp_c").asDouble());
-                dayInfo.put("precip_mm", day.path("day").path("totalprecip_mm").asDouble());
-                dayInfo.put("max_wind_kph", day.path("day").path("maxwind_kph").asDouble());
-
-                forecastList.add(dayInfo);
-            }
-
-            return Map.of("forecast", forecastList);
+        List<Map<String, Object>> forecast = weatherForecastCache.getOrLoad(
+                location, LocalDate.now(), () -> fetchForecastFromApi(location));
+        if (forecast == null) {
+            return null;
+        }
+        return Map.of("forecast", new ArrayList<>(forecast.subList(0, Math.min(days, forecast.size()))));
+    }
 
+    // Always asks for the full forecast window so every trip length can be served from one cache entry
+    private List<Map<String, Object>> fetchForecastFromApi(String location) {
+        try {
+            return weatherScanExecutor.callProvider(() -> weatherProvider.fetchForecast(location, MAX_FORECAST_DAYS));
         } catch (Exception e) {
             System.err.println("❌ Weather API error for " + location + ": " + e.getMessage());
             return null;
@@ -0,0 +1,202 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.TripPlanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the forecast cache warm for destinations of trips starting soon, so the weather details
+ * endpoint reads cached data instead of waiting on the provider.
+ *
+ * Prefetch only spends provider calls on forecasts that will be read: each destination is warmed cold
+ * at most once a day, and after that an entry is refreshed ahead of expiry only if a reader used it
+ * since it was loaded. Unread entries simply expire. Due entries are taken oldest first, up to a
+ * per-tick budget, so provider calls arrive at a steady rate instead of in bursts.
+ * Off by default: the cache is per JVM, so every replica with prefetch enabled warms its own copy
+ * and makes its own provider calls. Enable it on one replica, or accept the per-replica cost.
+ */
+@Service
+public class WeatherPrefetchService {
+
+    @Autowired
+    private TripPlanRepository tripPlanRepository;
+
+    @Autowired
+    private WeatherProvider weatherProvider;
+
+    @Autowired
+    private WeatherForecastCache weatherForecastCache;
+
+    @Autowired
+    private WeatherScanExecutor weatherScanExecutor;
+
+    @Value("${weather.prefetch.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${weather.prefetch.days-ahead:7}")
+    private int daysAhead = 7;
+
+    @Value("${weather.prefetch.tick-seconds:60}")
+    private long tickSeconds = 60;
+
+    @Value("${weather.prefetch.refresh-ahead-minutes:10}")
+    private long refreshAheadMinutes = 10;
+
+    // Destinations change slowly; re-reading them every tick would just repeat the same query
+    @Value("${weather.prefetch.destinations-refresh-minutes:10}")
+    private long destinationsRefreshMinutes = 10;
+
+    private volatile List<String> destinations = List.of();
+    private volatile LocalDateTime destinationsLoadedAt;
+    private volatile LocalDate destinationsLoadedFor;
+
+    // Destinations already warmed cold today (normalized); cleared when the day changes
+    private final Set<String> warmedToday = ConcurrentHashMap.newKeySet();
+    private volatile LocalDate warmedFor;
+
+    private final AtomicLong refreshed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Map<String, Object> lastTick = Map.of();
+
+    @Scheduled(fixedDelayString = "${weather.prefetch.tick-seconds:60}",
+               initialDelayString = "${weather.prefetch.initial-delay-seconds:30}",
+               timeUnit = TimeUnit.SECONDS)
+    public void prefetchTick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            runTick();
+        } catch (Exception e) {
+            System.err.println("❌ Weather prefetch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One prefetch pass. Returns the number of forecasts refreshed.
+     */
+    public int runTick() {
+        LocalDate today = LocalDate.now();
+        List<String> targets = currentDestinations(today);
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        if (!today.equals(warmedFor)) {
+            warmedToday.clear();
+            warmedFor = today;
+        }
+
+        Duration refreshAhead = Duration.ofMinutes(refreshAheadMinutes);
+        List<Map.Entry<String, Duration>> due = new ArrayList<>();
+        for (String destination : targets) {
+            Duration left = weatherForecastCache.timeToExpiry(destination, today);
+            if (left == null) {
+                // Cold: warm once a day; if nobody read it before it expired, do not reload it
+                if (!warmedToday.contains(WeatherForecastCache.normalize(destination))) {
+                    due.add(Map.entry(destination, Duration.ZERO));
+                }
+            } else if (left.compareTo(refreshAhead) <= 0 && weatherForecastCache.readSinceLoad(destination, today)) {
+                due.add(Map.entry(destination, left));
+            }
+        }
+        due.sort(Map.Entry.comparingByValue());
+
+        int budget = perTickBudget(targets.size());
+        List<CompletableFuture<Boolean>> refreshes = new ArrayList<>();
+        for (Map.Entry<String, Duration> entry : due.subList(0, Math.min(budget, due.size()))) {
+            String destination = entry.getKey();
+            refreshes.add(weatherScanExecutor
+                    .submit(() -> weatherForecastCache.refresh(destination, today, () -> fetchForecast(destination)))
+                    .orTimeout(tickSeconds, TimeUnit.SECONDS)
+                    .exceptionally(e -> false)
+                    .thenApply(ok -> {
+                        if (ok) {
+                            warmedToday.add(WeatherForecastCache.normalize(destination));
+                        }
+                        return ok;
+                    }));
+        }
+
+        int done = 0;
+        for (CompletableFuture<Boolean> refresh : refreshes) {
+            if (Boolean.TRUE.equals(refresh.join())) {
+                done++;
+            } else {
+                failures.incrementAndGet();
+            }
+        }
+        refreshed.addAndGet(done);
+
+        Map<String, Object> tick = new HashMap<>();
+        tick.put("ranAt", LocalDateTime.now().toString());
+        tick.put("destinations", targets.size());
+        tick.put("due", due.size());
+        tick.put("budget", budget);
+        tick.put("refreshed", done);
+        lastTick = tick;
+        return done;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("daysAhead", daysAhead);
+        stats.put("refreshAheadMinutes", refreshAheadMinutes);
+        stats.put("refreshedTotal", refreshed.get());
+        stats.put("failuresTotal", failures.get());
+        stats.put("lastTick", lastTick);
+        stats.put("cache", weatherForecastCache.getStats());
+        return stats;
+    }
+
+    /**
+     * At most every destination is refreshed once per (TTL - refresh-ahead), when all of them are read;
+     * spreading that over the ticks in the window gives the steady per-tick rate. Twice that leaves room
+     * to catch up after a cold start or failed calls without letting the backlog turn into a burst.
+     */
+    int perTickBudget(int destinationCount) {
+        long windowSeconds = Math.max(tickSeconds,
+                weatherForecastCache.getTtl().minusMinutes(refreshAheadMinutes).toSeconds());
+        return (int) Math.max(1, Math.ceil(2.0 * destinationCount * tickSeconds / windowSeconds));
+    }
+
+    private List<String> currentDestinations(LocalDate today) {
+        LocalDateTime now = LocalDateTime.now();
+        if (destinationsLoadedAt == null || !today.equals(destinationsLoadedFor)
+                || destinationsLoadedAt.plusMinutes(destinationsRefreshMinutes).isBefore(now)) {
+            // One entry per normalized destination, keeping the first spelling seen
+            Map<String, String> distinct = new LinkedHashMap<>();
+            for (String destination : tripPlanRepository.findUpcomingDestinationsInRange(today, today.plusDays(daysAhead))) {
+                if (destination != null && !destination.isBlank()) {
+                    distinct.putIfAbsent(WeatherForecastCache.normalize(destination), destination);
+                }
+            }
+            destinations = List.copyOf(distinct.values());
+            destinationsLoadedAt = now;
+            destinationsLoadedFor = today;
+        }
+        return destinations;
+    }
+
+    private List<Map<String, Object>> fetchForecast(String destination) {
+        try {
+            return weatherScanExecutor.callProvider(
+                    () -> weatherProvider.fetchForecast(destination, WeatherProvider.MAX_FORECAST_DAYS));
+        } catch (Exception e) {
+            System.err.println("❌ Weather prefetch error for " + destination + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
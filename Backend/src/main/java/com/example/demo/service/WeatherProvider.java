@@ -0,0 +1,22 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of daily forecasts for the weather scan and the weather test endpoints.
+ * Selected with weather.provider: "http" (weatherapi.com, the default) or "fixture" (recorded files, offline).
+ */
+public interface WeatherProvider {
+
+    int MAX_FORECAST_DAYS = 3;
+
+    /**
+     * Forecast for the next {@code days} days (capped at MAX_FORECAST_DAYS), one map per day with
+     * date, condition, icon, avg_temp_c, humidity, precip_mm and max_wind_kph.
+     * Throws a RuntimeException if the forecast cannot be retrieved.
+     */
+    List<Map<String, Object>> fetchForecast(String location, int days);
+
+    String getName();
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated pool for the weather scan plus a semaphore that caps in-flight weather provider calls.
+ * The pool decides how many destinations are worked on at once; the semaphore is what keeps us
+ * under the provider's rate limit, and it also covers calls made outside the scan (trip details).
+ */
+@Component
+public class WeatherScanExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore providerPermits;
+    private final int threads;
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @Autowired
+    public WeatherScanExecutor(@Value("${weather.scan.threads:8}") int threads,
+                               @Value("${weather.provider.max-in-flight:4}") int maxInFlight) {
+        this.threads = Math.max(1, threads);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.executor = Executors.newFixedThreadPool(this.threads, daemonThreads());
+        this.providerPermits = new Semaphore(this.maxInFlight, true);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Run one outbound provider call while holding a permit. Blocks while maxInFlight calls are running.
+     */
+    public <T> T callProvider(Supplier<T> call) {
+        try {
+            providerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a weather provider permit");
+        }
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            return call.get();
+        } finally {
+            inFlight.decrementAndGet();
+            providerPermits.release();
+        }
+    }
+
+    // Peak is reported per scan run, so the scan resets it when it starts
+    public int resetPeakInFlight() {
+        return peakInFlight.getAndSet(inFlight.get());
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "weather-scan-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor for keyset pagination on (created_at DESC, id DESC).
+ * Clients only ever see the encoded token and pass it back unchanged.
+ */
+public final class KeysetCursor<ID> {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final ID id;
+
+    private KeysetCursor(LocalDateTime createdAt, ID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static <ID> KeysetCursor<ID> of(LocalDateTime createdAt, ID id) {
+        return new KeysetCursor<>(createdAt, id);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public ID getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor whose id part is a Long (trip_plan, accepted_trips).
+     */
+    public static KeysetCursor<Long> decodeLong(String token) {
+        String[] parts = split(token);
+        try {
+            return new KeysetCursor<>(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Decode a cursor whose id part is a UUID (notifications).
+     */
+    public static KeysetCursor<UUID> decodeUuid(String token) {
+        String[] parts = split(token);
+        try {
+            return new KeysetCursor<>(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String[] split(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int idx = raw.indexOf(SEPARATOR);
+        if (idx <= 0 || idx == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new String[] { raw.substring(0, idx), raw.substring(idx + 1) };
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.TripPlanDocument;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared codec for trip_plan JSON. The mapper and its readers/writer are built once and are
+ * thread-safe, so callers never need to create an ObjectMapper per parse.
+ * <p>
+ * The plans come from an LLM, so reading a TripPlanDocument is lenient: numbers given as strings
+ * ("$120", "4.5 stars") are coerced or become null, arrays or objects where a string is expected are
+ * flattened to text, and null list entries are skipped. If the document still does not bind, each
+ * section (top-level fields, trip_summary, every day and every activity or accommodation in it) is
+ * bound on its own, so one odd field only loses itself and never the destination or start date.
+ */
+public final class TripPlanJson {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT)
+            .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            .withConfigOverride(List.class, override ->
+                    override.setSetterInfo(JsonSetter.Value.construct(Nulls.DEFAULT, Nulls.SKIP)))
+            .addModule(new SimpleModule("LenientTripPlanScalars")
+                    .addDeserializer(String.class, new LenientStringDeserializer())
+                    .addDeserializer(Double.class, new LenientDoubleDeserializer())
+                    .addDeserializer(Integer.class, new LenientIntegerDeserializer()))
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private static final ObjectReader DOCUMENT_READER = MAPPER.readerFor(TripPlanDocument.class);
+    private static final ObjectReader MAP_READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {});
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private TripPlanJson() {
+    }
+
+    public static TripPlanDocument readDocument(String json) throws JsonProcessingException {
+        JsonNode root = MAPPER.readTree(json);
+        if (root == null || !root.isObject()) {
+            return new TripPlanDocument();
+        }
+        try {
+            return DOCUMENT_READER.readValue(root);
+        } catch (IOException | IllegalArgumentException e) {
+            return readSections(root);
+        }
+    }
+
+    public static Map<String, Object> readMap(String json) throws JsonProcessingException {
+        return MAP_READER.readValue(json);
+    }
+
+    public static String write(Object value) throws JsonProcessingException {
+        return WRITER.writeValueAsString(value);
+    }
+
+    // Fallback for documents that do not bind as a whole
+    private static TripPlanDocument readSections(JsonNode root) {
+        TripPlanDocument document = new TripPlanDocument();
+        document.setDestination(section(root.get("destination"), String.class));
+        document.setOrigin(section(root.get("origin"), String.class));
+        document.setStartDate(section(root.get("start_date"), String.class));
+        document.setDurationDays(section(root.get("duration_days"), Integer.class));
+        document.setBudget(section(root.get("budget"), Double.class));
+        document.setTripSummary(section(root.get("trip_summary"), TripPlanDocument.TripSummary.class));
+
+        List<TripPlanDocument.DayPlan> days = new ArrayList<>();
+        for (JsonNode dayNode : elements(root.get("daily_itinerary"))) {
+            TripPlanDocument.DayPlan day = section(dayNode, TripPlanDocument.DayPlan.class);
+            if (day == null && dayNode.isObject()) {
+                day = readDay(dayNode);
+            }
+            if (day != null) {
+                days.add(day);
+            }
+        }
+        document.setDailyItinerary(days);
+        return document;
+    }
+
+    private static TripPlanDocument.DayPlan readDay(JsonNode dayNode) {
+        TripPlanDocument.DayPlan day = new TripPlanDocument.DayPlan();
+        day.setDay(section(dayNode.get("day"), Integer.class));
+        day.setDate(section(dayNode.get("date"), String.class));
+        day.setMorningActivity(section(dayNode.get("morning_activity"), TripPlanDocument.Activity.class));
+        day.setAfternoonActivities(sectionList(dayNode.get("afternoon_activities"), TripPlanDocument.Activity.class));
+        day.setAccommodationOptions(sectionList(dayNode.get("accommodation_options"), TripPlanDocument.Accommodation.class));
+        return day;
+    }
+
+    private static <T> T section(JsonNode node, Class<T> type) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        try {
+            return MAPPER.treeToValue(node, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static <T> List<T> sectionList(JsonNode node, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        for (JsonNode element : elements(node)) {
+            T item = section(element, type);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static List<JsonNode> elements(JsonNode node) {
+        List<JsonNode> elements = new ArrayList<>();
+        if (node == null || node.isNull()) {
+            return elements;
+        }
+        if (node.isArray()) {
+            node.forEach(elements::add);
+        } else {
+            elements.add(node);
+        }
+        return elements;
+    }
+
+    // First number in a string such as "$1,200" or "4.5/5"; null for "Free", "N/A", ...
+    static Double parseNumber(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(text.replace(",", ""));
+        return matcher.find() ? Double.valueOf(matcher.group()) : null;
+    }
+
+    private static class LenientStringDeserializer extends StdScalarDeserializer<String> {
+        LenientStringDeserializer() {
+            super(String.class);
+        }
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                // e.g. "amenities": ["WiFi", "Pool"] where a single string is expected
+                JsonNode node = ctxt.readTree(p);
+                if (node.isArray()) {
+                    List<String> parts = new ArrayList<>();
+                    node.forEach(element -> parts.add(element.isValueNode() ? element.asText() : element.toString()));
+                    return String.join(", ", parts);
+                }
+                return node.toString();
+            }
+            return p.getValueAsString();
+        }
+    }
+
+    private static class LenientDoubleDeserializer extends StdScalarDeserializer<Double> {
+        LenientDoubleDeserializer() {
+            super(Double.class);
+        }
+
+        @Override
+        public Double deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token.isNumeric()) {
+                return p.getDoubleValue();
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return parseNumber(p.getText());
+            }
+            p.skipChildren();
+            return null;
+        }
+    }
+
+    private static class LenientIntegerDeserializer extends StdScalarDeserializer<Integer> {
+        LenientIntegerDeserializer() {
+            super(Integer.class);
+        }
+
+        @Override
+        public Integer deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return p.getIntValue();
+            }
+            if (token.isNumeric()) {
+                return (int) Math.round(p.getDoubleValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                Double number = parseNumber(p.getText());
+                return number != null ? (int) Math.round(number) : null;
+            }
+            p.skipChildren();
+            return null;
+        }
+    }
+}
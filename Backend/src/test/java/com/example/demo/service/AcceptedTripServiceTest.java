@@ -1,7 +1,6 @@
 package com.example.demo.service;
 
 import com.example.demo.Repository.AcceptedTripRepository;
-import com.example.demo.Repository.UserRepository;
 import com.example.demo.entity.AcceptedTrip;
 import com.example.demo.entity.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -27,9 +26,6 @@ class AcceptedTripServiceTest {
     @Mock
     private AcceptedTripRepository acceptedTripRepository;
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private ObjectMapper objectMapper;
 
@@ -67,12 +63,11 @@ class AcceptedTripServiceTest {
     @Test
     void testAcceptTrip_Success() throws Exception {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(testTripPlan)).thenReturn("{\"destination\":\"Dhaka\"}");
         when(acceptedTripRepository.save(any(AcceptedTrip.class))).thenReturn(testTrip);
 
         // Act
-        AcceptedTrip result = acceptedTripService.acceptTrip("testuser", testTripPlan);
+        AcceptedTrip result = acceptedTripService.acceptTrip(testUser.getId(), testTripPlan);
 
         // Assert
         assertNotNull(result);
@@ -87,49 +82,14 @@ class AcceptedTripServiceTest {
         assertEquals("{\"destination\":\"Dhaka\"}", savedTrip.getTripPlan());
     }
 
-    @Test
-    void testAcceptTrip_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.acceptTrip("nonexistent", testTripPlan);
-        });
-
-        assertEquals("Failed to accept trip: User not found with identifier: nonexistent", exception.getMessage());
-        verify(userRepository).findByUsername("nonexistent");
-        verify(userRepository).findByEmail("nonexistent");
-    }
-
-    @Test
-    void testAcceptTrip_FindByEmail() throws Exception {
-        // Arrange
-        when(userRepository.findByUsername("test@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(objectMapper.writeValueAsString(testTripPlan)).thenReturn("{\"destination\":\"Dhaka\"}");
-        when(acceptedTripRepository.save(any(AcceptedTrip.class))).thenReturn(testTrip);
-
-        // Act
-        AcceptedTrip result = acceptedTripService.acceptTrip("test@example.com", testTripPlan);
-
-        // Assert
-        assertNotNull(result);
-        verify(userRepository).findByUsername("test@example.com");
-        verify(userRepository).findByEmail("test@example.com");
-        verify(acceptedTripRepository).save(any(AcceptedTrip.class));
-    }
-
     @Test
     void testGetUserAcceptedTrips_Success() {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(testUser.getId()))
                 .thenReturn(Arrays.asList(testTrip));
 
         // Act
-        List<AcceptedTrip> result = acceptedTripService.getUserAcceptedTrips("testuser");
+        List<AcceptedTrip> result = acceptedTripService.getUserAcceptedTrips(testUser.getId());
 
         // Assert
         assertEquals(1, result.size());
@@ -137,20 +97,6 @@ class AcceptedTripServiceTest {
         verify(acceptedTripRepository).findByUserIdOrderByCreatedAtDesc(testUser.getId());
     }
 
-    @Test
-    void testGetUserAcceptedTrips_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.getUserAcceptedTrips("nonexistent");
-        });
-
-        assertEquals("Failed to fetch user trips: User not found with identifier: nonexistent", exception.getMessage());
-    }
-
     @Test
     void testGetAcceptedTripById_Success() {
         // Arrange
@@ -181,12 +127,11 @@ class AcceptedTripServiceTest {
     @Test
     void testGetRecentAcceptedTrips_Success() {
         // Arrange
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(acceptedTripRepository.findRecentTripsByUserId(eq(testUser.getId()), any(LocalDateTime.class)))
                 .thenReturn(Arrays.asList(testTrip));
 
         // Act
-        List<AcceptedTrip> result = acceptedTripService.getRecentAcceptedTrips("test@example.com");
+        List<AcceptedTrip> result = acceptedTripService.getRecentAcceptedTrips(testUser.getId());
 
         // Assert
         assertEquals(1, result.size());
@@ -194,54 +139,26 @@ class AcceptedTripServiceTest {
         verify(acceptedTripRepository).findRecentTripsByUserId(eq(testUser.getId()), any(LocalDateTime.class));
     }
 
-    @Test
-    void testGetRecentAcceptedTrips_UserNotFound() {
-        // Arrange
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.getRecentAcceptedTrips("nonexistent@example.com");
-        });
-
-        assertEquals("Failed to fetch recent trips: User not found with email: nonexistent@example.com", exception.getMessage());
-    }
-
     @Test
     void testCountUserAcceptedTrips_Success() {
         // Arrange
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(acceptedTripRepository.countByUserId(testUser.getId())).thenReturn(5L);
 
         // Act
-        long count = acceptedTripService.countUserAcceptedTrips("test@example.com");
+        long count = acceptedTripService.countUserAcceptedTrips(testUser.getId());
 
         // Assert
         assertEquals(5L, count);
         verify(acceptedTripRepository).countByUserId(testUser.getId());
     }
 
-    @Test
-    void testCountUserAcceptedTrips_UserNotFound() {
-        // Arrange
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
-
-        // Act
-        long count = acceptedTripService.countUserAcceptedTrips("nonexistent@example.com");
-
-        // Assert
-        assertEquals(0L, count);
-        verify(userRepository).findByEmail("nonexistent@example.com");
-    }
-
     @Test
     void testDeleteAcceptedTrip_Success() {
         // Arrange
         when(acceptedTripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         // Act
-        boolean result = acceptedTripService.deleteAcceptedTrip(1L, "testuser");
+        boolean result = acceptedTripService.deleteAcceptedTrip(1L, testUser.getId());
 
         // Assert
         assertTrue(result);
@@ -255,7 +172,7 @@ class AcceptedTripServiceTest {
         when(acceptedTripRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act
-        boolean result = acceptedTripService.deleteAcceptedTrip(1L, "testuser");
+        boolean result = acceptedTripService.deleteAcceptedTrip(1L, testUser.getId());
 
         // Assert
         assertFalse(result);
@@ -271,11 +188,10 @@ class AcceptedTripServiceTest {
         anotherUser.setUsername("anotheruser");
         
         when(acceptedTripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
-        when(userRepository.findByUsername("anotheruser")).thenReturn(Optional.of(anotherUser));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.deleteAcceptedTrip(1L, "anotheruser");
+            acceptedTripService.deleteAcceptedTrip(1L, anotherUser.getId());
         });
 
         assertEquals("Failed to delete trip: Unauthorized to delete this trip", exception.getMessage());
@@ -288,7 +204,6 @@ class AcceptedTripServiceTest {
         String tripPlanJson = "{\"trip_summary\":{\"destination\":\"Dhaka\",\"start_date\":\"2025-12-01\",\"duration\":3}}";
         testTrip.setTripPlan(tripPlanJson);
         
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(acceptedTripRepository.findByUserIdOrderByCreatedAtDesc(testUser.getId()))
                 .thenReturn(Arrays.asList(testTrip));
         
@@ -302,7 +217,7 @@ class AcceptedTripServiceTest {
         when(objectMapper.readValue(tripPlanJson, Map.class)).thenReturn(parsedTripPlan);
 
         // Act
-        Map<String, List<Map<String, Object>>> result = acceptedTripService.getCategorizedTrips("testuser");
+        Map<String, List<Map<String, Object>>> result = acceptedTripService.getCategorizedTrips(testUser.getId());
 
         // Assert
         assertNotNull(result);
@@ -315,29 +230,14 @@ class AcceptedTripServiceTest {
         assertEquals(1, totalTrips);
     }
 
-    @Test
-    void testGetCategorizedTrips_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.getCategorizedTrips("nonexistent");
-        });
-
-        assertEquals("Failed to categorize trips: User not found with identifier: nonexistent", exception.getMessage());
-    }
-
     @Test
     void testAcceptTrip_JsonProcessingException() throws Exception {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(testTripPlan)).thenThrow(new RuntimeException("JSON error"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            acceptedTripService.acceptTrip("testuser", testTripPlan);
+            acceptedTripService.acceptTrip(testUser.getId(), testTripPlan);
         });
 
         assertEquals("Failed to accept trip: JSON error", exception.getMessage());
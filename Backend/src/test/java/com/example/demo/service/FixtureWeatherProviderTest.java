@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FixtureWeatherProviderTest {
+
+    @Spy
+    private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private FixtureWeatherProvider fixtureWeatherProvider;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fixtureWeatherProvider, "fixtureLocation", "classpath:weather-fixtures/");
+    }
+
+    @Test
+    void testFetchForecast_ReplaysRecordingWithShiftedDates() {
+        // Act
+        List<Map<String, Object>> forecast = fixtureWeatherProvider.fetchForecast("Cox's Bazar", 2);
+
+        // Assert
+        assertEquals(2, forecast.size());
+        assertEquals(LocalDate.now().toString(), forecast.get(0).get("date"));
+        assertEquals(LocalDate.now().plusDays(1).toString(), forecast.get(1).get("date"));
+        assertEquals("Moderate or heavy rain shower", forecast.get(0).get("condition"));
+        assertEquals(24.6, forecast.get(0).get("precip_mm"));
+    }
+
+    @Test
+    void testFetchForecast_UnknownLocationUsesDefault() {
+        // Act
+        List<Map<String, Object>> forecast = fixtureWeatherProvider.fetchForecast("Rangpur", 3);
+
+        // Assert
+        assertEquals(3, forecast.size());
+        assertEquals("Sunny", forecast.get(0).get("condition"));
+    }
+
+    @Test
+    void testFetchForecast_InjectedFailure() {
+        // Arrange
+        ReflectionTestUtils.setField(fixtureWeatherProvider, "failureRate", 1.0);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> fixtureWeatherProvider.fetchForecast("Dhaka", 3));
+        assertEquals("Injected fixture failure for Dhaka", exception.getMessage());
+    }
+
+    @Test
+    void testSlug() {
+        assertEquals("coxs-bazar", FixtureWeatherProvider.slug("  Cox's  Bazar "));
+        assertEquals("default", FixtureWeatherProvider.slug(null));
+    }
+}
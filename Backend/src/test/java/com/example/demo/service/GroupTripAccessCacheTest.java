@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.GroupTripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupTripAccessCacheTest {
+
+    @Mock
+    private GroupTripRepository groupTripRepository;
+
+    private MutableClock clock;
+    private GroupTripAccessCache cache;
+    private UUID groupTripId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-07-10T06:00:00Z"));
+        cache = new GroupTripAccessCache(clock);
+        ReflectionTestUtils.setField(cache, "groupTripRepository", groupTripRepository);
+        groupTripId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void testHasAccess_GrantServedFromMemoryUntilTtl() {
+        // Arrange
+        when(groupTripRepository.hasChatAccess(groupTripId, userId)).thenReturn(true);
+
+        // Act
+        boolean first = cache.hasAccess(groupTripId, userId);
+        boolean second = cache.hasAccess(groupTripId, userId);
+        clock.advance(Duration.ofSeconds(61));
+        boolean afterTtl = cache.hasAccess(groupTripId, userId);
+
+        // Assert
+        assertTrue(first && second && afterTtl);
+        verify(groupTripRepository, times(2)).hasChatAccess(groupTripId, userId);
+    }
+
+    @Test
+    void testHasAccess_DenialIsNotCached() {
+        // Arrange: refused, then approved elsewhere
+        when(groupTripRepository.hasChatAccess(groupTripId, userId)).thenReturn(false, true);
+
+        // Act & Assert
+        assertFalse(cache.hasAccess(groupTripId, userId));
+        assertTrue(cache.hasAccess(groupTripId, userId));
+        verify(groupTripRepository, times(2)).hasChatAccess(groupTripId, userId);
+    }
+
+    @Test
+    void testInvalidate_NextCheckGoesToDatabase() {
+        // Arrange
+        when(groupTripRepository.hasChatAccess(groupTripId, userId)).thenReturn(true, false);
+        cache.hasAccess(groupTripId, userId);
+
+        // Act
+        cache.invalidate(groupTripId, userId);
+
+        // Assert
+        assertFalse(cache.hasAccess(groupTripId, userId));
+        verify(groupTripRepository, times(2)).hasChatAccess(groupTripId, userId);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
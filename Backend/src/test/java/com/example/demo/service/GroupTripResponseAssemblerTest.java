@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.GroupTripMemberRepository;
+import com.example.demo.Repository.TripPlanRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.dto.GroupTripResponse;
+import com.example.demo.entity.GroupTrip;
+import com.example.demo.entity.GroupTripMember;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupTripResponseAssemblerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TripPlanRepository tripPlanRepository;
+
+    @Mock
+    private GroupTripMemberRepository groupTripMemberRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private GroupTripResponseAssembler assembler;
+
+    private UUID currentUserId;
+    private UUID creatorId;
+
+    @BeforeEach
+    void setUp() {
+        currentUserId = UUID.randomUUID();
+        creatorId = UUID.randomUUID();
+    }
+
+    @Test
+    void testAssemble_HundredTripsUseThreeQueries() {
+        // Arrange
+        List<GroupTrip> trips = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            trips.add(groupTrip((long) i));
+        }
+        List<Object[]> plans = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            plans.add(new Object[] { (long) i, "{\"destination\":\"Trip " + i + "\"}" });
+        }
+        List<Object[]> creators = new ArrayList<>();
+        creators.add(new Object[] { creatorId, "alice" });
+        trips.get(0).setCurrentMembers(4);
+        GroupTripMember request = GroupTripMember.builder()
+                .groupTripId(trips.get(1).getId())
+                .userId(currentUserId)
+                .status(GroupTripMember.MemberStatus.REQUESTED)
+                .build();
+
+        when(userRepository.findUsernamesByIds(anyCollection())).thenReturn(creators);
+        when(tripPlanRepository.findTripPlanJsonByIds(anyCollection())).thenReturn(plans);
+        when(groupTripMemberRepository.findByUserIdAndGroupTripIdIn(eq(currentUserId), anyCollection())).thenReturn(List.of(request));
+
+        // Act
+        List<GroupTripResponse> responses = assembler.assemble(trips, currentUserId);
+
+        // Assert: one query per kind of data, regardless of the number of trips
+        assertEquals(100, responses.size());
+        verify(userRepository, times(1)).findUsernamesByIds(anyCollection());
+        verify(tripPlanRepository, times(1)).findTripPlanJsonByIds(anyCollection());
+        verify(groupTripMemberRepository, times(1)).findByUserIdAndGroupTripIdIn(eq(currentUserId), anyCollection());
+        verifyNoMoreInteractions(userRepository, tripPlanRepository, groupTripMemberRepository);
+
+        GroupTripResponse first = responses.get(0);
+        assertEquals("alice", first.getCreatorName());
+        assertEquals(4, first.getCurrentMembers());
+        assertEquals(Map.of("destination", "Trip 0"), first.getTripPlan());
+        assertEquals("NOT_JOINED", first.getUserJoinStatus());
+
+        GroupTripResponse second = responses.get(1);
+        assertEquals(1, second.getCurrentMembers());
+        assertEquals("REQUESTED", second.getUserJoinStatus());
+        assertEquals("REQUESTED", second.getMemberStatus());
+    }
+
+    @Test
+    void testAssemble_CreatorAndMissingData() {
+        // Arrange
+        GroupTrip trip = groupTrip(null);
+        trip.setCreatedByUserId(currentUserId);
+        when(userRepository.findUsernamesByIds(anyCollection())).thenReturn(List.of());
+        when(groupTripMemberRepository.findByUserIdAndGroupTripIdIn(any(), anyCollection())).thenReturn(List.of());
+
+        // Act
+        GroupTripResponse response = assembler.assemble(trip, currentUserId);
+
+        // Assert
+        assertEquals("Unknown User", response.getCreatorName());
+        assertEquals("CREATOR", response.getUserJoinStatus());
+        assertNull(response.getTripPlan());
+        verifyNoInteractions(tripPlanRepository);
+    }
+
+    @Test
+    void testAssemble_EmptyListRunsNoQueries() {
+        assertTrue(assembler.assemble(List.of(), currentUserId).isEmpty());
+        verifyNoInteractions(userRepository, tripPlanRepository, groupTripMemberRepository);
+    }
+
+    private GroupTrip groupTrip(Long tripPlanId) {
+        GroupTrip trip = new GroupTrip();
+        trip.setId(UUID.randomUUID());
+        trip.setGroupName("Group " + tripPlanId);
+        trip.setCreatedByUserId(creatorId);
+        trip.setTripPlanId(tripPlanId);
+        trip.setMaxPeople(6);
+        trip.setCurrentMembers(1);
+        trip.setStatus(GroupTrip.GroupTripStatus.OPEN);
+        trip.setCreatedAt(LocalDateTime.now());
+        return trip;
+    }
+}
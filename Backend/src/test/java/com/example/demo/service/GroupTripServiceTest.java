@@ -0,0 +1,302 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.GroupChatMessageRepository;
+import com.example.demo.Repository.GroupTripMemberRepository;
+import com.example.demo.Repository.GroupTripRepository;
+import com.example.demo.Repository.GroupTripSearchRepository;
+import com.example.demo.Repository.TripPlanRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.dto.ApiResponse;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.GroupChatMessageResponse;
+import com.example.demo.dto.GroupTripResponse;
+import com.example.demo.dto.GroupTripSearchFilter;
+import com.example.demo.entity.GroupTrip;
+import com.example.demo.entity.GroupTripMember;
+import com.example.demo.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupTripServiceTest {
+
+    @Mock
+    private GroupTripRepository groupTripRepository;
+
+    @Mock
+    private GroupTripSearchRepository groupTripSearchRepository;
+
+    @Mock
+    private GroupTripMemberRepository groupTripMemberRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TripPlanRepository tripPlanRepository;
+
+    @Mock
+    private GroupChatMessageRepository groupChatMessageRepository;
+
+    @Mock
+    private GroupTripResponseAssembler groupTripResponseAssembler;
+
+    @Mock
+    private GroupTripAccessCache groupTripAccessCache;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @InjectMocks
+    private GroupTripService groupTripService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void testGetMyGroupTrips_FirstPageUsesSingleUnionQuery() {
+        // Arrange: three rows for a page of two signals another page
+        List<GroupTrip> rows = trips(3);
+        when(groupTripRepository.findMyGroupTripsPage(userId, 3)).thenReturn(rows);
+        when(groupTripResponseAssembler.assemble(anyList(), eq(userId))).thenAnswer(invocation -> {
+            List<GroupTrip> page = invocation.getArgument(0);
+            return page.stream().map(trip -> GroupTripResponse.builder().id(trip.getId()).build()).toList();
+        });
+
+        // Act
+        ApiResponse<CursorPage<GroupTripResponse>> response = groupTripService.getMyGroupTrips(userId, null, 2);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        CursorPage<GroupTripResponse> page = response.getData();
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(KeysetCursor.of(rows.get(1).getCreatedAt(), rows.get(1).getId()).encode(), page.getNextCursor());
+        verify(groupTripResponseAssembler).assemble(rows.subList(0, 2), userId);
+        verify(groupTripRepository, never()).findById(any());
+        verifyNoInteractions(groupTripMemberRepository);
+    }
+
+    @Test
+    void testGetMyGroupTrips_NextPageUsesCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        UUID lastId = UUID.randomUUID();
+        KeysetCursor<UUID> cursor = KeysetCursor.of(createdAt, lastId);
+        when(groupTripRepository.findMyGroupTripsBeforeCursor(userId, createdAt, lastId, 21)).thenReturn(List.of());
+        when(groupTripResponseAssembler.assemble(List.of(), userId)).thenReturn(List.of());
+
+        // Act
+        ApiResponse<CursorPage<GroupTripResponse>> response = groupTripService.getMyGroupTrips(userId, cursor, null);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertFalse(response.getData().isHasMore());
+        assertNull(response.getData().getNextCursor());
+        assertEquals(CursorPage.DEFAULT_LIMIT, response.getData().getLimit());
+    }
+
+    @Test
+    void testDiscoverGroupTrips_PassesFiltersAndCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(2);
+        UUID lastId = UUID.randomUUID();
+        GroupTripSearchFilter filter = GroupTripSearchFilter.builder()
+                .destination("Lis")
+                .startFrom(LocalDate.of(2025, 8, 1))
+                .maxBudget(1500.0)
+                .minSeats(2)
+                .build();
+        List<GroupTrip> rows = trips(2);
+        when(groupTripSearchRepository.discover(userId, filter, createdAt, lastId, 3)).thenReturn(rows);
+        when(groupTripResponseAssembler.assemble(rows, userId)).thenReturn(List.of(
+                GroupTripResponse.builder().id(rows.get(0).getId()).build(),
+                GroupTripResponse.builder().id(rows.get(1).getId()).build()));
+
+        // Act
+        ApiResponse<CursorPage<GroupTripResponse>> response =
+                groupTripService.discoverGroupTrips(userId, filter, KeysetCursor.of(createdAt, lastId), 2);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals(2, response.getData().getItems().size());
+        assertFalse(response.getData().isHasMore());
+        assertNull(response.getData().getNextCursor());
+        verifyNoInteractions(groupTripRepository);
+    }
+
+    @Test
+    void testRespondToJoinRequest_ApproveTakesSeatAtomically() {
+        // Arrange
+        GroupTrip trip = ownedTrip();
+        GroupTripMember member = requestedMember(trip);
+        when(groupTripRepository.findById(trip.getId())).thenReturn(Optional.of(trip));
+        when(groupTripMemberRepository.findByGroupTripIdAndUserId(trip.getId(), member.getUserId())).thenReturn(Optional.of(member));
+        when(groupTripRepository.reserveSeat(trip.getId())).thenReturn(1);
+        when(groupTripMemberRepository.transitionStatus(member.getId(),
+                GroupTripMember.MemberStatus.REQUESTED, GroupTripMember.MemberStatus.ACCEPTED)).thenReturn(1);
+
+        // Act
+        ApiResponse<String> response = groupTripService.respondToJoinRequest(trip.getId(), member.getUserId(), true, userId);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        verify(groupTripRepository, never()).releaseSeat(any());
+        verify(groupTripMemberRepository, never()).save(any());
+        verify(groupTripAccessCache).invalidate(trip.getId(), member.getUserId());
+    }
+
+    @Test
+    void testRespondToJoinRequest_FullTripIsRejected() {
+        // Arrange
+        GroupTrip trip = ownedTrip();
+        GroupTripMember member = requestedMember(trip);
+        when(groupTripRepository.findById(trip.getId())).thenReturn(Optional.of(trip));
+        when(groupTripMemberRepository.findByGroupTripIdAndUserId(trip.getId(), member.getUserId())).thenReturn(Optional.of(member));
+        when(groupTripRepository.reserveSeat(trip.getId())).thenReturn(0);
+
+        // Act
+        ApiResponse<String> response = groupTripService.respondToJoinRequest(trip.getId(), member.getUserId(), true, userId);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("This group trip is full", response.getError());
+        verify(groupTripMemberRepository, never()).transitionStatus(any(), any(), any());
+    }
+
+    @Test
+    void testRespondToJoinRequest_ConcurrentApprovalReleasesSeat() {
+        // Arrange: the seat was taken but another tab accepted the same request first
+        GroupTrip trip = ownedTrip();
+        GroupTripMember member = requestedMember(trip);
+        when(groupTripRepository.findById(trip.getId())).thenReturn(Optional.of(trip));
+        when(groupTripMemberRepository.findByGroupTripIdAndUserId(trip.getId(), member.getUserId())).thenReturn(Optional.of(member));
+        when(groupTripRepository.reserveSeat(trip.getId())).thenReturn(1);
+        when(groupTripMemberRepository.transitionStatus(member.getId(),
+                GroupTripMember.MemberStatus.REQUESTED, GroupTripMember.MemberStatus.ACCEPTED)).thenReturn(0);
+
+        // Act
+        ApiResponse<String> response = groupTripService.respondToJoinRequest(trip.getId(), member.getUserId(), true, userId);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("This request has already been processed", response.getError());
+        verify(groupTripRepository).releaseSeat(trip.getId());
+        verifyNoInteractions(groupTripAccessCache);
+    }
+
+    @Test
+    void testRespondToJoinRequest_DeclineDoesNotTouchSeats() {
+        // Arrange
+        GroupTrip trip = ownedTrip();
+        GroupTripMember member = requestedMember(trip);
+        when(groupTripRepository.findById(trip.getId())).thenReturn(Optional.of(trip));
+        when(groupTripMemberRepository.findByGroupTripIdAndUserId(trip.getId(), member.getUserId())).thenReturn(Optional.of(member));
+        when(groupTripMemberRepository.transitionStatus(member.getId(),
+                GroupTripMember.MemberStatus.REQUESTED, GroupTripMember.MemberStatus.DECLINED)).thenReturn(1);
+
+        // Act
+        ApiResponse<String> response = groupTripService.respondToJoinRequest(trip.getId(), member.getUserId(), false, userId);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        verify(groupTripRepository, never()).reserveSeat(any());
+    }
+
+    @Test
+    void testGetGroupChatMessages_AuthorizedFromAccessCache() {
+        // Arrange
+        UUID groupTripId = UUID.randomUUID();
+        when(groupTripAccessCache.hasAccess(groupTripId, userId)).thenReturn(true);
+        when(groupChatMessageRepository.findByGroupTripIdOrderByCreatedAtAsc(groupTripId)).thenReturn(List.of());
+
+        // Act
+        ApiResponse<List<GroupChatMessageResponse>> response = groupTripService.getGroupChatMessages(groupTripId, userId);
+
+        // Assert: no trip or membership lookup guards the read
+        assertTrue(response.isSuccess());
+        verifyNoInteractions(groupTripRepository, groupTripMemberRepository);
+    }
+
+    @Test
+    void testSendGroupChatMessage_DeniedWithoutAccess() {
+        // Arrange
+        UUID groupTripId = UUID.randomUUID();
+        when(groupTripAccessCache.hasAccess(groupTripId, userId)).thenReturn(false);
+
+        // Act
+        ApiResponse<GroupChatMessageResponse> response = groupTripService.sendGroupChatMessage(groupTripId, "hi", userId);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        verifyNoInteractions(groupChatMessageRepository);
+    }
+
+    @Test
+    void testCopyPlanSummary_FillsDiscoveryColumns() {
+        // Arrange
+        GroupTrip trip = new GroupTrip();
+        String plan = "{\"trip_summary\":{\"destination\":\"Cox's Bazar\",\"start_date\":\"2025-12-20\",\"total_budget\":15000}}";
+
+        // Act
+        groupTripService.copyPlanSummary(trip, plan);
+
+        // Assert
+        assertEquals("Cox's Bazar", trip.getDestination());
+        assertEquals(LocalDate.of(2025, 12, 20), trip.getStartDate());
+        assertEquals(15000.0, trip.getBudget());
+    }
+
+    private GroupTrip ownedTrip() {
+        GroupTrip trip = new GroupTrip();
+        trip.setId(UUID.randomUUID());
+        trip.setCreatedByUserId(userId);
+        trip.setMaxPeople(2);
+        trip.setCurrentMembers(1);
+        trip.setStatus(GroupTrip.GroupTripStatus.OPEN);
+        return trip;
+    }
+
+    private GroupTripMember requestedMember(GroupTrip trip) {
+        return GroupTripMember.builder()
+                .id(UUID.randomUUID())
+                .groupTripId(trip.getId())
+                .userId(UUID.randomUUID())
+                .status(GroupTripMember.MemberStatus.REQUESTED)
+                .build();
+    }
+
+    private List<GroupTrip> trips(int count) {
+        List<GroupTrip> trips = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            GroupTrip trip = new GroupTrip();
+            trip.setId(UUID.randomUUID());
+            trip.setCreatedByUserId(i == 0 ? userId : UUID.randomUUID());
+            trip.setCreatedAt(LocalDateTime.now().minusHours(i));
+            trips.add(trip);
+        }
+        return trips;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobLeaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private JobLeaseService jobLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jobLeaseService, "configuredNodeId", "node-a");
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void testTryAcquire_ExpiredLeaseIsTaken() {
+        // Arrange
+        when(jdbcTemplate.update(contains("locked_until <= ?"), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        boolean acquired = jobLeaseService.tryAcquire("weather-scan", Duration.ofMinutes(30));
+
+        // Assert
+        assertTrue(acquired);
+        verify(jdbcTemplate, never()).update(startsWith("INSERT"), any(), any(), any(), any());
+    }
+
+    @Test
+    void testTryAcquire_FirstRunInsertsLease() {
+        // Arrange
+        when(jdbcTemplate.update(contains("locked_until <= ?"), any(), any(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any(), any())).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(jobLeaseService.tryAcquire("weather-scan", Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testTryAcquire_HeldByAnotherNode() {
+        // Arrange
+        when(jdbcTemplate.update(contains("locked_until <= ?"), any(), any(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("duplicate key"));
+
+        // Act
+        boolean acquired = jobLeaseService.tryAcquire("weather-scan", Duration.ofMinutes(30));
+
+        // Assert
+        assertFalse(acquired);
+        ArgumentCaptor<TransactionStatus> status = ArgumentCaptor.forClass(TransactionStatus.class);
+        verify(transactionManager).commit(status.capture());
+        assertTrue(status.getValue().isRollbackOnly());
+    }
+
+    @Test
+    void testRunExclusive_SkipsJobWithoutLease() {
+        // Arrange
+        when(jdbcTemplate.update(contains("locked_until <= ?"), any(), any(), any(), any(), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("duplicate key"));
+        List<String> runs = new ArrayList<>();
+
+        // Act
+        boolean ran = jobLeaseService.runExclusive("trip-status-update", Duration.ofMinutes(10), Duration.ofMinutes(1),
+                () -> runs.add("run"));
+
+        // Assert
+        assertFalse(ran);
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void testRunPartitioned_RunsEveryLeasedPartitionAndReleases() {
+        // Arrange
+        when(jdbcTemplate.update(contains("locked_until <= ?"), any(), any(), any(), any(), any())).thenReturn(1);
+        Set<Integer> partitions = new TreeSet<>();
+
+        // Act
+        int ran = jobLeaseService.runPartitioned("weather-scan", 3, Duration.ofMinutes(30), Duration.ofMinutes(5),
+                partitions::add);
+
+        // Assert
+        assertEquals(3, ran);
+        assertEquals(Set.of(0, 1, 2), partitions);
+        verify(jdbcTemplate, times(3)).update(contains("WHERE job_name = ? AND locked_by = ?"), any(), any(), eq("node-a"));
+    }
+
+    @Test
+    void testInPartition_EachKeyHasExactlyOnePartition() {
+        for (String key : List.of("dhaka", "cox's bazar", "sylhet", "")) {
+            int owners = 0;
+            for (int partition = 0; partition < 4; partition++) {
+                if (JobLeaseService.inPartition(key, partition, 4)) {
+                    owners++;
+                }
+            }
+            assertEquals(1, owners);
+        }
+        assertTrue(JobLeaseService.inPartition("dhaka", 0, 1));
+    }
+}
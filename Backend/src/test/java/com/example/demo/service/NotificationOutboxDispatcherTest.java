@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationOutboxRepository;
+import com.example.demo.entity.NotificationOutbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private PgNotifyFanout fanout;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private NotificationOutboxDispatcher dispatcher;
+
+    @Test
+    void testDispatchBatch_SendsAndMarksDelivered() {
+        // Arrange
+        NotificationOutbox first = message(1L, 0);
+        NotificationOutbox second = message(2L, 0);
+        when(outboxRepository.claimDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(first, second));
+
+        // Act
+        int claimed = dispatcher.dispatchBatch();
+
+        // Assert
+        assertEquals(2, claimed);
+        verify(messagingTemplate).convertAndSendToUser(eq(first.getUserId().toString()), eq("/queue/notifications"),
+                eq(Map.of("id", "n-1", "title", "⚠️ Weather Alert for Dhaka")));
+        verify(messagingTemplate).convertAndSendToUser(eq(second.getUserId().toString()), eq("/queue/notifications"), any(Object.class));
+        verify(outboxRepository).markDelivered(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxRepository, never()).saveAll(anyList());
+        assertEquals(2L, dispatcher.getStats().get("deliveredTotal"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDispatchBatch_FailedSendIsRetriedWithBackoff() {
+        // Arrange
+        NotificationOutbox ok = message(1L, 0);
+        NotificationOutbox broken = message(2L, 2);
+        when(outboxRepository.claimDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(ok, broken));
+        doAnswer(invocation -> {
+            if (broken.getUserId().toString().equals(invocation.getArgument(0))) {
+                throw new MessageDeliveryException("broker unavailable");
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verify(outboxRepository).markDelivered(eq(List.of(1L)), any(LocalDateTime.class));
+        ArgumentCaptor<List<NotificationOutbox>> retryCaptor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(retryCaptor.capture());
+        NotificationOutbox retried = retryCaptor.getValue().get(0);
+        assertEquals(3, retried.getAttempts());
+        assertEquals(NotificationOutbox.Status.PENDING, retried.getStatus());
+        assertEquals("broker unavailable", retried.getLastError());
+        // Third attempt failed: wait 4s before the next one
+        assertFalse(retried.getNextAttemptAt().isBefore(before.plusSeconds(4)));
+    }
+
+    @Test
+    void testDispatchBatch_GivesUpAfterMaxAttempts() {
+        // Arrange
+        NotificationOutbox broken = message(1L, 7);
+        when(outboxRepository.claimDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(broken));
+        doThrow(new MessageDeliveryException("broker unavailable")).when(messagingTemplate)
+                .convertAndSendToUser(anyString(), anyString(), any(Object.class));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        assertEquals(NotificationOutbox.Status.FAILED, broken.getStatus());
+        assertEquals(8, broken.getAttempts());
+        verify(outboxRepository).saveAll(List.of(broken));
+        verify(outboxRepository, never()).markDelivered(anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDispatchBatch_NothingDue() {
+        // Arrange
+        when(outboxRepository.claimDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        // Act
+        int claimed = dispatcher.dispatchBatch();
+
+        // Assert
+        assertEquals(0, claimed);
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testDispatchBatch_PublishesThroughPgFanoutWhenEnabled() {
+        // Arrange
+        NotificationOutbox message = message(1L, 0);
+        when(fanout.isEnabled()).thenReturn(true);
+        when(outboxRepository.claimDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(message));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verify(fanout).publishToUser("outbox:1", message.getUserId(),
+                Map.of("id", "n-1", "title", "⚠️ Weather Alert for Dhaka"), "outbox:1");
+        verifyNoInteractions(messagingTemplate);
+        verify(outboxRepository).markDelivered(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testBackoff_DoublesAndIsCapped() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(4));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(20));
+    }
+
+    private NotificationOutbox message(Long id, int attempts) {
+        return NotificationOutbox.builder()
+                .id(id)
+                .notificationId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .payload("{\"id\":\"n-" + id + "\",\"title\":\"⚠️ Weather Alert for Dhaka\"}")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationPartitionService partitionService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2025-07-10T06:00:00Z"), ZoneOffset.UTC);
+        partitionService = new NotificationPartitionService(clock);
+        ReflectionTestUtils.setField(partitionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(partitionService, "transactionManager", transactionManager);
+    }
+
+    @Test
+    void testMaintain_CreatesUpcomingAndDropsExpiredPartitions() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "notifications_default", "notifications_p2024_12", "notifications_p2025_01",
+                "notifications_p2025_07", "notifications_p2025_08"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        // Act
+        Map<String, Object> result = partitionService.maintain();
+
+        // Assert
+        assertEquals(List.of("notifications_p2025_09", "notifications_p2025_10"), result.get("created"));
+        assertEquals(List.of("notifications_p2024_12"), result.get("dropped"));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS public.notifications_p2025_09 PARTITION OF public.notifications" +
+                " FOR VALUES FROM ('2025-09-01') TO ('2025-10-01')");
+        verify(jdbcTemplate).execute("ALTER TABLE public.notifications DETACH PARTITION public.notifications_p2024_12");
+        verify(jdbcTemplate).execute("DROP TABLE public.notifications_p2024_12");
+        verify(jdbcTemplate, never()).execute("DROP TABLE public.notifications_default");
+    }
+
+    @Test
+    void testMaintain_MovesRowsStrandedInTheDefaultPartitionIntoTheNewMonth() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "notifications_default", "notifications_p2025_07", "notifications_p2025_08", "notifications_p2025_09"));
+        when(jdbcTemplate.queryForObject(contains("FROM public.notifications_default"), eq(Boolean.class))).thenReturn(true);
+
+        // Act
+        Map<String, Object> result = partitionService.maintain();
+
+        // Assert
+        assertEquals(List.of("notifications_p2025_10"), result.get("created"));
+        var order = inOrder(jdbcTemplate, transactionManager);
+        order.verify(jdbcTemplate).execute("ALTER TABLE public.notifications DETACH PARTITION public.notifications_default");
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS public.notifications_p2025_10 PARTITION OF public.notifications" +
+                " FOR VALUES FROM ('2025-10-01') TO ('2025-11-01')");
+        order.verify(jdbcTemplate).update("INSERT INTO public.notifications SELECT * FROM public.notifications_default" +
+                " WHERE created_at >= '2025-10-01' AND created_at < '2025-11-01'");
+        order.verify(jdbcTemplate).update("DELETE FROM public.notifications_default" +
+                " WHERE created_at >= '2025-10-01' AND created_at < '2025-11-01'");
+        order.verify(jdbcTemplate).execute("ALTER TABLE public.notifications ATTACH PARTITION public.notifications_default DEFAULT");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testMaintain_SkipsUnpartitionedTable() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(0);
+
+        // Act
+        Map<String, Object> result = partitionService.maintain();
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testPartitionNameRoundTrip() {
+        assertEquals("notifications_p2025_03", NotificationPartitionService.partitionName(YearMonth.of(2025, 3)));
+        assertEquals(YearMonth.of(2025, 3), NotificationPartitionService.monthOf("notifications_p2025_03"));
+        assertNull(NotificationPartitionService.monthOf("notifications_default"));
+    }
+}
@@ -1,25 +1,45 @@
 package com.example.demo.service;
 
+import com.example.demo.Repository.NotificationOutboxRepository;
 import com.example.demo.Repository.NotificationRepository;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.WeatherAlertDigestItem;
 import com.example.demo.entity.Notification;
+import com.example.demo.entity.NotificationOutbox;
+import com.example.demo.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +49,19 @@ class NotificationServiceTest {
     private NotificationRepository notificationRepository;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationOutboxRepository outboxRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private NotificationUnreadCounter unreadCounter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private NotificationService notificationService;
@@ -59,8 +91,6 @@ class NotificationServiceTest {
     void testSendWeatherAlert_Success() {
         // Arrange
         when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
-        when(notificationRepository.findByUserIdOrderByCreatedAtDesc(testUserId))
-                .thenReturn(Arrays.asList(testNotification));
 
         // Act
         notificationService.sendWeatherAlert(testUserId, "Dhaka", "Heavy rain expected", 1L);
@@ -68,7 +98,9 @@ class NotificationServiceTest {
         // Assert
         ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
         verify(notificationRepository).save(notificationCaptor.capture());
-        verify(notificationRepository).flush();
+        // Lean write path: no flush and no read-back of the user's history
+        verify(notificationRepository, never()).flush();
+        verify(notificationRepository, never()).findByUserIdOrderByCreatedAtDesc(any());
         
         Notification savedNotification = notificationCaptor.getValue();
         assertEquals(testUserId, savedNotification.getUserId());
@@ -78,12 +110,82 @@ class NotificationServiceTest {
         assertEquals(1L, savedNotification.getTripId());
         assertFalse(savedNotification.isRead());
 
-        // Verify WebSocket message sent
-        verify(messagingTemplate).convertAndSendToUser(
-                eq(testUserId.toString()),
-                eq("/queue/notifications"),
-                any()
-        );
+        // WebSocket push is queued in the outbox, not sent inline
+        ArgumentCaptor<NotificationOutbox> outboxCaptor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(outboxCaptor.capture());
+        NotificationOutbox queued = outboxCaptor.getValue();
+        assertEquals(testNotificationId, queued.getNotificationId());
+        assertEquals(testUserId, queued.getUserId());
+        assertEquals(NotificationOutbox.Status.PENDING, queued.getStatus());
+        assertTrue(queued.getPayload().contains("\"id\":\"" + testNotificationId + "\""));
+        verify(unreadCounter).increment(testUserId, 1);
+    }
+
+    @Test
+    void testSendWeatherAlert_NotificationAndOutboxCommitTogether() {
+        // Arrange
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
+
+        // Act
+        notificationService.sendWeatherAlert(testUserId, "Dhaka", "Heavy rain expected", 1L);
+
+        // Assert
+        InOrder inOrder = inOrder(notificationRepository, outboxRepository, transactionManager);
+        inOrder.verify(notificationRepository).save(any(Notification.class));
+        inOrder.verify(outboxRepository).save(any(NotificationOutbox.class));
+        inOrder.verify(transactionManager).commit(status);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSendWeatherAlertDigests_OneBatchPerTableAndOneDigestPerUser() {
+        // Arrange
+        UUID otherUserId = UUID.randomUUID();
+        Map<UUID, List<WeatherAlertDigestItem>> alerts = new LinkedHashMap<>();
+        alerts.put(testUserId, List.of(
+                new WeatherAlertDigestItem(testUserId, 1L, "Dhaka", "Heavy rain expected"),
+                new WeatherAlertDigestItem(testUserId, 2L, "Sylhet", "Strong winds expected")));
+        alerts.put(otherUserId, List.of(
+                new WeatherAlertDigestItem(otherUserId, 3L, "Bandarban", "Thunderstorm expected")));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        // Act
+        int written = notificationService.sendWeatherAlertDigests(alerts);
+
+        // Assert
+        ArgumentCaptor<List<Notification>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO notifications"), batchCaptor.capture(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO notification_outbox"), anyList(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, written);
+
+        List<Notification> batch = batchCaptor.getValue();
+        assertEquals("⚠️ Weather Alerts for 2 upcoming trips", batch.get(0).getTitle());
+        assertTrue(batch.get(0).getMessage().contains("Dhaka: Heavy rain expected"));
+        assertTrue(batch.get(0).getMessage().contains("Sylhet: Strong winds expected"));
+        assertNull(batch.get(0).getTripId());
+        assertEquals("⚠️ Weather Alert for Bandarban", batch.get(1).getTitle());
+        assertEquals(3L, batch.get(1).getTripId());
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void testSendWeatherAlertDigests_FailedBatchThrows() {
+        // Arrange
+        Map<UUID, List<WeatherAlertDigestItem>> alerts = Map.of(testUserId,
+                List.of(new WeatherAlertDigestItem(testUserId, 1L, "Dhaka", "Heavy rain expected")));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("connection reset"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> notificationService.sendWeatherAlertDigests(alerts));
+        assertEquals("Failed to save weather alert digests: connection reset", exception.getMessage());
+        verify(transactionManager).rollback(any());
     }
 
     @Test
@@ -121,14 +223,53 @@ class NotificationServiceTest {
     @Test
     void testGetUnreadCount_Success() {
         // Arrange
-        when(notificationRepository.countByUserIdAndIsReadFalse(testUserId)).thenReturn(3L);
+        when(unreadCounter.get(testUserId)).thenReturn(3L);
 
         // Act
         long count = notificationService.getUnreadCount(testUserId);
 
         // Assert
         assertEquals(3L, count);
-        verify(notificationRepository).countByUserIdAndIsReadFalse(testUserId);
+        verify(notificationRepository, never()).countByUserIdAndIsReadFalse(any());
+    }
+
+    @Test
+    void testGetNotificationPage_FirstPageHasCursor() {
+        // Arrange
+        Notification older = Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(testUserId)
+                .createdAt(testNotification.getCreatedAt().minusMinutes(5))
+                .build();
+        when(notificationRepository.findPageByUserId(eq(testUserId), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(testNotification, older)));
+
+        // Act
+        CursorPage<Notification> page = notificationService.getNotificationPage(testUserId, null, 1);
+
+        // Assert
+        assertEquals(List.of(testNotification), page.getItems());
+        assertTrue(page.isHasMore());
+        KeysetCursor<UUID> next = KeysetCursor.decodeUuid(page.getNextCursor());
+        assertEquals(testNotificationId, next.getId());
+        assertEquals(testNotification.getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    void testGetNotificationPage_ContinuesAfterCursor() {
+        // Arrange
+        KeysetCursor<UUID> cursor = KeysetCursor.of(testNotification.getCreatedAt(), testNotificationId);
+        when(notificationRepository.findPageByUserIdBeforeCursor(eq(testUserId), eq(cursor.getCreatedAt()),
+                eq(testNotificationId), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        CursorPage<Notification> page = notificationService.getNotificationPage(testUserId, cursor, 20);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(notificationRepository, never()).findByUserIdOrderByCreatedAtDesc(any());
     }
 
     @Test
@@ -143,6 +284,7 @@ class NotificationServiceTest {
         verify(notificationRepository).findById(testNotificationId);
         verify(notificationRepository).save(testNotification);
         assertTrue(testNotification.isRead());
+        verify(unreadCounter).decrement(testUserId, 1);
     }
 
     @Test
@@ -161,17 +303,32 @@ class NotificationServiceTest {
     @Test
     void testMarkAllAsRead_Success() {
         // Arrange
-        List<Notification> unreadNotifications = Arrays.asList(testNotification);
-        when(notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(testUserId))
-                .thenReturn(unreadNotifications);
+        when(notificationRepository.markReadChunk(testUserId, 1000)).thenReturn(3);
 
         // Act
-        notificationService.markAllAsRead(testUserId);
+        int updated = notificationService.markAllAsRead(testUserId);
 
         // Assert
-        verify(notificationRepository).findByUserIdAndIsReadFalseOrderByCreatedAtDesc(testUserId);
-        verify(notificationRepository).saveAll(unreadNotifications);
-        assertTrue(testNotification.isRead());
+        assertEquals(3, updated);
+        verify(notificationRepository).markReadChunk(testUserId, 1000);
+        verify(unreadCounter).decrement(testUserId, 3);
+        verify(notificationRepository, never()).findByUserIdAndIsReadFalseOrderByCreatedAtDesc(any());
+        verify(notificationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testMarkAllAsRead_LargeInboxRunsInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(notificationService, "bulkChunkSize", 2);
+        when(notificationRepository.markReadChunk(testUserId, 2)).thenReturn(2, 2, 1);
+
+        // Act
+        int updated = notificationService.markAllAsRead(testUserId);
+
+        // Assert
+        assertEquals(5, updated);
+        verify(notificationRepository, times(3)).markReadChunk(testUserId, 2);
+        verify(transactionManager, times(3)).commit(any());
     }
 
     @Test
@@ -183,19 +340,34 @@ class NotificationServiceTest {
         verify(notificationRepository).deleteById(testNotificationId);
     }
 
+    @Test
+    void testDeleteNotification_UnreadDecrementsCounter() {
+        // Arrange
+        when(notificationRepository.findById(testNotificationId)).thenReturn(Optional.of(testNotification));
+
+        // Act
+        notificationService.deleteNotification(testNotificationId);
+
+        // Assert
+        verify(notificationRepository).deleteById(testNotificationId);
+        verify(unreadCounter).decrement(testUserId, 1);
+    }
+
     @Test
     void testClearAllNotifications_Success() {
         // Arrange
-        List<Notification> userNotifications = Arrays.asList(testNotification);
-        when(notificationRepository.findByUserIdOrderByCreatedAtDesc(testUserId))
-                .thenReturn(userNotifications);
+        ReflectionTestUtils.setField(notificationService, "bulkChunkSize", 2);
+        when(notificationRepository.deleteChunk(testUserId, 2)).thenReturn(2, 0);
 
         // Act
-        notificationService.clearAllNotifications(testUserId);
+        int deleted = notificationService.clearAllNotifications(testUserId);
 
         // Assert
-        verify(notificationRepository).findByUserIdOrderByCreatedAtDesc(testUserId);
-        verify(notificationRepository).deleteAll(userNotifications);
+        assertEquals(2, deleted);
+        verify(notificationRepository, times(2)).deleteChunk(testUserId, 2);
+        verify(unreadCounter).reset(testUserId);
+        verify(notificationRepository, never()).findByUserIdOrderByCreatedAtDesc(any());
+        verify(notificationRepository, never()).deleteAll(anyList());
     }
 
     @Test
@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationUnreadCounterTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private MutableClock clock;
+    private NotificationUnreadCounter counter;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-07-10T06:00:00Z"));
+        counter = new NotificationUnreadCounter(clock);
+        ReflectionTestUtils.setField(counter, "notificationRepository", notificationRepository);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void testGet_LoadsOnceThenServesFromMemory() {
+        // Arrange
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(4L);
+
+        // Act
+        counter.get(userId);
+        counter.increment(userId, 1);
+        counter.decrement(userId, 2);
+        long unread = counter.get(userId);
+
+        // Assert
+        assertEquals(3L, unread);
+        verify(notificationRepository, times(1)).countByUserIdAndIsReadFalse(userId);
+        assertEquals(1L, counter.getStats().get("hits"));
+    }
+
+    @Test
+    void testIncrement_UncachedUserLoadsFreshOnNextRead() {
+        // Arrange
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(1L);
+
+        // Act
+        counter.increment(userId, 1);
+        long unread = counter.get(userId);
+
+        // Assert: the write is already in the database count, so it is not added twice
+        assertEquals(1L, unread);
+    }
+
+    @Test
+    void testDecrement_NeverGoesNegative() {
+        // Arrange
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(1L);
+        counter.get(userId);
+
+        // Act
+        counter.decrement(userId, 5);
+
+        // Assert
+        assertEquals(0L, counter.get(userId));
+    }
+
+    @Test
+    void testReconcile_CorrectsDriftAndDropsIdleUsers() {
+        // Arrange
+        UUID idleUser = UUID.randomUUID();
+        when(notificationRepository.countByUserIdAndIsReadFalse(idleUser)).thenReturn(2L);
+        counter.get(idleUser);
+        clock.advance(Duration.ofMinutes(40));
+
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(5L);
+        counter.get(userId);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { userId, 7L });
+        when(notificationRepository.countUnreadByUserIds(anyCollection())).thenReturn(rows);
+
+        // Act
+        counter.reconcile();
+
+        // Assert
+        assertEquals(7L, counter.get(userId));
+        assertEquals(1, counter.getStats().get("users"));
+        verify(notificationRepository).countUnreadByUserIds(List.of(userId));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
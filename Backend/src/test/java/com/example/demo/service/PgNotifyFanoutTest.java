@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.NotificationOutboxRepository;
+import com.example.demo.entity.NotificationOutbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PgNotifyFanoutTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private PgNotifyFanout fanout;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fanout, "enabled", true);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void testPublishToUser_SmallPayloadGoesInline() throws Exception {
+        // Act
+        fanout.publishToUser("outbox:1", userId, Map.of("title", "⚠️ Weather Alert for Dhaka"), "outbox:1");
+
+        // Assert
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"), eq("wanderwise_events"), json.capture());
+        Map<?, ?> envelope = objectMapper.readValue(json.getValue(), Map.class);
+        assertEquals(userId.toString(), envelope.get("target"));
+        assertEquals(Map.of("title", "⚠️ Weather Alert for Dhaka"), envelope.get("payload"));
+        assertFalse(envelope.containsKey("ref"));
+    }
+
+    @Test
+    void testPublishToUser_OversizedPayloadIsSentByReference() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(fanout, "maxPayloadBytes", 200);
+        Map<String, Object> payload = Map.of("message", "x".repeat(500));
+
+        // Act
+        fanout.publishToUser("outbox:7", userId, payload, "outbox:7");
+
+        // Assert
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"), eq("wanderwise_events"), json.capture());
+        assertTrue(json.getValue().length() < 200);
+        Map<?, ?> envelope = objectMapper.readValue(json.getValue(), Map.class);
+        assertEquals("outbox:7", envelope.get("ref"));
+        assertFalse(envelope.containsKey("payload"));
+        assertEquals(1L, fanout.getStats().get("publishedByRef"));
+    }
+
+    @Test
+    void testHandle_ForwardsToLocalSessionsOnce() {
+        // Arrange
+        String json = "{\"id\":\"outbox:1\",\"target\":\"" + userId + "\",\"sentAt\":"
+                + System.currentTimeMillis() + ",\"payload\":{\"title\":\"hi\"}}";
+
+        // Act
+        fanout.handle(json);
+        fanout.handle(json);
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSendToUser(userId.toString(), "/queue/notifications", Map.of("title", "hi"));
+        assertEquals(1L, fanout.getStats().get("forwarded"));
+        assertEquals(1L, fanout.getStats().get("duplicatesSkipped"));
+    }
+
+    @Test
+    void testHandle_LoadsReferencedOutboxRow() {
+        // Arrange
+        NotificationOutbox stored = NotificationOutbox.builder()
+                .id(7L)
+                .userId(userId)
+                .payload("{\"title\":\"stored\"}")
+                .build();
+        when(outboxRepository.findById(7L)).thenReturn(Optional.of(stored));
+        String json = "{\"id\":\"outbox:7\",\"target\":\"" + userId + "\",\"sentAt\":"
+                + System.currentTimeMillis() + ",\"ref\":\"outbox:7\"}";
+
+        // Act
+        fanout.handle(json);
+
+        // Assert
+        verify(messagingTemplate).convertAndSendToUser(userId.toString(), "/queue/notifications", Map.of("title", "stored"));
+    }
+
+    @Test
+    void testReplayGap_ForwardsEventsMissedWhileDisconnected() {
+        // Arrange
+        ReflectionTestUtils.setField(fanout, "lastListeningAt", LocalDateTime.now().minusMinutes(1));
+        NotificationOutbox missed = NotificationOutbox.builder()
+                .id(3L)
+                .userId(userId)
+                .payload("{\"title\":\"missed\"}")
+                .build();
+        when(outboxRepository.findByStatusAndDeliveredAtAfterOrderByIdAsc(eq(NotificationOutbox.Status.DELIVERED), any(LocalDateTime.class)))
+                .thenReturn(List.of(missed));
+
+        // Act
+        fanout.replayGap();
+        // The same event arriving over NOTIFY afterwards is not sent twice
+        fanout.handle("{\"id\":\"outbox:3\",\"target\":\"" + userId + "\",\"sentAt\":0,\"payload\":{}}");
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq(userId.toString()), eq("/queue/notifications"), any(Object.class));
+        assertEquals(1L, fanout.getStats().get("replayed"));
+    }
+}
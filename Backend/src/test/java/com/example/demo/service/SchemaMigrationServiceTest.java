@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaMigrationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SchemaMigrationService migrationService;
+
+    private final SchemaMigrationService.Migration migration =
+            new SchemaMigrationService.Migration("test_migration", List.of("UPDATE a SET b = 1", "UPDATE c SET d = 2"));
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void testApply_RunsStatementsAndRecordsMigration() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("test_migration"))).thenReturn(0);
+
+        // Act
+        boolean applied = migrationService.apply(migration);
+
+        // Assert
+        assertTrue(applied);
+        verify(jdbcTemplate).queryForList(startsWith("SELECT pg_advisory_xact_lock"), any(Object[].class));
+        verify(jdbcTemplate).execute("UPDATE a SET b = 1");
+        verify(jdbcTemplate).execute("UPDATE c SET d = 2");
+        verify(jdbcTemplate).update(startsWith("INSERT INTO schema_migration"), eq("test_migration"), any());
+    }
+
+    @Test
+    void testApply_SkipsRecordedMigration() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("test_migration"))).thenReturn(1);
+
+        // Act
+        boolean applied = migrationService.apply(migration);
+
+        // Assert
+        assertFalse(applied);
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testApply_FailureStopsStartup() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("test_migration"))).thenReturn(0);
+        doThrow(new RuntimeException("boom")).when(jdbcTemplate).execute("UPDATE a SET b = 1");
+
+        // Act & Assert
+        RuntimeException e = assertThrows(RuntimeException.class, () -> migrationService.apply(migration));
+        assertTrue(e.getMessage().contains("test_migration"));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO schema_migration"), any(), any());
+    }
+
+    @Test
+    void testMigrate_DisabledDoesNothing() {
+        ReflectionTestUtils.setField(migrationService, "enabled", false);
+
+        migrationService.migrate();
+
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.demo.service;
 
+import com.example.demo.Repository.TripActivityRepository;
 import com.example.demo.Repository.TripPlanRepository;
-import com.example.demo.Repository.UserRepository;
+import com.example.demo.dto.ChecklistBulkUpdateRequest;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.TripPlanDocument;
+import com.example.demo.entity.TripActivity;
 import com.example.demo.entity.TripPlan;
 import com.example.demo.entity.User;
+import com.example.demo.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,13 +18,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -29,11 +44,17 @@ class TripPlanServiceTest {
     private TripPlanRepository tripPlanRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private TripActivityRepository tripActivityRepository;
 
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private TripPlanService tripPlanService;
 
@@ -82,7 +103,6 @@ class TripPlanServiceTest {
     @Test
     void testAcceptTrip_Success() throws Exception {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(testTripPlanData)).thenReturn(testTripPlan.getTripPlan());
         
         // Create expected TripPlan with proper JSON
@@ -97,7 +117,7 @@ class TripPlanServiceTest {
         when(tripPlanRepository.save(any(TripPlan.class))).thenReturn(expectedTripPlan);
 
         // Act
-        TripPlan result = tripPlanService.acceptTrip("testuser", testTripPlanData);
+        TripPlan result = tripPlanService.acceptTrip(testUser.getId(), testTripPlanData);
 
         // Assert
         assertNotNull(result);
@@ -117,12 +137,11 @@ class TripPlanServiceTest {
     @Test
     void testAcceptTrip_WithCustomStatus() throws Exception {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(testTripPlanData)).thenReturn("{\"destination\":\"Dhaka\"}");
         when(tripPlanRepository.save(any(TripPlan.class))).thenReturn(testTripPlan);
 
         // Act
-        TripPlan result = tripPlanService.acceptTrip("testuser", testTripPlanData, TripPlan.TripStatus.RUNNING);
+        TripPlan result = tripPlanService.acceptTrip(testUser.getId(), testTripPlanData, TripPlan.TripStatus.RUNNING);
 
         // Assert
         assertNotNull(result);
@@ -133,37 +152,6 @@ class TripPlanServiceTest {
         assertEquals(TripPlan.TripStatus.RUNNING, savedTrip.getStatus());
     }
 
-    @Test
-    void testAcceptTrip_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.acceptTrip("nonexistent", testTripPlanData);
-        });
-
-        assertEquals("Failed to save trip: User not found with identifier: nonexistent", exception.getMessage());
-    }
-
-    @Test
-    void testAcceptTrip_FindUserByEmail() throws Exception {
-        // Arrange
-        when(userRepository.findByUsername("test@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(objectMapper.writeValueAsString(testTripPlanData)).thenReturn("{\"destination\":\"Dhaka\"}");
-        when(tripPlanRepository.save(any(TripPlan.class))).thenReturn(testTripPlan);
-
-        // Act
-        TripPlan result = tripPlanService.acceptTrip("test@example.com", testTripPlanData);
-
-        // Assert
-        assertNotNull(result);
-        verify(userRepository).findByUsername("test@example.com");
-        verify(userRepository).findByEmail("test@example.com");
-    }
-
     @Test
     void testUpdateTripStatus_Success() {
         // Arrange
@@ -256,7 +244,6 @@ class TripPlanServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(testUser.getId(), TripPlan.TripStatus.UPCOMING))
                 .thenReturn(Arrays.asList(upcomingTrip));
         when(tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(testUser.getId(), TripPlan.TripStatus.RUNNING))
@@ -265,7 +252,7 @@ class TripPlanServiceTest {
                 .thenReturn(Arrays.asList(completedTrip));
 
         // Act
-        Map<String, Object> result = tripPlanService.getCategorizedTrips("testuser");
+        Map<String, Object> result = tripPlanService.getCategorizedTrips(testUser.getId());
 
         // Assert
         assertNotNull(result);
@@ -290,28 +277,13 @@ class TripPlanServiceTest {
         // which can be inconsistent in unit tests
     }
 
-    @Test
-    void testGetCategorizedTrips_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.getCategorizedTrips("nonexistent");
-        });
-
-        assertEquals("Failed to get categorized trips: User not found with identifier: nonexistent", exception.getMessage());
-    }
-
     @Test
     void testDeleteTripPlan_Success() {
         // Arrange
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         // Act
-        tripPlanService.deleteTripPlan(1L, "testuser");
+        tripPlanService.deleteTripPlan(1L, testUser.getId());
 
         // Assert
         verify(tripPlanRepository).findById(1L);
@@ -321,31 +293,16 @@ class TripPlanServiceTest {
     @Test
     void testDeleteTripPlan_TripNotFound() {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.deleteTripPlan(1L, "testuser");
+            tripPlanService.deleteTripPlan(1L, testUser.getId());
         });
 
         assertEquals("Failed to delete trip plan: Trip plan not found with ID: 1", exception.getMessage());
     }
 
-    @Test
-    void testDeleteTripPlan_UserNotFound() {
-        // Arrange
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("nonexistent")).thenReturn(Optional.empty());
-
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.deleteTripPlan(1L, "nonexistent");
-        });
-
-        assertEquals("Failed to delete trip plan: User not found with identifier: nonexistent", exception.getMessage());
-    }
-
     @Test
     void testDeleteTripPlan_UnauthorizedUser() {
         // Arrange
@@ -354,11 +311,10 @@ class TripPlanServiceTest {
         anotherUser.setUsername("anotheruser");
 
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
-        when(userRepository.findByUsername("anotheruser")).thenReturn(Optional.of(anotherUser));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.deleteTripPlan(1L, "anotheruser");
+            tripPlanService.deleteTripPlan(1L, anotherUser.getId());
         });
 
         assertEquals("Failed to delete trip plan: User not authorized to delete this trip plan", exception.getMessage());
@@ -371,12 +327,11 @@ class TripPlanServiceTest {
         tripPlanWithoutSummary.put("destination", "Dhaka");
         tripPlanWithoutSummary.put("origin", "Chittagong");
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(tripPlanWithoutSummary)).thenReturn("{\"destination\":\"Dhaka\"}");
         when(tripPlanRepository.save(any(TripPlan.class))).thenReturn(testTripPlan);
 
         // Act
-        TripPlan result = tripPlanService.acceptTrip("testuser", tripPlanWithoutSummary);
+        TripPlan result = tripPlanService.acceptTrip(testUser.getId(), tripPlanWithoutSummary);
 
         // Assert
         assertNotNull(result);
@@ -386,12 +341,11 @@ class TripPlanServiceTest {
     @Test
     void testAcceptTrip_JsonProcessingException() throws Exception {
         // Arrange
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(objectMapper.writeValueAsString(testTripPlanData)).thenThrow(new RuntimeException("JSON processing error"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            tripPlanService.acceptTrip("testuser", testTripPlanData);
+            tripPlanService.acceptTrip(testUser.getId(), testTripPlanData);
         });
 
         assertEquals("Failed to save trip: JSON processing error", exception.getMessage());
@@ -438,7 +392,6 @@ class TripPlanServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(testUser.getId(), TripPlan.TripStatus.UPCOMING))
                 .thenReturn(Arrays.asList(trip1, trip2));
         when(tripPlanRepository.findByUserIdAndStatusOrderByCreatedAtDesc(testUser.getId(), TripPlan.TripStatus.RUNNING))
@@ -447,7 +400,7 @@ class TripPlanServiceTest {
                 .thenReturn(Arrays.asList());
 
         // Act
-        Map<String, Object> result = tripPlanService.getCategorizedTrips("testuser");
+        Map<String, Object> result = tripPlanService.getCategorizedTrips(testUser.getId());
 
         // Assert
         List<Map<String, Object>> upcoming = (List<Map<String, Object>>) result.get("upcoming");
@@ -461,4 +414,245 @@ class TripPlanServiceTest {
         assertEquals(2L, secondTrip.get("id"));
         // Note: Don't test destination/origin directly as they depend on JSON parsing
     }
+
+    @Test
+    void testGetTripPlanPage_ReturnsNextCursorWhenMoreRowsExist() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        TripPlan newest = TripPlan.builder().id(3L).userId(testUser.getId()).tripPlan("{}")
+                .status(TripPlan.TripStatus.UPCOMING).createdAt(now).build();
+        TripPlan middle = TripPlan.builder().id(2L).userId(testUser.getId()).tripPlan("{}")
+                .status(TripPlan.TripStatus.UPCOMING).createdAt(now.minusHours(1)).build();
+        TripPlan extra = TripPlan.builder().id(1L).userId(testUser.getId()).tripPlan("{}")
+                .status(TripPlan.TripStatus.UPCOMING).createdAt(now.minusHours(2)).build();
+
+        when(tripPlanRepository.findByUserIdWithPagination(eq(testUser.getId()), any(Pageable.class)))
+                .thenReturn(Arrays.asList(newest, middle, extra));
+
+        // Act
+        CursorPage<TripPlan> page = tripPlanService.getTripPlanPage(testUser.getId(), null, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        KeysetCursor<Long> cursor = KeysetCursor.decodeLong(page.getNextCursor());
+        assertEquals(middle.getId(), cursor.getId());
+        assertEquals(middle.getCreatedAt(), cursor.getCreatedAt());
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(tripPlanRepository).findByUserIdWithPagination(eq(testUser.getId()), pageableCaptor.capture());
+        assertEquals(3, pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void testGetTripPlanPage_WithCursorAndStatus() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        KeysetCursor<Long> cursor = KeysetCursor.of(createdAt, 5L);
+
+        when(tripPlanRepository.findByUserIdAndStatusBeforeCursor(eq(testUser.getId()), eq(TripPlan.TripStatus.UPCOMING),
+                eq(createdAt), eq(5L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+
+        // Act
+        CursorPage<TripPlan> page = tripPlanService.getTripPlanPage(testUser.getId(), TripPlan.TripStatus.UPCOMING, cursor, null);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(CursorPage.DEFAULT_LIMIT, page.getLimit());
+    }
+
+    @Test
+    void testGetDocument_ParsedOncePerTripPlanValue() {
+        // Act
+        TripPlanDocument first = testTripPlan.getDocument();
+        String destination = testTripPlan.getDestination();
+        LocalDate startDate = testTripPlan.getStartDate();
+
+        // Assert
+        assertSame(first, testTripPlan.getDocument());
+        assertEquals("Dhaka", destination);
+        assertEquals(LocalDate.of(2025, 8, 1), startDate);
+        assertEquals(3, testTripPlan.getDurationDays());
+        assertEquals(25000.0, testTripPlan.getBudget());
+
+        // Replacing the JSON invalidates the cached document
+        testTripPlan.setTripPlan("{\"destination\":\"Sylhet\",\"duration_days\":2}");
+        assertNotSame(first, testTripPlan.getDocument());
+        assertEquals("Sylhet", testTripPlan.getDestination());
+        assertEquals(2, testTripPlan.getDurationDays());
+    }
+
+    @Test
+    void testMaterializeChecklist_BatchInsertsItineraryActivities() {
+        // Arrange
+        testTripPlan.setTripPlan("""
+            {
+                "daily_itinerary": [
+                    {
+                        "day": 1,
+                        "morning_activity": {"spot_name": "Lalbagh Fort"},
+                        "afternoon_activities": [{"spot_name": "Ahsan Manzil"}],
+                        "accommodation_options": [{"hotel_name": "Hotel A", "cost_per_night": 3000}]
+                    },
+                    {
+                        "day": 2,
+                        "morning_activity": {"spot_name": "Sonargaon"}
+                    }
+                ]
+            }
+            """);
+        when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 1, 0 });
+
+        // Act
+        int inserted = tripPlanService.materializeChecklist(1L);
+
+        // Assert
+        assertEquals(2, inserted);
+        ArgumentCaptor<List<Object[]>> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT (trip_id, activity) DO UPDATE"), rowsCaptor.capture());
+        List<Object[]> rows = rowsCaptor.getValue();
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[] { 1L, "Lalbagh Fort", 1, 0 }, rows.get(0));
+        assertArrayEquals(new Object[] { 1L, "Ahsan Manzil", 1, 1 }, rows.get(1));
+        assertArrayEquals(new Object[] { 1L, "Sonargaon", 2, 2 }, rows.get(2));
+        verify(tripActivityRepository, never()).save(any(TripActivity.class));
+    }
+
+    @Test
+    void testGetChecklist_BackfillsOrderForRowsWrittenBeforeSortOrder() {
+        // Arrange
+        testTripPlan.setTripPlan("{\"daily_itinerary\": [{\"day\": 1, \"morning_activity\": {\"spot_name\": \"Lalbagh Fort\"}}]}");
+        TripActivity fort = TripActivity.builder().tripId(1L).activity("Lalbagh Fort").completed(true).dayNumber(1).sortOrder(0).build();
+        when(tripActivityRepository.existsByTripIdAndSortOrderIsNotNull(1L)).thenReturn(false);
+        when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1 });
+        when(tripActivityRepository.findAllByTripIdOrderBySortOrderAsc(1L)).thenReturn(List.of(fort));
+
+        // Act
+        Map<String, Boolean> checklist = tripPlanService.getChecklist(1L);
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(contains("WHERE trip_activity.sort_order IS NULL"), anyList());
+        verify(jdbcTemplate).update(contains("sort_order IS NULL"), eq(1), eq(1L));
+        assertTrue(checklist.get("Lalbagh Fort"));
+    }
+
+    @Test
+    void testGetChecklist_ReadsStoredCompletionWithoutReparsing() {
+        // Arrange
+        TripActivity fort = TripActivity.builder().tripId(1L).activity("Lalbagh Fort").completed(true).sortOrder(0).build();
+        TripActivity manzil = TripActivity.builder().tripId(1L).activity("Ahsan Manzil").completed(false).sortOrder(1).build();
+        when(tripActivityRepository.existsByTripIdAndSortOrderIsNotNull(1L)).thenReturn(true);
+        when(tripActivityRepository.findAllByTripIdOrderBySortOrderAsc(1L)).thenReturn(Arrays.asList(fort, manzil));
+
+        // Act
+        Map<String, Boolean> checklist = tripPlanService.getChecklist(1L);
+
+        // Assert
+        assertEquals(Arrays.asList("Lalbagh Fort", "Ahsan Manzil"), new ArrayList<>(checklist.keySet()));
+        assertTrue(checklist.get("Lalbagh Fort"));
+        assertFalse(checklist.get("Ahsan Manzil"));
+        verify(tripPlanRepository, never()).findById(anyLong());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testBulkUpdateChecklist_TwoSetBasedUpdatesWithLastChangeWinning() {
+        // Arrange
+        List<ChecklistBulkUpdateRequest.ActivityChange> changes = Arrays.asList(
+                new ChecklistBulkUpdateRequest.ActivityChange("Lalbagh Fort", true),
+                new ChecklistBulkUpdateRequest.ActivityChange("Ahsan Manzil", true),
+                new ChecklistBulkUpdateRequest.ActivityChange("Star Mosque", true),
+                new ChecklistBulkUpdateRequest.ActivityChange("Lalbagh Fort", false));
+        when(jdbcTemplate.update(contains("activity = ANY(?)"), eq(true), eq(1L), any(String[].class))).thenReturn(2);
+        when(jdbcTemplate.update(contains("activity = ANY(?)"), eq(false), eq(1L), any(String[].class))).thenReturn(1);
+
+        // Act
+        int updated = tripPlanService.bulkUpdateChecklist(1L, changes);
+
+        // Assert
+        assertEquals(3, updated);
+        verify(jdbcTemplate).update(startsWith("UPDATE trip_activity"), eq(true), eq(1L),
+                aryEq(new String[] { "Ahsan Manzil", "Star Mosque" }));
+        verify(jdbcTemplate).update(startsWith("UPDATE trip_activity"), eq(false), eq(1L),
+                aryEq(new String[] { "Lalbagh Fort" }));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(tripActivityRepository, never()).save(any(TripActivity.class));
+    }
+
+    @Test
+    void testBulkUpdateChecklist_OnlyCheckedRunsOneStatement() {
+        // Arrange
+        List<ChecklistBulkUpdateRequest.ActivityChange> changes = List.of(
+                new ChecklistBulkUpdateRequest.ActivityChange("Lalbagh Fort", true));
+        when(jdbcTemplate.update(anyString(), eq(true), eq(1L), any(String[].class))).thenReturn(1);
+
+        // Act
+        int updated = tripPlanService.bulkUpdateChecklist(1L, changes);
+
+        // Assert
+        assertEquals(1, updated);
+        verify(jdbcTemplate, never()).update(anyString(), eq(false), any(), any());
+    }
+
+    @Test
+    void testGetChecklistProgress_SumsPerDayRows() {
+        // Arrange
+        when(tripActivityRepository.findProgressByDay(1L)).thenReturn(Arrays.asList(
+                new Object[] { 1, 3L, 2L },
+                new Object[] { 2, 2L, null }));
+
+        // Act
+        Map<String, Object> progress = tripPlanService.getChecklistProgress(1L);
+
+        // Assert
+        assertEquals(2L, progress.get("completed"));
+        assertEquals(5L, progress.get("total"));
+        List<Map<String, Object>> days = (List<Map<String, Object>>) progress.get("days");
+        assertEquals(2, days.size());
+        assertEquals(1, days.get(0).get("day"));
+        assertEquals(2L, days.get(0).get("completed"));
+        assertEquals(0L, days.get(1).get("completed"));
+        assertEquals(2L, days.get(1).get("total"));
+    }
+
+    @Test
+    void testAutoUpdateTripStatus_StreamsTripsAndBulkUpdates() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        TripPlan started = tripStarting(2L, today.minusDays(1), 3);
+        TripPlan notYet = tripStarting(3L, today.plusDays(5), 3);
+        TripPlan ended = tripStarting(4L, today.minusDays(10), 2);
+        when(tripPlanRepository.streamByStatus(TripPlan.TripStatus.UPCOMING)).thenReturn(Stream.of(started, notYet));
+        when(tripPlanRepository.streamByStatus(TripPlan.TripStatus.RUNNING)).thenReturn(Stream.of(ended));
+        when(tripPlanRepository.updateStatusByIds(List.of(2L), TripPlan.TripStatus.RUNNING)).thenReturn(1);
+        when(tripPlanRepository.updateStatusByIds(List.of(4L), TripPlan.TripStatus.COMPLETED)).thenReturn(1);
+
+        // Act
+        Map<String, Object> result = tripPlanService.autoUpdateTripStatus();
+
+        // Assert
+        assertEquals(true, result.get("success"));
+        assertEquals(2, result.get("upcomingTripsChecked"));
+        assertEquals(1, result.get("upcomingToRunning"));
+        assertEquals(1, result.get("runningToCompleted"));
+        assertEquals(2, result.get("updatedCount"));
+        verify(tripPlanRepository, never()).save(any(TripPlan.class));
+        verify(tripPlanRepository, never()).findByStatus(any());
+        verify(entityManager, atLeast(2)).clear();
+    }
+
+    private TripPlan tripStarting(Long id, LocalDate startDate, int duration) {
+        return TripPlan.builder()
+                .id(id)
+                .userId(testUser.getId())
+                .tripPlan("{\"trip_summary\": {\"destination\": \"Sylhet\", \"start_date\": \"" + startDate
+                        + "\", \"duration\": " + duration + "}}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
 }
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.WeatherAlertDigestItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherAlertDigestQueueTest {
+
+    private static final String RUN_ID = "2025-07-10T08:00";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private WeatherAlertDigestQueue weatherAlertDigestQueue;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void testCompletePartition_WaitsForTheOtherPartitions() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(RUN_ID))).thenReturn(1);
+
+        // Act
+        boolean last = weatherAlertDigestQueue.completePartition(RUN_ID, 0, 2,
+                Map.of(userId, List.of(new WeatherAlertDigestItem(userId, 1L, "Dhaka", "Thunderstorm"))),
+                Map.of(1L, "fp-1"));
+
+        // Assert
+        assertFalse(last);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO weather_alert_pending"), anyList(), eq(1), any());
+        verify(jdbcTemplate).update(startsWith("INSERT INTO weather_scan_partition_done"), eq(RUN_ID), eq(0), any());
+    }
+
+    @Test
+    void testCompletePartition_LastPartitionWithoutAlertsStillCompletesTheRun() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(RUN_ID))).thenReturn(2);
+
+        // Act
+        boolean last = weatherAlertDigestQueue.completePartition(RUN_ID, 1, 2, Map.of(), Map.of());
+
+        // Assert
+        assertTrue(last);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+        verify(jdbcTemplate).update(startsWith("INSERT INTO weather_scan_partition_done"), eq(RUN_ID), eq(1), any());
+    }
+
+    @Test
+    void testDrain_GroupsByUserAndKeepsLatestAlertPerTrip() {
+        // Arrange
+        UUID otherUser = UUID.randomUUID();
+        doReturn(List.of(
+                new WeatherAlertDigestQueue.PendingAlert(3L, new WeatherAlertDigestItem(userId, 1L, "Dhaka", "Heavy rain"), "fp-new"),
+                new WeatherAlertDigestQueue.PendingAlert(1L, new WeatherAlertDigestItem(userId, 1L, "Dhaka", "Thunderstorm"), "fp-old"),
+                new WeatherAlertDigestQueue.PendingAlert(2L, new WeatherAlertDigestItem(userId, 2L, "Sylhet", "Strong wind"), "fp-2"),
+                new WeatherAlertDigestQueue.PendingAlert(4L, new WeatherAlertDigestItem(otherUser, 5L, "Cox's Bazar", "Cyclone"), "fp-5")))
+                .when(jdbcTemplate).query(startsWith("DELETE FROM weather_alert_pending"), any(RowMapper.class));
+        List<WeatherAlertDigestQueue.PendingDigests> sent = new ArrayList<>();
+
+        // Act
+        int drained = weatherAlertDigestQueue.drain(sent::add);
+
+        // Assert
+        assertEquals(3, drained);
+        assertEquals(1, sent.size());
+        Map<UUID, List<WeatherAlertDigestItem>> alertsByUser = sent.get(0).alertsByUser();
+        assertEquals(2, alertsByUser.get(userId).size());
+        assertEquals("Heavy rain", alertsByUser.get(userId).get(0).getWeatherInfo());
+        assertEquals(1, alertsByUser.get(otherUser).size());
+        assertEquals("fp-new", sent.get(0).fingerprints().get(1L));
+    }
+
+    @Test
+    void testDrain_FailedSendRollsBackSoAlertsStayQueued() {
+        // Arrange
+        doReturn(List.of(
+                new WeatherAlertDigestQueue.PendingAlert(1L, new WeatherAlertDigestItem(userId, 1L, "Dhaka", "Thunderstorm"), "fp-1")))
+                .when(jdbcTemplate).query(startsWith("DELETE FROM weather_alert_pending"), any(RowMapper.class));
+
+        // Act
+        assertThrows(RuntimeException.class, () -> weatherAlertDigestQueue.drain(pending -> {
+            throw new RuntimeException("Failed to save weather alert digests: connection reset");
+        }));
+
+        // Assert
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void testDrain_EmptyQueueSendsNothing() {
+        // Arrange
+        doReturn(List.of()).when(jdbcTemplate).query(startsWith("DELETE FROM weather_alert_pending"), any(RowMapper.class));
+        List<WeatherAlertDigestQueue.PendingDigests> sent = new ArrayList<>();
+
+        // Act
+        int drained = weatherAlertDigestQueue.drain(sent::add);
+
+        // Assert
+        assertEquals(0, drained);
+        assertTrue(sent.isEmpty());
+    }
+}
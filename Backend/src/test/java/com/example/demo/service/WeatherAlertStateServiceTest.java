@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.WeatherAlertStateRepository;
+import com.example.demo.entity.WeatherAlertState;
+import com.example.demo.service.WeatherAlertStateService.AlertDecision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherAlertStateServiceTest {
+
+    @Mock
+    private WeatherAlertStateRepository weatherAlertStateRepository;
+
+    @InjectMocks
+    private WeatherAlertStateService weatherAlertStateService;
+
+    @Test
+    void testEvaluate_FirstAdverseSetIsSent() {
+        // Arrange
+        when(weatherAlertStateRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        AlertDecision decision = weatherAlertStateService.evaluate(1L, "abc");
+
+        // Assert
+        assertEquals(AlertDecision.SEND, decision);
+        verify(weatherAlertStateRepository).save(any(WeatherAlertState.class));
+    }
+
+    @Test
+    void testEvaluate_SameFingerprintIsSuppressed() {
+        // Arrange
+        WeatherAlertState state = WeatherAlertState.builder()
+                .tripId(1L)
+                .fingerprint("abc")
+                .lastAlertedAt(LocalDateTime.now().minusDays(2))
+                .build();
+        when(weatherAlertStateRepository.findById(1L)).thenReturn(Optional.of(state));
+
+        // Act
+        AlertDecision decision = weatherAlertStateService.evaluate(1L, "abc");
+
+        // Assert
+        assertEquals(AlertDecision.DUPLICATE, decision);
+        assertEquals(1, state.getSuppressedCount());
+        assertEquals(1, weatherAlertStateService.getSuppressedTotal());
+    }
+
+    @Test
+    void testEvaluate_ChangeWithinCoolDownIsSuppressed() {
+        // Arrange
+        WeatherAlertState state = WeatherAlertState.builder()
+                .tripId(1L)
+                .fingerprint("abc")
+                .lastAlertedAt(LocalDateTime.now().minusMinutes(30))
+                .build();
+        when(weatherAlertStateRepository.findById(1L)).thenReturn(Optional.of(state));
+
+        // Act
+        AlertDecision decision = weatherAlertStateService.evaluate(1L, "def");
+
+        // Assert
+        assertEquals(AlertDecision.COOL_DOWN, decision);
+        assertEquals("abc", state.getFingerprint());
+    }
+
+    @Test
+    void testEvaluate_ClearWithoutStateWritesNothing() {
+        // Arrange
+        when(weatherAlertStateRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        AlertDecision decision = weatherAlertStateService.evaluate(1L, null);
+
+        // Assert
+        assertEquals(AlertDecision.CLEAR, decision);
+        verify(weatherAlertStateRepository, never()).save(any());
+    }
+
+    @Test
+    void testMarkSent_StoresFingerprint() {
+        // Arrange
+        when(weatherAlertStateRepository.findById(1L)).thenReturn(Optional.empty());
+        ArgumentCaptor<WeatherAlertState> captor = ArgumentCaptor.forClass(WeatherAlertState.class);
+
+        // Act
+        weatherAlertStateService.markSent(1L, "abc");
+
+        // Assert
+        verify(weatherAlertStateRepository).save(captor.capture());
+        assertEquals("abc", captor.getValue().getFingerprint());
+        assertNotNull(captor.getValue().getLastAlertedAt());
+    }
+
+    @Test
+    void testFingerprint_IgnoresReadingsAndOrder() {
+        // Arrange
+        List<Map<String, Object>> scan1 = List.of(
+                day("2025-07-10", "Strong winds: 36.0 km/h", "Heavy precipitation: 16.0mm"),
+                day("2025-07-11", "Severe weather: Thunderstorm"));
+        List<Map<String, Object>> scan2 = List.of(
+                day("2025-07-11", "Severe weather: Thunderstorm"),
+                day("2025-07-10", "Heavy precipitation: 18.4mm", "Strong winds: 38.2 km/h"));
+        List<Map<String, Object>> scan3 = List.of(
+                day("2025-07-10", "Strong winds: 36.0 km/h"));
+
+        // Act & Assert
+        assertEquals(WeatherAlertStateService.fingerprint(scan1), WeatherAlertStateService.fingerprint(scan2));
+        assertNotEquals(WeatherAlertStateService.fingerprint(scan1), WeatherAlertStateService.fingerprint(scan3));
+        assertNull(WeatherAlertStateService.fingerprint(List.of()));
+    }
+
+    private Map<String, Object> day(String date, String... reasons) {
+        Map<String, Object> day = new HashMap<>();
+        day.put("date", date);
+        day.put("alert_reasons", Arrays.asList(reasons));
+        return day;
+    }
+}
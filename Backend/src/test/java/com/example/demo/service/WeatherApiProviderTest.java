@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherApiProviderTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private WeatherApiProvider weatherApiProvider;
+
+    @Test
+    void testFetchForecast_ParsesForecastDays() {
+        // Arrange
+        String mockWeatherResponse = "{"
+                + "\"forecast\": {"
+                + "\"forecastday\": [{"
+                + "\"date\": \"2025-07-10\","
+                + "\"day\": {"
+                + "\"condition\": {\"text\": \"Sunny\", \"icon\": \"//cdn.weatherapi.com/113.png\"},"
+                + "\"avgtemp_c\": 30.0,"
+                + "\"avghumidity\": 65,"
+                + "\"totalprecip_mm\": 0.0,"
+                + "\"maxwind_kph\": 10.0"
+                + "}}]}}";
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockWeatherResponse);
+
+        // Act
+        List<Map<String, Object>> forecast = weatherApiProvider.fetchForecast("Dhaka", 5);
+
+        // Assert
+        assertEquals(1, forecast.size());
+        assertEquals("2025-07-10", forecast.get(0).get("date"));
+        assertEquals("Sunny", forecast.get(0).get("condition"));
+        assertEquals("https://cdn.weatherapi.com/113.png", forecast.get(0).get("icon"));
+        assertEquals(30.0, forecast.get(0).get("avg_temp_c"));
+        verify(restTemplate).getForObject(argThat((String url) -> url.contains("q=Dhaka") && url.contains("days=3")), eq(String.class));
+    }
+
+    @Test
+    void testFetchForecast_ApiFailure() {
+        // Arrange
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> weatherApiProvider.fetchForecast("Dhaka", 3));
+        assertEquals("WeatherAPI error: Connection refused", exception.getMessage());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherForecastCacheTest {
+
+    private MutableClock clock;
+    private WeatherForecastCache cache;
+    private AtomicInteger loads;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-07-10T06:00:00Z"));
+        cache = new WeatherForecastCache(Duration.ofMinutes(30), 2, clock);
+        loads = new AtomicInteger();
+        today = LocalDate.of(2025, 7, 10);
+    }
+
+    @Test
+    void testGetOrLoad_NormalizedLocationSharesEntry() {
+        // Act
+        cache.getOrLoad("Cox's Bazar", today, this::loadForecast);
+        cache.getOrLoad("  cox's   BAZAR ", today, this::loadForecast);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void testGetOrLoad_ReloadsAfterTtl() {
+        // Arrange
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Act
+        clock.advance(Duration.ofMinutes(31));
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetOrLoad_FailedLoadIsNotCached() {
+        // Act
+        assertNull(cache.getOrLoad("Dhaka", today, () -> null));
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().get("size"));
+    }
+
+    @Test
+    void testGetOrLoad_BoundedSizeEvictsOldest() {
+        // Arrange
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+        clock.advance(Duration.ofMinutes(1));
+        cache.getOrLoad("Sylhet", today, this::loadForecast);
+        clock.advance(Duration.ofMinutes(1));
+
+        // Act
+        cache.getOrLoad("Rangamati", today, this::loadForecast);
+        cache.getOrLoad("Sylhet", today, this::loadForecast);
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Assert: Dhaka was evicted and had to be loaded again
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().get("size"));
+    }
+
+    @Test
+    void testGetOrLoad_CallersGetIndependentCopies() {
+        // Arrange
+        List<Map<String, Object>> first = cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Act
+        first.get(0).put("alert_reasons", List.of("Strong winds"));
+        List<Map<String, Object>> second = cache.getOrLoad("Dhaka", today, this::loadForecast);
+
+        // Assert
+        assertFalse(second.get(0).containsKey("alert_reasons"));
+    }
+
+    @Test
+    void testReadSinceLoad_OnlyReadersMarkAnEntry() {
+        // Arrange - a refresh (prefetch) loads without reading
+        cache.refresh("Dhaka", today, this::loadForecast);
+
+        // Act & Assert
+        assertFalse(cache.readSinceLoad("Dhaka", today));
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+        assertTrue(cache.readSinceLoad("Dhaka", today));
+
+        // A refresh starts a new entry that nobody has read yet
+        cache.refresh("Dhaka", today, this::loadForecast);
+        assertFalse(cache.readSinceLoad("Dhaka", today));
+        assertFalse(cache.readSinceLoad("Sylhet", today));
+    }
+
+    @Test
+    void testRefresh_ExtendsLiveEntryAndFailedRefreshKeepsIt() {
+        // Arrange
+        cache.getOrLoad("Dhaka", today, this::loadForecast);
+        clock.advance(Duration.ofMinutes(25));
+
+        // Act
+        assertTrue(cache.refresh("Dhaka", today, this::loadForecast));
+        assertFalse(cache.refresh("Dhaka", today, () -> null));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(Duration.ofMinutes(30), cache.timeToExpiry("dhaka", today));
+        assertEquals(1L, cache.getStats().get("refreshes"));
+    }
+
+    private List<Map<String, Object>> loadForecast() {
+        loads.incrementAndGet();
+        Map<String, Object> day = new HashMap<>();
+        day.put("date", today.toString());
+        day.put("condition", "Sunny");
+        List<Map<String, Object>> forecast = new ArrayList<>();
+        forecast.add(day);
+        return forecast;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
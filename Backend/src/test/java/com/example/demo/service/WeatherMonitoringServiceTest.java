@@ -1,24 +1,28 @@
 package com.example.demo.service;
 
 import com.example.demo.Repository.TripPlanRepository;
+import com.example.demo.dto.WeatherAlertDigestItem;
 import com.example.demo.entity.TripPlan;
 import com.example.demo.entity.User;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -29,13 +33,25 @@ class WeatherMonitoringServiceTest {
     private TripPlanRepository tripPlanRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private WeatherProvider weatherProvider;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private NotificationService notificationService;
+
+    @Spy
+    private WeatherForecastCache weatherForecastCache = new WeatherForecastCache(30, 500);
+
+    @Spy
+    private WeatherScanExecutor weatherScanExecutor = new WeatherScanExecutor(2, 2);
 
     @Mock
-    private NotificationService notificationService;
+    private WeatherAlertStateService weatherAlertStateService;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private WeatherAlertDigestQueue weatherAlertDigestQueue;
 
     @InjectMocks
     private WeatherMonitoringService weatherMonitoringService;
@@ -74,68 +90,17 @@ class WeatherMonitoringServiceTest {
     @Test
     void testManualWeatherCheck_Success() {
         // Arrange
-        when(tripPlanRepository.findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class)))
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
                 .thenReturn(Arrays.asList(testTripPlan));
 
-        // Mock weather API response
-        String mockWeatherResponse = "{"
-                + "\"forecast\": {"
-                + "\"forecastday\": [{"
-                + "\"date\": \"2025-07-10\","
-                + "\"day\": {"
-                + "\"condition\": {\"text\": \"Sunny\"},"
-                + "\"avgtemp_c\": 30.0,"
-                + "\"totalprecip_mm\": 0.0,"
-                + "\"maxwind_kph\": 10.0"
-                + "}}]}}";
-
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockWeatherResponse);
-
-        // Mock ObjectMapper
-        try {
-            JsonNode mockRootNode = mock(JsonNode.class);
-            JsonNode mockForecastNode = mock(JsonNode.class);
-            JsonNode mockForecastDayNode = mock(JsonNode.class);
-            JsonNode mockDayNode = mock(JsonNode.class);
-            JsonNode mockConditionNode = mock(JsonNode.class);
-            JsonNode mockDateNode = mock(JsonNode.class);
-            JsonNode mockTempNode = mock(JsonNode.class);
-            JsonNode mockPrecipNode = mock(JsonNode.class);
-            JsonNode mockWindNode = mock(JsonNode.class);
-
-            when(objectMapper.readTree(mockWeatherResponse)).thenReturn(mockRootNode);
-            when(mockRootNode.path("forecast")).thenReturn(mockForecastNode);
-            when(mockForecastNode.path("forecastday")).thenReturn(mockForecastDayNode);
-            when(mockForecastDayNode.iterator()).thenReturn(Arrays.asList(mockDayNode).iterator());
-            
-            when(mockDayNode.get("date")).thenReturn(mockDateNode);
-            when(mockDateNode.asText()).thenReturn("2025-07-10");
-            
-            when(mockDayNode.path("day")).thenReturn(mockDayNode);
-            when(mockDayNode.path("condition")).thenReturn(mockConditionNode);
-            when(mockConditionNode.path("text")).thenReturn(mockConditionNode);
-            when(mockConditionNode.asText()).thenReturn("Sunny");
-            
-            when(mockDayNode.path("avgtemp_c")).thenReturn(mockTempNode);
-            when(mockTempNode.asDouble()).thenReturn(30.0);
-            
-            when(mockDayNode.path("totalprecip_mm")).thenReturn(mockPrecipNode);
-            when(mockPrecipNode.asDouble()).thenReturn(0.0);
-            
-            when(mockDayNode.path("maxwind_kph")).thenReturn(mockWindNode);
-            when(mockWindNode.asDouble()).thenReturn(10.0);
-
-        } catch (Exception e) {
-            fail("Failed to mock ObjectMapper: " + e.getMessage());
-        }
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
 
         // Act
         weatherMonitoringService.manualWeatherCheck();
 
         // Assert
-        verify(tripPlanRepository).findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class));
-        verify(restTemplate).getForObject(anyString(), eq(String.class));
+        verify(tripPlanRepository).findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class));
+        verify(weatherProvider).fetchForecast(anyString(), anyInt());
     }
 
     @Test
@@ -143,58 +108,7 @@ class WeatherMonitoringServiceTest {
         // Arrange
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
 
-        // Mock weather API response
-        String mockWeatherResponse = "{"
-                + "\"forecast\": {"
-                + "\"forecastday\": [{"
-                + "\"date\": \"2025-07-10\","
-                + "\"day\": {"
-                + "\"condition\": {\"text\": \"Sunny\"},"
-                + "\"avgtemp_c\": 30.0,"
-                + "\"totalprecip_mm\": 0.0,"
-                + "\"maxwind_kph\": 10.0"
-                + "}}]}}";
-
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockWeatherResponse);
-
-        // Mock ObjectMapper
-        try {
-            JsonNode mockRootNode = mock(JsonNode.class);
-            JsonNode mockForecastNode = mock(JsonNode.class);
-            JsonNode mockForecastDayNode = mock(JsonNode.class);
-            JsonNode mockDayNode = mock(JsonNode.class);
-            JsonNode mockConditionNode = mock(JsonNode.class);
-            JsonNode mockDateNode = mock(JsonNode.class);
-            JsonNode mockTempNode = mock(JsonNode.class);
-            JsonNode mockPrecipNode = mock(JsonNode.class);
-            JsonNode mockWindNode = mock(JsonNode.class);
-
-            when(objectMapper.readTree(mockWeatherResponse)).thenReturn(mockRootNode);
-            when(mockRootNode.path("forecast")).thenReturn(mockForecastNode);
-            when(mockForecastNode.path("forecastday")).thenReturn(mockForecastDayNode);
-            when(mockForecastDayNode.iterator()).thenReturn(Arrays.asList(mockDayNode).iterator());
-            
-            when(mockDayNode.get("date")).thenReturn(mockDateNode);
-            when(mockDateNode.asText()).thenReturn("2025-07-10");
-            
-            when(mockDayNode.path("day")).thenReturn(mockDayNode);
-            when(mockDayNode.path("condition")).thenReturn(mockConditionNode);
-            when(mockConditionNode.path("text")).thenReturn(mockConditionNode);
-            when(mockConditionNode.asText()).thenReturn("Sunny");
-            
-            when(mockDayNode.path("avgtemp_c")).thenReturn(mockTempNode);
-            when(mockTempNode.asDouble()).thenReturn(30.0);
-            
-            when(mockDayNode.path("totalprecip_mm")).thenReturn(mockPrecipNode);
-            when(mockPrecipNode.asDouble()).thenReturn(0.0);
-            
-            when(mockDayNode.path("maxwind_kph")).thenReturn(mockWindNode);
-            when(mockWindNode.asDouble()).thenReturn(10.0);
-
-        } catch (Exception e) {
-            fail("Failed to mock ObjectMapper: " + e.getMessage());
-        }
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
 
         // Act
         Map<String, Object> result = weatherMonitoringService.getWeatherDetailsForTrip(1L);
@@ -207,7 +121,7 @@ class WeatherMonitoringServiceTest {
         assertTrue(result.containsKey("alerts"));
         
         verify(tripPlanRepository).findById(1L);
-        verify(restTemplate).getForObject(anyString(), eq(String.class));
+        verify(weatherProvider).fetchForecast(anyString(), anyInt());
     }
 
     @Test
@@ -228,7 +142,7 @@ class WeatherMonitoringServiceTest {
     void testGetWeatherDetailsForTrip_WeatherAPIFailure() {
         // Arrange
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
+        when(weatherProvider.fetchForecast(anyString(), anyInt()))
                 .thenThrow(new RuntimeException("Weather API error"));
 
         // Act & Assert
@@ -238,7 +152,7 @@ class WeatherMonitoringServiceTest {
 
         assertEquals("Failed to fetch weather data", exception.getMessage());
         verify(tripPlanRepository).findById(1L);
-        verify(restTemplate).getForObject(anyString(), eq(String.class));
+        verify(weatherProvider).fetchForecast(anyString(), anyInt());
     }
 
 //    @Test
@@ -289,7 +203,7 @@ class WeatherMonitoringServiceTest {
     void testGetWeatherDetailsForTrip_WeatherDataFetchFailure() {
         // Arrange
         when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
+        when(weatherProvider.fetchForecast(anyString(), anyInt()))
                 .thenThrow(new RuntimeException("API Error"));
 
         // Act & Assert
@@ -299,90 +213,303 @@ class WeatherMonitoringServiceTest {
 
         assertEquals("Failed to fetch weather data", exception.getMessage());
         verify(tripPlanRepository).findById(1L);
-        verify(restTemplate).getForObject(anyString(), eq(String.class));
+        verify(weatherProvider).fetchForecast(anyString(), anyInt());
     }
 
     @Test
     void testScheduleWeatherCheck_NoUpcomingTrips() {
         // Arrange
-        when(tripPlanRepository.findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(Collections.emptyList());
-        when(tripPlanRepository.findByStatus(TripPlan.TripStatus.UPCOMING))
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
+        when(tripPlanRepository.countByStatus(TripPlan.TripStatus.UPCOMING)).thenReturn(0L);
 
         // Act
         weatherMonitoringService.scheduleWeatherCheck();
 
         // Assert
-        verify(tripPlanRepository).findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class));
-        verify(tripPlanRepository).findByStatus(TripPlan.TripStatus.UPCOMING);
+        verify(tripPlanRepository).findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class));
+        verify(tripPlanRepository).countByStatus(TripPlan.TripStatus.UPCOMING);
+        verify(tripPlanRepository, never()).findTop3ByStatusOrderByIdAsc(any());
     }
 
     @Test
     void testScheduleWeatherCheck_WithUpcomingTrips() {
         // Arrange
-        when(tripPlanRepository.findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class)))
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
                 .thenReturn(Arrays.asList(testTripPlan));
 
-        // Mock weather API response for good weather
-        String mockWeatherResponse = "{"
-                + "\"forecast\": {"
-                + "\"forecastday\": [{"
-                + "\"date\": \"2025-07-10\","
-                + "\"day\": {"
-                + "\"condition\": {\"text\": \"Sunny\"},"
-                + "\"avgtemp_c\": 30.0,"
-                + "\"totalprecip_mm\": 0.0,"
-                + "\"maxwind_kph\": 10.0"
-                + "}}]}}";
-
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockWeatherResponse);
-
-        // Mock ObjectMapper for good weather
-        try {
-            JsonNode mockRootNode = mock(JsonNode.class);
-            JsonNode mockForecastNode = mock(JsonNode.class);
-            JsonNode mockForecastDayNode = mock(JsonNode.class);
-            JsonNode mockDayNode = mock(JsonNode.class);
-            JsonNode mockConditionNode = mock(JsonNode.class);
-            JsonNode mockDateNode = mock(JsonNode.class);
-            JsonNode mockTempNode = mock(JsonNode.class);
-            JsonNode mockPrecipNode = mock(JsonNode.class);
-            JsonNode mockWindNode = mock(JsonNode.class);
-
-            when(objectMapper.readTree(mockWeatherResponse)).thenReturn(mockRootNode);
-            when(mockRootNode.path("forecast")).thenReturn(mockForecastNode);
-            when(mockForecastNode.path("forecastday")).thenReturn(mockForecastDayNode);
-            when(mockForecastDayNode.iterator()).thenReturn(Arrays.asList(mockDayNode).iterator());
-            
-            when(mockDayNode.get("date")).thenReturn(mockDateNode);
-            when(mockDateNode.asText()).thenReturn("2025-07-10");
-            
-            when(mockDayNode.path("day")).thenReturn(mockDayNode);
-            when(mockDayNode.path("condition")).thenReturn(mockConditionNode);
-            when(mockConditionNode.path("text")).thenReturn(mockConditionNode);
-            when(mockConditionNode.asText()).thenReturn("Sunny");
-            
-            when(mockDayNode.path("avgtemp_c")).thenReturn(mockTempNode);
-            when(mockTempNode.asDouble()).thenReturn(30.0);
-            
-            when(mockDayNode.path("totalprecip_mm")).thenReturn(mockPrecipNode);
-            when(mockPrecipNode.asDouble()).thenReturn(0.0);
-            
-            when(mockDayNode.path("maxwind_kph")).thenReturn(mockWindNode);
-            when(mockWindNode.asDouble()).thenReturn(10.0);
-
-        } catch (Exception e) {
-            fail("Failed to mock ObjectMapper: " + e.getMessage());
-        }
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(tripPlanRepository).findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class));
+        verify(weatherProvider).fetchForecast(anyString(), anyInt());
+    }
+
+    @Test
+    void testScheduleWeatherCheck_SameDestinationFetchedOnce() {
+        // Arrange
+        TripPlan secondTrip = TripPlan.builder()
+                .id(2L)
+                .userId(UUID.randomUUID())
+                .tripPlan(testTripPlan.getTripPlan().replace("\"Dhaka\"", "\"  dhaka \""))
+                .status(TripPlan.TripStatus.UPCOMING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan, secondTrip));
+        when(tripPlanRepository.findById(1L)).thenReturn(Optional.of(testTripPlan));
+
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+        weatherMonitoringService.getWeatherDetailsForTrip(1L);
+
+        // Assert
+        verify(weatherProvider, times(1)).fetchForecast(anyString(), anyInt());
+        assertEquals(1, weatherForecastCache.getStats().get("size"));
+    }
+
+    @Test
+    void testScheduleWeatherCheck_RecordsScanMetricsPerDestination() {
+        // Arrange
+        TripPlan sylhetTrip = TripPlan.builder()
+                .id(2L)
+                .userId(UUID.randomUUID())
+                .tripPlan(testTripPlan.getTripPlan().replace("\"Dhaka\"", "\"Sylhet\""))
+                .status(TripPlan.TripStatus.UPCOMING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan, sylhetTrip));
+
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenAnswer(invocation -> {
+            String location = invocation.getArgument(0);
+            if (location.equals("Sylhet")) {
+                throw new RuntimeException("Weather API error");
+            }
+            return forecast("Sunny", 30.0, 0.0, 10.0);
+        });
 
         // Act
         weatherMonitoringService.scheduleWeatherCheck();
 
         // Assert
-        verify(tripPlanRepository).findUpcomingTripsInRange(any(LocalDate.class), any(LocalDate.class));
-        verify(restTemplate).getForObject(anyString(), eq(String.class));
+        Map<String, Object> metrics = weatherMonitoringService.getLastScanMetrics();
+        assertEquals(2, metrics.get("trips"));
+        assertEquals(2, metrics.get("destinations"));
+        assertEquals(1, metrics.get("fetchErrors"));
+        assertEquals(0, metrics.get("tripErrors"));
+        assertTrue((Integer) metrics.get("peakInFlight") <= 2);
+        verify(weatherProvider, times(2)).fetchForecast(anyString(), anyInt());
+    }
+
+    @Test
+    void testScheduleWeatherCheck_WalksTripsInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherMonitoringService, "scanChunkSize", 1);
+        TripPlan secondTrip = TripPlan.builder()
+                .id(2L)
+                .userId(UUID.randomUUID())
+                .tripPlan(testTripPlan.getTripPlan())
+                .status(TripPlan.TripStatus.UPCOMING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(testTripPlan));
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(secondTrip));
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(tripPlanRepository).findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(2L), any(Pageable.class));
+        assertEquals(2, weatherMonitoringService.getLastScanMetrics().get("trips"));
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("destinations"));
+        verify(weatherProvider, times(1)).fetchForecast(anyString(), anyInt());
+    }
+
+    @Test
+    void testScheduleWeatherCheck_SendsAlertWhenAdverseSetChanges() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(eq(1L), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.SEND);
+
+        when(notificationService.sendWeatherAlertDigests(anyMap())).thenReturn(1);
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(notificationService).sendWeatherAlertDigests(argThat(alerts ->
+                alerts.size() == 1 && alerts.get(testUser.getId()).get(0).getTripId().equals(1L)));
+        verify(notificationService, never()).sendWeatherAlert(any(), anyString(), anyString(), anyLong());
+        verify(weatherAlertStateService).markSent(eq(1L), anyString());
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("alertsSent"));
+    }
+
+    @Test
+    void testScheduleWeatherCheck_DigestsAllTripsOfAUserIntoOneNotification() {
+        // Arrange
+        TripPlan secondTrip = TripPlan.builder()
+                .id(2L)
+                .userId(testUser.getId())
+                .tripPlan(testTripPlan.getTripPlan().replace("\"Dhaka\"", "\"Sylhet\""))
+                .status(TripPlan.TripStatus.UPCOMING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan, secondTrip));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(anyLong(), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.SEND);
+        when(notificationService.sendWeatherAlertDigests(anyMap())).thenReturn(1);
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(notificationService, times(1)).sendWeatherAlertDigests(argThat(alerts ->
+                alerts.size() == 1 && alerts.get(testUser.getId()).size() == 2));
+        verify(weatherAlertStateService).markSent(eq(1L), anyString());
+        verify(weatherAlertStateService).markSent(eq(2L), anyString());
+        assertEquals(2, weatherMonitoringService.getLastScanMetrics().get("alertsSent"));
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("alertDigests"));
+    }
+
+    @Test
+    void testScheduleWeatherCheck_FailedDigestLeavesAlertsUnmarked() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(eq(1L), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.SEND);
+        when(notificationService.sendWeatherAlertDigests(anyMap()))
+                .thenThrow(new RuntimeException("Failed to save weather alert digests: connection reset"));
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(weatherAlertStateService, never()).markSent(anyLong(), anyString());
+        assertEquals(0, weatherMonitoringService.getLastScanMetrics().get("alertsSent"));
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("tripErrors"));
+    }
+
+    @Test
+    void testScheduledWeatherCheck_PartitionsQueueAlertsAndLastPartitionSendsOneDigest() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherMonitoringService, "scanPartitions", 2);
+        doAnswer(invocation -> {
+            IntConsumer partitionJob = invocation.getArgument(4);
+            partitionJob.accept(0);
+            partitionJob.accept(1);
+            return 2;
+        }).when(jobLeaseService).runPartitioned(eq("weather-scan"), eq(2), any(), any(), any());
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(eq(1L), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.SEND);
+        when(weatherAlertDigestQueue.completePartition(anyString(), anyInt(), eq(2), anyMap(), anyMap()))
+                .thenReturn(false, true);
+        // The queue holds this trip plus one queued by the other partition for the same user
+        Map<UUID, List<WeatherAlertDigestItem>> queued = Map.of(testUser.getId(), List.of(
+                new WeatherAlertDigestItem(testUser.getId(), 1L, "Dhaka", "Thunderstorm"),
+                new WeatherAlertDigestItem(testUser.getId(), 2L, "Sylhet", "Heavy rain")));
+        when(weatherAlertDigestQueue.drain(any())).thenAnswer(invocation -> {
+            Consumer<WeatherAlertDigestQueue.PendingDigests> sender = invocation.getArgument(0);
+            sender.accept(new WeatherAlertDigestQueue.PendingDigests(queued, Map.of(1L, "fp-1", 2L, "fp-2")));
+            return 2;
+        });
+        when(notificationService.sendWeatherAlertDigests(anyMap())).thenReturn(1);
+
+        // Act
+        weatherMonitoringService.runScheduledWeatherCheck();
+
+        // Assert
+        verify(weatherAlertDigestQueue, times(2)).completePartition(anyString(), anyInt(), eq(2), anyMap(), anyMap());
+        verify(weatherAlertDigestQueue, times(1)).drain(any());
+        verify(notificationService, times(1)).sendWeatherAlertDigests(queued);
+        verify(weatherAlertStateService).markSent(1L, "fp-1");
+        verify(weatherAlertStateService).markSent(2L, "fp-2");
+    }
+
+    @Test
+    void testScheduleWeatherCheck_DigestDisabledSendsPerTrip() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherMonitoringService, "alertDigest", false);
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(eq(1L), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.SEND);
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(notificationService).sendWeatherAlert(eq(testUser.getId()), eq("Dhaka"), anyString(), eq(1L));
+        verify(notificationService, never()).sendWeatherAlertDigests(anyMap());
+        verify(weatherAlertStateService).markSent(eq(1L), anyString());
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("alertsSent"));
+    }
+
+    @Test
+    void testScheduleWeatherCheck_SuppressesDuplicateAlert() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        stubStormyForecast();
+        when(weatherAlertStateService.evaluate(eq(1L), anyString()))
+                .thenReturn(WeatherAlertStateService.AlertDecision.DUPLICATE);
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(notificationService, never()).sendWeatherAlert(any(), anyString(), anyString(), anyLong());
+        verify(weatherAlertStateService, never()).markSent(anyLong(), anyString());
+        assertEquals(1, weatherMonitoringService.getLastScanMetrics().get("alertsSuppressed"));
+    }
+
+    @Test
+    void testScheduleWeatherCheck_FavorableWeatherSendsNothing() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingTripsInRangeAfterId(any(LocalDate.class), any(LocalDate.class), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testTripPlan));
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast("Sunny", 30.0, 0.0, 10.0));
+        when(weatherAlertStateService.evaluate(1L, null)).thenReturn(WeatherAlertStateService.AlertDecision.CLEAR);
+
+        // Act
+        weatherMonitoringService.scheduleWeatherCheck();
+
+        // Assert
+        verify(notificationService, never()).sendWeatherAlert(any(), anyString(), anyString(), anyLong());
+    }
+
+    private void stubStormyForecast() {
+        when(weatherProvider.fetchForecast(anyString(), anyInt()))
+                .thenReturn(forecast("Thunderstorm", 28.0, 22.0, 40.0));
+    }
+
+    private List<Map<String, Object>> forecast(String condition, double avgTempC, double precipMm, double maxWindKph) {
+        Map<String, Object> day = new HashMap<>();
+        day.put("date", "2025-07-10");
+        day.put("condition", condition);
+        day.put("avg_temp_c", avgTempC);
+        day.put("precip_mm", precipMm);
+        day.put("max_wind_kph", maxWindKph);
+        return new ArrayList<>(List.of(day));
     }
 
     // Helper method to create isAdverseWeather method accessible for testing
@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import com.example.demo.Repository.TripPlanRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherPrefetchServiceTest {
+
+    @Mock
+    private TripPlanRepository tripPlanRepository;
+
+    @Mock
+    private WeatherProvider weatherProvider;
+
+    @Spy
+    private WeatherForecastCache weatherForecastCache = new WeatherForecastCache(30, 500);
+
+    @Spy
+    private WeatherScanExecutor weatherScanExecutor = new WeatherScanExecutor(2, 2);
+
+    @InjectMocks
+    private WeatherPrefetchService weatherPrefetchService;
+
+    @Test
+    void testRunTick_WarmsEachDistinctDestinationOnce() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Arrays.asList("Cox's Bazar", "  cox's bazar", null, " ", "Sylhet"));
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast());
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(2, refreshed);
+        verify(weatherProvider).fetchForecast("Cox's Bazar", WeatherProvider.MAX_FORECAST_DAYS);
+        verify(weatherProvider).fetchForecast("Sylhet", WeatherProvider.MAX_FORECAST_DAYS);
+        assertNotNull(weatherForecastCache.timeToExpiry("cox's bazar", LocalDate.now()));
+        assertNotNull(weatherForecastCache.timeToExpiry("Sylhet", LocalDate.now()));
+    }
+
+    @Test
+    void testRunTick_FreshEntriesAreNotRefreshed() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of("Sylhet"));
+        weatherForecastCache.getOrLoad("Sylhet", LocalDate.now(), this::forecast);
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(0, refreshed);
+        verifyNoInteractions(weatherProvider);
+    }
+
+    @Test
+    void testRunTick_EntryInsideRefreshAheadWindowIsReplaced() {
+        // Arrange - refresh-ahead longer than the TTL puts every entry in the window
+        ReflectionTestUtils.setField(weatherPrefetchService, "refreshAheadMinutes", 45L);
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of("Sylhet"));
+        weatherForecastCache.getOrLoad("Sylhet", LocalDate.now(), this::forecast);
+        when(weatherProvider.fetchForecast(eq("Sylhet"), anyInt())).thenReturn(forecast());
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(1, refreshed);
+        assertEquals(1L, weatherForecastCache.getStats().get("refreshes"));
+    }
+
+    @Test
+    void testRunTick_UnreadEntryIsLeftToExpire() {
+        // Arrange - in the refresh-ahead window, but warmed by prefetch and never read
+        ReflectionTestUtils.setField(weatherPrefetchService, "refreshAheadMinutes", 45L);
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of("Sylhet"));
+        weatherForecastCache.refresh("Sylhet", LocalDate.now(), this::forecast);
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(0, refreshed);
+        verifyNoInteractions(weatherProvider);
+    }
+
+    @Test
+    void testRunTick_ColdDestinationIsWarmedOncePerDay() {
+        // Arrange
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of("Sylhet"));
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast());
+        weatherPrefetchService.runTick();
+        // Nobody read it and it expired
+        weatherForecastCache.invalidate("Sylhet", LocalDate.now());
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(0, refreshed);
+        verify(weatherProvider, times(1)).fetchForecast(anyString(), anyInt());
+    }
+
+    @Test
+    void testPrefetchTick_OffByDefault() {
+        // Act
+        weatherPrefetchService.prefetchTick();
+
+        // Assert
+        verifyNoInteractions(tripPlanRepository, weatherProvider);
+    }
+
+    @Test
+    void testRunTick_ColdStartIsSpreadOverTicks() {
+        // Arrange - 40 destinations, 30 min TTL, 10 min refresh-ahead, 60 s ticks: 4 calls per tick
+        List<String> destinations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            destinations.add("Destination " + i);
+        }
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(destinations);
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenReturn(forecast());
+
+        // Act
+        int first = weatherPrefetchService.runTick();
+        int second = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(4, first);
+        assertEquals(4, second);
+        verify(weatherProvider, times(8)).fetchForecast(anyString(), anyInt());
+        // Destination list is cached between ticks
+        verify(tripPlanRepository, times(1)).findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void testRunTick_ProviderFailureKeepsOldEntryAndCountsFailure() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherPrefetchService, "refreshAheadMinutes", 45L);
+        when(tripPlanRepository.findUpcomingDestinationsInRange(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of("Sylhet"));
+        weatherForecastCache.getOrLoad("Sylhet", LocalDate.now(), this::forecast);
+        when(weatherProvider.fetchForecast(anyString(), anyInt())).thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        int refreshed = weatherPrefetchService.runTick();
+
+        // Assert
+        assertEquals(0, refreshed);
+        assertEquals(1L, weatherPrefetchService.getStats().get("failuresTotal"));
+        assertNotNull(weatherForecastCache.timeToExpiry("Sylhet", LocalDate.now()));
+    }
+
+    private List<Map<String, Object>> forecast() {
+        Map<String, Object> day = new HashMap<>();
+        day.put("date", LocalDate.now().toString());
+        day.put("condition", "Sunny");
+        day.put("avg_temp_c", 28.0);
+        day.put("precip_mm", 0.0);
+        day.put("max_wind_kph", 10.0);
+        return List.of(day);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.TripPlanDocument;
+import com.example.demo.entity.TripPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripPlanJsonTest {
+
+    private static final String SUMMARY =
+            "\"trip_summary\":{\"destination\":\"Sylhet\",\"start_date\":\"2025-08-01\",\"total_budget\":15000}";
+
+    @Test
+    void testMalformedActivityKeepsTripSummary() {
+        // Arrange: day 2 has a string where an activity object is expected
+        TripPlan tripPlan = new TripPlan();
+        tripPlan.setTripPlan("{" + SUMMARY + ",\"daily_itinerary\":[" +
+                "{\"day\":1,\"morning_activity\":{\"spot_name\":\"Ratargul\",\"entry_fee\":200}}," +
+                "{\"day\":2,\"morning_activity\":\"Free time\"," +
+                "\"afternoon_activities\":[{\"spot_name\":\"Jaflong\"}]}]}");
+
+        // Act
+        TripPlanDocument document = tripPlan.getDocument();
+
+        // Assert: summary fields survive and only the odd activity is lost
+        assertEquals("Sylhet", tripPlan.getDestination());
+        assertEquals(LocalDate.of(2025, 8, 1), tripPlan.getStartDate());
+        assertEquals(15000.0, tripPlan.getBudget());
+        assertEquals(2, document.getDailyItinerary().size());
+        assertEquals(List.of("Ratargul", "Jaflong"),
+                document.activities().stream().map(TripPlanDocument.Activity::getSpotName).toList());
+    }
+
+    @Test
+    void testLooselyFormattedFieldsAreCoerced() throws Exception {
+        // Arrange
+        String json = "{" + SUMMARY + ",\"daily_itinerary\":[{\"day\":\"1\"," +
+                "\"morning_activity\":{\"spot_name\":\"Ratargul\",\"entry_fee\":\"Free\"}," +
+                "\"afternoon_activities\":[null,{\"spot_name\":\"Jaflong\",\"entry_fee\":\"BDT 1,200\"}]," +
+                "\"accommodation_options\":[{\"hotel_name\":\"Nirvana\",\"amenities\":[\"WiFi\",\"Pool\"]," +
+                "\"cost_per_night\":\"$85\",\"rating\":\"4.5 stars\"}]}]}";
+
+        // Act
+        TripPlanDocument document = TripPlanJson.readDocument(json);
+
+        // Assert
+        assertEquals("Sylhet", document.resolveDestination());
+        List<TripPlanDocument.Activity> activities = document.activities();
+        assertEquals(2, activities.size());
+        assertNull(activities.get(0).getEntryFee());
+        assertEquals(1200.0, activities.get(1).getEntryFee());
+        TripPlanDocument.Accommodation hotel = document.accommodations().get(0);
+        assertEquals("WiFi, Pool", hotel.getAmenities());
+        assertEquals(85.0, hotel.getCostPerNight());
+        assertEquals(4.5, hotel.getRating());
+    }
+
+    @Test
+    void testInvalidJsonYieldsEmptyDocument() {
+        TripPlan tripPlan = new TripPlan();
+        tripPlan.setTripPlan("not json");
+
+        assertNull(tripPlan.getDestination());
+        assertTrue(tripPlan.getDocument().activities().isEmpty());
+    }
+}
@@ -85,10 +85,10 @@ export const tripApi = {
         }
     },
 
-    // Get all trip plans for current user
-    getMyTripPlans: async () => {
+    // Get one page of the current user's trip plans; pass the previous page's nextCursor for the next one
+    getMyTripPlans: async (cursor = null) => {
         try {
-            const response = await api.get('/api/trip-plans/my-trips');
+            const response = await api.get('/api/trip-plans/my-trips', { params: cursor ? { cursor } : {} });
             return response.data;
         } catch (error) {
             console.error('Error fetching my trip plans:', error);
@@ -96,10 +96,10 @@ export const tripApi = {
         }
     },
 
-    // Get trip plans by status
-    getTripPlansByStatus: async (status) => {
+    // Get one page of trip plans by status; pass the previous page's nextCursor for the next one
+    getTripPlansByStatus: async (status, cursor = null) => {
         try {
-            const response = await api.get(`/api/trip-plans/my-trips/${status}`);
+            const response = await api.get(`/api/trip-plans/my-trips/${status}`, { params: cursor ? { cursor } : {} });
             return response.data;
         } catch (error) {
             console.error('Error fetching trip plans by status:', error);
@@ -206,11 +206,11 @@ export const tripApi = {
         }
     },
 
-    // Get available group trips
-    getAvailableGroupTrips: async () => {
+    // Get one page of available group trips; pass the previous page's nextCursor for the next one
+    getAvailableGroupTrips: async (filters = {}, cursor = null) => {
         try {
             console.log('🔍 Fetching available group trips...');
-            const response = await api.get('/api/group-trips/available');
+            const response = await api.get('/api/group-trips/available', { params: cursor ? { ...filters, cursor } : filters });
             console.log('✅ Available group trips response:', response.data);
             return response.data;
         } catch (error) {
@@ -220,11 +220,11 @@ export const tripApi = {
         }
     },
 
-    // Get user's own group trips
-    getMyGroupTrips: async () => {
+    // Get one page of the user's own group trips; pass the previous page's nextCursor for the next one
+    getMyGroupTrips: async (cursor = null) => {
         try {
             console.log('📋 Fetching my group trips...');
-            const response = await api.get('/api/group-trips/my-trips');
+            const response = await api.get('/api/group-trips/my-trips', { params: cursor ? { cursor } : {} });
             console.log('✅ My group trips response:', response.data);
             return response.data;
         } catch (error) {
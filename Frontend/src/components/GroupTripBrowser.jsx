@@ -5,6 +5,9 @@ import './GroupTripBrowser.css';
 const GroupTripBrowser = () => {
     const [availableTrips, setAvailableTrips] = useState([]);
     const [loading, setLoading] = useState(true);
+    // The list is paged; nextCursor points at the next page, null once everything is loaded
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [error, setError] = useState(null);
     const [searchQuery, setSearchQuery] = useState('');
     const [filterStatus, setFilterStatus] = useState('all');
@@ -28,6 +31,7 @@ const GroupTripBrowser = () => {
             if (response.success) {
                 console.log('Available trips data:', response.data);
                 setAvailableTrips(response.data || []);
+                setNextCursor(response.hasMore ? response.nextCursor : null);
             } else {
                 throw new Error(response.error || 'Failed to fetch available trips');
             }
@@ -35,11 +39,33 @@ const GroupTripBrowser = () => {
             console.error('Error fetching available trips:', error);
             setError('Failed to load available group trips. Please try again.');
             setAvailableTrips([]);
+            setNextCursor(null);
         } finally {
             setLoading(false);
         }
     };
 
+    const loadMoreTrips = async () => {
+        if (!nextCursor || isLoadingMore) return;
+
+        try {
+            setIsLoadingMore(true);
+            const response = await tripApi.getAvailableGroupTrips({}, nextCursor);
+            if (response.success) {
+                const nextPage = response.data || [];
+                setAvailableTrips(prev => {
+                    const shownIds = new Set(prev.map(t => t.id));
+                    return [...prev, ...nextPage.filter(t => !shownIds.has(t.id))];
+                });
+                setNextCursor(response.hasMore ? response.nextCursor : null);
+            }
+        } catch (error) {
+            console.error('Error loading more trips:', error);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     const handleViewDetails = async (trip) => {
         try {
             const response = await tripApi.getGroupTripDetails(trip.id);
@@ -274,6 +300,16 @@ const GroupTripBrowser = () => {
                 )}
             </div>
 
+            {nextCursor && (
+                <button
+                    className="load-more-button"
+                    onClick={loadMoreTrips}
+                    disabled={isLoadingMore}
+                >
+                    {isLoadingMore ? 'Loading...' : 'Load more trips'}
+                </button>
+            )}
+
             {/* Trip Details Modal */}
             {showDetails && selectedTrip && (
                 <div className="trip-details-modal" onClick={() => setShowDetails(false)}>
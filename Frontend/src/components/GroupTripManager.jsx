@@ -8,6 +8,9 @@ const GroupTripManager = () => {
     const { currentUser } = useContext(AuthContext);
     const [myGroupTrips, setMyGroupTrips] = useState([]);
     const [loading, setLoading] = useState(true);
+    // The list is paged; nextCursor points at the next page, null once everything is loaded
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [error, setError] = useState(null);
     const [selectedTrip, setSelectedTrip] = useState(null);
     const [showDetails, setShowDetails] = useState(false);
@@ -55,6 +58,7 @@ const GroupTripManager = () => {
                     });
                 });
                 setMyGroupTrips(trips);
+                setNextCursor(response.hasMore ? response.nextCursor : null);
             } else {
                 throw new Error(response.error || 'Failed to fetch group trips');
             }
@@ -62,11 +66,33 @@ const GroupTripManager = () => {
             console.error('❌ Error fetching my group trips:', error);
             setError('Failed to load your group trips. Please try again.');
             setMyGroupTrips([]);
+            setNextCursor(null);
         } finally {
             setLoading(false);
         }
     };
 
+    const loadMoreGroupTrips = async () => {
+        if (!nextCursor || isLoadingMore) return;
+
+        try {
+            setIsLoadingMore(true);
+            const response = await tripApi.getMyGroupTrips(nextCursor);
+            if (response.success) {
+                const nextPage = response.data || [];
+                setMyGroupTrips(prev => {
+                    const shownIds = new Set(prev.map(t => t.id));
+                    return [...prev, ...nextPage.filter(t => !shownIds.has(t.id))];
+                });
+                setNextCursor(response.hasMore ? response.nextCursor : null);
+            }
+        } catch (error) {
+            console.error('❌ Error loading more group trips:', error);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     const handleViewDetails = async (trip) => {
         try {
             const response = await tripApi.getGroupTripDetails(trip.id);
@@ -607,6 +633,16 @@ const GroupTripManager = () => {
                 )}
             </div>
 
+            {nextCursor && (
+                <button
+                    className="load-more-button"
+                    onClick={loadMoreGroupTrips}
+                    disabled={isLoadingMore}
+                >
+                    {isLoadingMore ? 'Loading...' : 'Load more group trips'}
+                </button>
+            )}
+
             {showDetails && selectedTrip && (
                 <div className="trip-details-modal" onClick={() => setShowDetails(false)}>
                     <div className="trip-details-content" onClick={e => e.stopPropagation()}>
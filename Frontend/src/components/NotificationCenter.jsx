@@ -13,6 +13,9 @@ const NotificationCenter = () => {
     const [unreadCount, setUnreadCount] = useState(0);
     const [isOpen, setIsOpen] = useState(false);
     const [isLoading, setIsLoading] = useState(false);
+    // The inbox is paged (newest first); nextCursor points at the next older page, null once it is all loaded
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingOlder, setIsLoadingOlder] = useState(false);
     const navigate = useNavigate();
     const dropdownRef = useRef(null);
 
@@ -61,6 +64,7 @@ const NotificationCenter = () => {
             const response = await api.get('/api/notifications');
             setNotifications(response.data.notifications);
             setUnreadCount(response.data.unreadCount);
+            setNextCursor(response.data.hasMore ? response.data.nextCursor : null);
         } catch (error) {
             console.error('Failed to load notifications:', error);
             // Add some mock data for testing if API fails
@@ -89,6 +93,26 @@ const NotificationCenter = () => {
         }
     };
 
+    const loadOlderNotifications = async () => {
+        if (!nextCursor || isLoadingOlder) return;
+
+        try {
+            setIsLoadingOlder(true);
+            const response = await api.get('/api/notifications', { params: { cursor: nextCursor } });
+            const olderPage = response.data.notifications || [];
+            setNotifications(prev => {
+                // Skip anything already shown, e.g. a notification that arrived over the WebSocket
+                const shownIds = new Set(prev.map(n => n.id));
+                return [...prev, ...olderPage.filter(n => !shownIds.has(n.id))];
+            });
+            setNextCursor(response.data.hasMore ? response.data.nextCursor : null);
+        } catch (error) {
+            console.error('Failed to load older notifications:', error);
+        } finally {
+            setIsLoadingOlder(false);
+        }
+    };
+
     const markAsRead = async (notificationId) => {
         console.log('Marking notification as read:', notificationId);
         try {
@@ -165,12 +189,14 @@ const NotificationCenter = () => {
             await api.delete(`/api/notifications/user/${effectiveUser.id}/all`);
             setNotifications([]);
             setUnreadCount(0);
+            setNextCursor(null);
             console.log('Successfully cleared all notifications');
         } catch (error) {
             console.error('Failed to clear notifications:', error);
             // Still update the UI even if API fails
             setNotifications([]);
             setUnreadCount(0);
+            setNextCursor(null);
             console.log('Updated UI locally (API failed)');
         }
     };
@@ -335,6 +361,18 @@ const NotificationCenter = () => {
                                 </div>
                             ))
                         )}
+                        {!isLoading && nextCursor && (
+                            <button
+                                className="load-older-btn"
+                                onClick={(e) => {
+                                    e.stopPropagation();
+                                    loadOlderNotifications();
+                                }}
+                                disabled={isLoadingOlder}
+                            >
+                                {isLoadingOlder ? 'Loading...' : 'Load older notifications'}
+                            </button>
+                        )}
                     </div>
                 </div>,
                 document.getElementById('notification-root')
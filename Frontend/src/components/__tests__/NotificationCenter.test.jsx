@@ -203,6 +203,43 @@ describe('NotificationCenter Component', () => {
       expect(screen.getByText('Loading notifications...')).toBeInTheDocument();
     });
 
+    test('loads older notifications from the next cursor', async () => {
+      api.get
+        .mockResolvedValueOnce({
+          data: {
+            notifications: [mockNotifications[0]],
+            unreadCount: 1,
+            nextCursor: 'cursor-1',
+            hasMore: true,
+          },
+        })
+        .mockResolvedValueOnce({
+          data: {
+            notifications: [mockNotifications[1]],
+            unreadCount: 1,
+            nextCursor: null,
+            hasMore: false,
+          },
+        });
+
+      renderWithProviders(mockUser);
+
+      fireEvent.click(screen.getByRole('button'));
+
+      await waitFor(() => {
+        expect(screen.getByText('Weather alert for your trip to Sylhet')).toBeInTheDocument();
+      });
+      expect(screen.queryByText('Another weather alert')).not.toBeInTheDocument();
+
+      fireEvent.click(screen.getByText('Load older notifications'));
+
+      await waitFor(() => {
+        expect(api.get).toHaveBeenLastCalledWith('/api/notifications', { params: { cursor: 'cursor-1' } });
+        expect(screen.getByText('Another weather alert')).toBeInTheDocument();
+        expect(screen.queryByText('Load older notifications')).not.toBeInTheDocument();
+      });
+    });
+
     test('falls back to mock data when API fails', async () => {
       api.get.mockRejectedValue(new Error('API Error'));
 
@@ -586,4 +586,63 @@ ALTER TABLE ONLY public.blog_comments
     ADD CONSTRAINT blog_comments_user_id_fkey FOREIGN KEY (user_id) REFERENCES public.users(id) ON DELETE CASCADE;
 
 ALTER TABLE ONLY public.blog_comments
-    ADD CONSTRAINT blog_comments_parent_comment_id_fkey FOREIGN KEY (parent_comment_id) REFERENCES public.blog_comments(id) ON DELETE CASCADE;
\ No newline at end of file
+    ADD CONSTRAINT blog_comments_parent_comment_id_fkey FOREIGN KEY (parent_comment_id) REFERENCES public.blog_comments(id) ON DELETE CASCADE;
+
+-- trip_activity checklist
+-- -----------------------
+-- The duplicate cleanup and uk_trip_activity_trip_activity are applied at startup by
+-- SchemaMigrationService (2025_07_trip_activity_unique), which also reaches existing databases.
+
+-- weather_alert_state
+-- -------------------
+-- Last weather alert fingerprint per trip, used to skip repeat alerts.
+CREATE TABLE IF NOT EXISTS public.weather_alert_state (
+    trip_id bigint PRIMARY KEY,
+    fingerprint character varying(64),
+    last_alerted_at timestamp without time zone,
+    last_checked_at timestamp without time zone,
+    suppressed_count bigint NOT NULL DEFAULT 0
+);
+
+-- scheduled_job_lease
+-- -------------------
+-- One row per scheduled job (or job partition); a replica runs the job only while it holds the lease.
+CREATE TABLE IF NOT EXISTS public.scheduled_job_lease (
+    job_name character varying(100) PRIMARY KEY,
+    locked_until timestamp without time zone NOT NULL,
+    locked_at timestamp without time zone NOT NULL,
+    locked_by character varying(255) NOT NULL
+);
+
+-- notification_outbox
+-- -------------------
+-- WebSocket pushes waiting for delivery, written in the same transaction as the notification.
+CREATE TABLE IF NOT EXISTS public.notification_outbox (
+    id bigserial PRIMARY KEY,
+    notification_id uuid NOT NULL,
+    user_id uuid NOT NULL,
+    payload text NOT NULL,
+    status character varying(20) NOT NULL DEFAULT 'PENDING',
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp without time zone NOT NULL,
+    created_at timestamp without time zone NOT NULL,
+    delivered_at timestamp without time zone,
+    last_error character varying(500)
+);
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON public.notification_outbox (status, next_attempt_at);
+
+-- notifications partitioning
+-- --------------------------
+-- Monthly range partitions on created_at are set up at startup by SchemaMigrationService
+-- (2025_08_notifications_partitioned), which also converts existing databases; NotificationPartitionService
+-- maintains them.
+
+-- group trip discovery
+-- --------------------
+-- destination/start_date/budget, their backfill from the linked plan and the discovery indexes are applied at
+-- startup by SchemaMigrationService (2025_08_group_trip_discovery), which also reaches existing databases.
+
+-- group trip seats
+-- ----------------
+-- The max_people backfill, the one-off current_members recount and group_trips_current_members_check are
+-- applied at startup by SchemaMigrationService (2025_08_group_trip_seats), which also reaches existing databases.